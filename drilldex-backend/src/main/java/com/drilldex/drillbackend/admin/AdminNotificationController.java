@@ -0,0 +1,40 @@
+// src/main/java/com/drilldex/drillbackend/admin/AdminNotificationController.java
+package com.drilldex.drillbackend.admin;
+
+import com.drilldex.drillbackend.notification.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminNotificationController {
+
+    private final NotificationService notificationService;
+
+    @Value("${app.notifications.bulk.announce-chunk-size:10000}")
+    private int chunkSize;
+
+    /** Sends a system notification to every user who is not banned. */
+    @PostMapping("/announce")
+    public ResponseEntity<?> announce(@RequestBody Map<String, String> body) {
+        String title = body.get("title");
+        String message = body.get("message");
+        if (title == null || title.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Title is required"));
+        }
+        if (title.length() > 128 || (message != null && message.length() > 1024)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Title or message too long"));
+        }
+
+        long started = System.currentTimeMillis();
+        int sent = notificationService.announce(title.trim(), message, chunkSize);
+        return ResponseEntity.ok(Map.of("sent", sent, "durationMs", System.currentTimeMillis() - started));
+    }
+}
@@ -0,0 +1,30 @@
+// src/main/java/com/drilldex/drillbackend/admin/AdminStorageController.java
+package com.drilldex.drillbackend.admin;
+
+import com.drilldex.drillbackend.storage.StorageGarbageCollector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/storage")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminStorageController {
+
+    private final StorageGarbageCollector garbageCollector;
+
+    /** Reports (dryRun=true, default) or reclaims unreferenced upload/zip/license files. */
+    @PostMapping("/gc")
+    public ResponseEntity<?> collectGarbage(@RequestParam(defaultValue = "true") boolean dryRun) {
+        StorageGarbageCollector.Report report = garbageCollector.run(dryRun);
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Storage GC already running"));
+        }
+        return ResponseEntity.ok(report);
+    }
+}
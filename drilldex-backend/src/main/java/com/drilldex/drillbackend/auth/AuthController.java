@@ -4,7 +4,6 @@ import com.drilldex.drillbackend.notification.Notification;
 import com.drilldex.drillbackend.notification.NotificationService;
 import com.drilldex.drillbackend.notification.NotificationType;
 import com.drilldex.drillbackend.notification.RelatedType;
-import com.drilldex.drillbackend.token.RefreshToken;
 import com.drilldex.drillbackend.token.RefreshTokenService;
 import com.drilldex.drillbackend.user.*;
 import com.drilldex.drillbackend.user.dto.*;
@@ -152,12 +151,12 @@ public class AuthController {
 
         // --- 4️⃣ Generate tokens for new user ---
         String accessToken = jwtService.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
 
         // --- 5️⃣ Return tokens ---
         return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "accessToken", accessToken,
-                "refreshToken", refreshToken.getToken()
+                "refreshToken", refreshToken
         ));
     }
 
@@ -183,29 +182,34 @@ public class AuthController {
         }
 
         String accessToken = jwtService.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
 
 
-        return new LoginResponse(accessToken, refreshToken.getToken());
+        return new LoginResponse(accessToken, refreshToken);
     }
 
     @PostMapping("/refresh-token")
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
-        String requestToken = request.getRefreshToken();
-        var opt = refreshTokenService.findByToken(requestToken);
-        if (opt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid refresh token"));
-        }
-        RefreshToken rt = opt.get();
-        if (refreshTokenService.isExpired(rt)) {
-            refreshTokenService.deleteByToken(requestToken);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+        var refresh = refreshTokenService.rotate(request.getRefreshToken());
+        return switch (refresh.outcome()) {
+            case ROTATED -> ResponseEntity.ok(new LoginResponse(
+                    jwtService.generateToken(refresh.user()), refresh.refreshToken()));
+            case EXPIRED -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Refresh token expired"));
-        }
-        String accessToken = jwtService.generateToken(rt.getUser());
-        // keep same refresh token
-        return ResponseEntity.ok(new LoginResponse(accessToken, requestToken));
+            case REUSED -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Refresh token already used; please sign in again"));
+            case CONCURRENT -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Refresh token already exchanged; use the latest one"));
+            case INVALID -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid refresh token"));
+        };
+    }
+
+    /** Revokes every refresh token from the same login; the access token simply expires. */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody LogoutRequest request) {
+        refreshTokenService.revokeFamily(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/me")
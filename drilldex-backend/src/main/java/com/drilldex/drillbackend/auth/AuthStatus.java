@@ -0,0 +1,4 @@
+package com.drilldex.drillbackend.auth;
+
+/** The few user fields the auth filter needs on every request. */
+public record AuthStatus(Long id, boolean banned) {}
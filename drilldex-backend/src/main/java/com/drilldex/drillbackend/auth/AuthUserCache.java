@@ -0,0 +1,48 @@
+package com.drilldex.drillbackend.auth;
+
+import com.drilldex.drillbackend.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived per-email cache of {@link AuthStatus}, so authenticated requests skip the users
+ * table. Nothing in the app bans users; the flag is set on the users table directly, so a ban
+ * takes effect on every node within the TTL
+ * (security.jwt.user-cache.ttl-seconds). The role comes from the access token, not from here:
+ * a role change applies once the user's current access token expires.
+ * Unknown emails are cached too, as empty.
+ */
+@Component
+public class AuthUserCache {
+
+    private record Entry(Optional<AuthStatus> status, long expiresAt) {}
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public AuthUserCache(UserRepository userRepository,
+                         @Value("${security.jwt.user-cache.ttl-seconds:30}") long ttlSeconds,
+                         @Value("${security.jwt.user-cache.max-entries:50000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMs = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public Optional<AuthStatus> get(String email) {
+        long now = System.currentTimeMillis();
+        Entry e = cache.get(email);
+        if (e != null && e.expiresAt() > now) return e.status();
+
+        Optional<AuthStatus> status = userRepository.findAuthStatusByEmail(email);
+        if (cache.size() >= maxEntries && !cache.containsKey(email)) cache.clear();
+        cache.put(email, new Entry(status, now + ttlMs));
+        return status;
+    }
+}
@@ -0,0 +1,60 @@
+package com.drilldex.drillbackend.auth;
+
+import com.drilldex.drillbackend.user.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Principal built from access-token claims. The {@link User} entity is only loaded, once, when
+ * something calls {@link #getUser()}; the id, email and role are available without a query.
+ */
+public class ClaimsUserDetails extends CustomUserDetails {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+    private final Function<Long, User> loader;
+    private volatile User user;
+
+    public ClaimsUserDetails(Long id, String email, String role, Function<Long, User> loader) {
+        super(null);
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.loader = loader;
+    }
+
+    @Override
+    public User getUser() {
+        User u = user;
+        if (u == null) {
+            u = loader.apply(id);
+            user = u;
+        }
+        return u;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // authenticated by token, never by password
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -1,5 +1,7 @@
 package com.drilldex.drillbackend.auth;
 
+import com.drilldex.drillbackend.user.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,14 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 
 @Component
@@ -25,7 +25,8 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final AuthUserCache authUserCache;
+    private final UserRepository userRepository;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -50,15 +51,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String jwt = authHeader.substring(7);
 
-        String email = null;
-        String role  = null;
+        Claims claims;
         try {
-            // 2) Try to read claims. If expired/invalid, don't authenticate and continue.
-            email = jwtService.extractUsername(jwt);
-            role  = jwtService.extractRole(jwt);
-            log.debug("🔑 JWT extracted");
-            log.debug("📧 Email extracted: {}", email);
-            log.debug("🎭 Role extracted: {}", role);
+            // 2) Parse once. If expired/invalid, don't authenticate and continue.
+            claims = jwtService.parse(jwt);
         } catch (io.jsonwebtoken.ExpiredJwtException ex) {
             log.debug("⌛ Access token expired. Letting request continue to trigger 401 -> refresh.");
             filterChain.doFilter(request, response);
@@ -69,23 +65,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        String email = claims.getSubject();
+        String role = claims.get("role", String.class);
+        log.debug("📧 Email extracted: {}", email);
+        log.debug("🎭 Role extracted: {}", role);
+
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // 3) Ban check and id from the short-lived cache; the User entity itself stays unloaded
+            AuthStatus status = authUserCache.get(email).orElse(null);
+            Long tokenUserId = jwtService.extractUserId(claims);
+
+            if (status == null) {
+                log.warn("❌ Token for unknown user: {}", email);
+            } else if (status.banned()) {
+                log.debug("🚫 Token for banned user: {}", email);
+            } else if (tokenUserId != null && !tokenUserId.equals(status.id())) {
+                log.warn("❌ Token user id does not match account for: {}", email);
+            } else {
                 log.debug("✅ Token is valid for user: {}", email);
 
+                String roleName = role != null ? role : "USER";
+                ClaimsUserDetails principal = new ClaimsUserDetails(status.id(), email, roleName, id ->
+                        userRepository.findById(id)
+                                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id)));
+
                 // Build authorities from role claim (prefix with ROLE_)
-                SimpleGrantedAuthority authority =
-                        new SimpleGrantedAuthority("ROLE_" + (role != null ? role : "USER"));
+                SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + roleName);
 
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, List.of(authority));
+                        new UsernamePasswordAuthenticationToken(principal, null, List.of(authority));
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 log.debug("🔒 Security context updated with {}", authority.getAuthority());
-            } else {
-                log.warn("❌ Invalid token for user: {}", email);
             }
         } else {
             log.debug("ℹ️ No authentication set or email was null");
@@ -2,6 +2,7 @@ package com.drilldex.drillbackend.auth;
 
 import com.drilldex.drillbackend.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -17,13 +18,19 @@ import java.util.Map;
 @Service
 public class JwtService {
 
+    private static final String STREAM_SCOPE = "sse";
+    private static final String PROBE_SCOPE = "probe";
+
     private final SecretKey key;
     private final long accessTokenExpirationMs;
+    private final long streamTokenExpirationMs;
+    private final JwtParser parser; // immutable and thread-safe, built once
 
     // If your secret in properties is RAW text (what you have now):
     public JwtService(
             @Value("${security.jwt.secret}") String secret,
-            @Value("${security.jwt.access-token.expiration-ms}") long accessTokenExpirationMs
+            @Value("${security.jwt.access-token.expiration-ms}") long accessTokenExpirationMs,
+            @Value("${security.jwt.stream-token.expiration-ms:3600000}") long streamTokenExpirationMs
     ) {
         // Use ONE of these:
         // 1) RAW UTF‑8 secret (your current properties example):
@@ -33,6 +40,11 @@ public class JwtService {
         // this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
 
         this.accessTokenExpirationMs = accessTokenExpirationMs;
+        this.streamTokenExpirationMs = streamTokenExpirationMs;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setAllowedClockSkewSeconds(5)
+                .build();
     }
 
     public String generateToken(User user) {
@@ -40,12 +52,61 @@ public class JwtService {
         return Jwts.builder()
                 .setSubject(user.getEmail())
                 .addClaims(Map.of("role", user.getRole().name()))
+                .claim("uid", user.getId()) // lets the auth filter build the principal without a lookup
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + accessTokenExpirationMs))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Token for opening the user's SSE streams, which browsers request without an Authorization
+     * header. It has no subject, so the auth filter never accepts it as an access token.
+     */
+    public String generateStreamToken(Long userId) {
+        return scopedToken(STREAM_SCOPE, userId);
+    }
+
+    /** Token for the SSE load-test probe streams; the user streams reject it (see parseStreamToken). */
+    public String generateProbeToken(Long syntheticUserId) {
+        return scopedToken(PROBE_SCOPE, syntheticUserId);
+    }
+
+    private String scopedToken(String scope, Long userId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("scope", scope)
+                .claim("uid", userId)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + streamTokenExpirationMs))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public long getStreamTokenExpirationMs() {
+        return streamTokenExpirationMs;
+    }
+
+    /** User id of a valid stream token; null if it is missing, invalid, expired or another kind of token. */
+    public Long parseStreamToken(String token) {
+        return parseScoped(token, STREAM_SCOPE);
+    }
+
+    /** User id of a valid probe token; null for anything else, including stream tokens. */
+    public Long parseProbeToken(String token) {
+        return parseScoped(token, PROBE_SCOPE);
+    }
+
+    private Long parseScoped(String token, String scope) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            Claims claims = parse(token);
+            return scope.equals(claims.get("scope", String.class)) ? extractUserId(claims) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public String extractUsername(String token) {
         return parse(token).getSubject();
     }
@@ -58,14 +119,13 @@ public class JwtService {
         return userDetails.getUsername().equals(extractUsername(token));
     }
 
-    public Claims parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .setAllowedClockSkewSeconds(5)
-                .build()
-                .parseClaimsJws(token)
+    /** User id claim; null for tokens issued before it was added. */
+    public Long extractUserId(Claims claims) {
+        return claims.get("uid", Long.class);
+    }
 
-                .getBody();
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
 }
\ No newline at end of file
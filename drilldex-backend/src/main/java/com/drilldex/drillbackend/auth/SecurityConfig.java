@@ -1,5 +1,6 @@
 package com.drilldex.drillbackend.auth;
 
+import com.drilldex.drillbackend.ratelimit.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -29,6 +30,7 @@ import org.springframework.http.HttpMethod;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(
@@ -152,8 +154,13 @@ public class SecurityConfig {
                                 .requestMatchers("/api/auth/me").authenticated()
                                 .requestMatchers(HttpMethod.GET, "/api/chat/threads").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/chat/history").permitAll()
+                                .requestMatchers(HttpMethod.GET, "/api/chat/history/page").authenticated()
+                                // Streams check a stream token (?token=) themselves: EventSource sends no Authorization header
                                 .requestMatchers(HttpMethod.GET, "/api/chat/stream").permitAll()
                                 .requestMatchers("/api/notifications/stream").permitAll()
+                                // Load-test hooks; the controller only exists with app.sse.probe.enabled=true
+                                // and only reaches synthetic user ids with "probe"-scoped tokens
+                                .requestMatchers("/api/sse/probe/**").permitAll()
                                 // Notifications enforce auth in controller to avoid JWT filter edge cases
                                 .requestMatchers("/api/notifications/**").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/chat/send").authenticated()
@@ -169,6 +176,7 @@ public class SecurityConfig {
                                 .requestMatchers("/api/packs/upload").hasAnyRole("ARTIST", "USER", "ADMIN")
                                 .requestMatchers("/api/packs/**").authenticated()
                                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
                                 .requestMatchers("/api/admin/packs/**").hasRole("ADMIN")
                                 .requestMatchers("/uploads/**").permitAll()
                                 .requestMatchers("/api/beats/upload").hasAnyRole("ARTIST", "USER", "ADMIN")
@@ -181,7 +189,8 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class); // keyed by user once authenticated
         return http.build();
     }
 
@@ -16,6 +16,7 @@ import com.drilldex.drillbackend.user.Role;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.util.AudioUtils;
 import com.drilldex.drillbackend.util.TagUtils;
+import com.drilldex.drillbackend.ratelimit.PlayDeduplicator;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -75,6 +76,7 @@ public class BeatController {
     private final PromotionService promotionService;
     private final PurchaseRepository purchaseRepository;
     private final FollowerNotificationService followerNotificationService;
+    private final PlayDeduplicator playDeduplicator;
 
 
 
@@ -426,8 +428,13 @@ public class BeatController {
         }
 
         // Local key: stream from disk under uploadRoot
-        Path audioPath = Paths.get(uploadRoot).resolve(stored).normalize();
-        if (!Files.exists(audioPath)) {
+        Path audioPath;
+        try {
+            audioPath = AudioUtils.resolveUploadPath(uploadRoot, stored);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid audio path");
+        }
+        if (audioPath == null || !Files.exists(audioPath)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Audio file not found");
         }
 
@@ -449,12 +456,14 @@ public class BeatController {
 
 
     @PostMapping("/{id}/play")
-    public ResponseEntity<?> incrementPlayCount(@PathVariable Long id) {
-        Beat beat = beatRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Beat not found"));
-
-        beat.setPlayCount(beat.getPlayCount() + 1);
-        beatRepository.save(beat);
+    public ResponseEntity<?> incrementPlayCount(@PathVariable Long id, HttpServletRequest request) {
+        if (!beatRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Beat not found");
+        }
+        // Repeat plays by the same listener within the window are accepted but not counted
+        if (playDeduplicator.shouldCount("beat", id, request)) {
+            beatService.incrementPlayCount(id);
+        }
 
         return ResponseEntity.ok().build();
     }
@@ -472,34 +481,25 @@ public class BeatController {
         return new Object[]{safeCount, safeSum};
     }
 
-    private BeatDto mapToDto(Beat beat) {
-        // 1️⃣ Determine current user
-        User tmp;
-        try {
-            tmp = currentUserService.getCurrentUserOrThrow();
-        } catch (Exception ignored) {
-            tmp = null;
-        }
-        final User current = tmp;
-
-        // 2️⃣ Determine if current user liked this beat
-        boolean liked = false;
-        if (current != null && beat.getUpvotedBy() != null) {
-            liked = beat.getUpvotedBy()
-                    .stream()
-                    .anyMatch(u -> u.getId().equals(current.getId()));
-        }
+    /** Ids among the given beats liked by the current user: one query, none when anonymous. */
+    private Set<Long> likedBeatIds(List<Beat> beats) {
+        Long currentUserId = currentUserService.getCurrentUserIdOrNull();
+        if (currentUserId == null || beats.isEmpty()) return Set.of();
+        return new HashSet<>(beatRepository.findLikedBeatIds(currentUserId, beats.stream().map(Beat::getId).toList()));
+    }
 
-        // 3️⃣ Owner ID
+    /** The caller resolves liked flags for all its rows up front, see {@link #likedBeatIds}. */
+    private BeatDto mapToDto(Beat beat, boolean liked) {
+        // 2️⃣ Owner ID
         Long ownerId = (beat.getOwner() != null) ? beat.getOwner().getId() : null;
 
-        // 4️⃣ Sales and earnings
+        // 3️⃣ Sales and earnings
         Object[] rawStats = purchaseRepository.getBeatSalesAndEarnings(beat.getId());
         Object[] stats = safeStats(rawStats);
         int sales = ((Number) stats[0]).intValue();
         BigDecimal earnings = (BigDecimal) stats[1];
 
-        // 5️⃣ Build DTO
+        // 4️⃣ Build DTO
         return new BeatDto(
                 beat.getId(),
                 beat.getSlug(),
@@ -539,7 +539,7 @@ public class BeatController {
         Beat beat = beatRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Beat not found"));
 
-        return ResponseEntity.ok(mapToDto(beat));
+        return ResponseEntity.ok(mapToDto(beat, likedBeatIds(List.of(beat)).contains(beat.getId())));
     }
     @PostMapping("/{id}/like")
     public ResponseEntity<BeatDto> likeBeat(@PathVariable Long id) {
@@ -577,7 +577,7 @@ public class BeatController {
         }
 
         List<Beat> rows = resultPage.getContent();
-        Long userId = (principal != null) ? principal.getUser().getId() : null;
+        Long userId = (principal != null) ? principal.getId() : null;
         List<Long> ids = rows.stream().map(Beat::getId).toList();
 
         // Liked IDs
@@ -649,7 +649,9 @@ public class BeatController {
             @RequestParam(required = false) Integer bpmMax
     ) {
         List<Beat> filteredBeats = beatRepository.findByFilters(genre, bpmMin, bpmMax);
-        List<BeatDto> dtos = filteredBeats.stream().map(this::mapToDto).toList();
+
+        Set<Long> likedIds = likedBeatIds(filteredBeats);
+        List<BeatDto> dtos = filteredBeats.stream().map(b -> mapToDto(b, likedIds.contains(b.getId()))).toList();
         return ResponseEntity.ok(dtos);
     }
 
@@ -678,9 +680,7 @@ public class BeatController {
 
         // 4) Active promotions (featured) only
         Map<Long, Promotion> promoMap = promotionService
-                .getActivePromotions(Promotion.TargetType.BEAT, Instant.now(), beatIds.size())
-                .stream()
-                .collect(Collectors.toMap(Promotion::getTargetId, p -> p));
+                .getActivePromotionsByTarget(Promotion.TargetType.BEAT, beatIds);
 
         final Set<Long> finalLikedSet = likedIds;
 
@@ -819,9 +819,7 @@ public class BeatController {
         }
 
         Map<Long, Promotion> promoMap = promotionService
-                .getActivePromotions(Promotion.TargetType.BEAT, Instant.now(), beatPage.getContent().size())
-                .stream()
-                .collect(Collectors.toMap(Promotion::getTargetId, p -> p));
+                .getActivePromotionsByTarget(Promotion.TargetType.BEAT, beatPage.stream().map(Beat::getId).toList());
 
         final Set<Long> likedSet = likedIds;
         List<BeatDto> out = beatPage.getContent().stream()
@@ -900,9 +898,7 @@ public class BeatController {
 
         // 5) Get active promotions
         Map<Long, Promotion> promoMap = promotionService
-                .getActivePromotions(Promotion.TargetType.BEAT, Instant.now(), beatIds.size())
-                .stream()
-                .collect(Collectors.toMap(Promotion::getTargetId, p -> p));
+                .getActivePromotionsByTarget(Promotion.TargetType.BEAT, beatIds);
 
         // 6) Get sales and earnings
         Map<Long, Object[]> salesAndEarnings = paginated.stream().collect(Collectors.toMap(
@@ -983,18 +979,12 @@ public class BeatController {
     ) {
         Instant now = Instant.now();
 
-        // 1) Get all active promotions for BEATs
-        List<Promotion> allPromos = promotionService.getActivePromotions(
-                Promotion.TargetType.BEAT, now, Integer.MAX_VALUE
-        );
-        int totalCount = allPromos.size();
+        // 1) Count and slice the running BEAT promotions (in-memory index)
+        int totalCount = promotionService.countActivePromotions(Promotion.TargetType.BEAT);
 
-        // 2) Apply page-based pagination manually
+        // 2) Page in featured order
         int offset = page * limit;
-        List<Promotion> promos = allPromos.stream()
-                .skip(offset)
-                .limit(limit)
-                .toList();
+        List<Promotion> promos = promotionService.getActivePromotionsPage(Promotion.TargetType.BEAT, offset, limit);
 
         List<Long> beatIds = promos.stream().map(Promotion::getTargetId).toList();
 
@@ -1233,23 +1223,7 @@ public class BeatController {
 
         // Get active promotions
         Map<Long, Promotion> promoMap = promotionService
-                .getActivePromotions(Promotion.TargetType.BEAT, Instant.now(), rows.size())
-                .stream()
-                .collect(Collectors.toMap(
-                        Promotion::getTargetId,
-                        Function.identity(),
-                        (existing, replacement) -> {
-                            Instant existingStart = existing.getStartDate();
-                            Instant replacementStart = replacement.getStartDate();
-
-                            if (existingStart == null && replacementStart == null) return existing;
-                            if (existingStart == null) return replacement;
-                            if (replacementStart == null) return existing;
-
-                            // keep the one with later startDate
-                            return existingStart.isAfter(replacementStart) ? existing : replacement;
-                        }
-                ));
+                .getActivePromotionsByTarget(Promotion.TargetType.BEAT, rows.stream().map(Beat::getId).toList());
 
         // Get sales and earnings
         Map<Long, Object[]> salesMap = rows.stream().collect(Collectors.toMap(
@@ -1316,7 +1290,7 @@ public class BeatController {
     public ResponseEntity<BeatDto> getBeatBySlug(@PathVariable String slug) {
         return beatRepository.findBySlug(slug)
                 .filter(beat -> beat.isApproved() && !beat.isRejected())
-                .map(this::mapToDto)
+                .map(beat -> mapToDto(beat, likedBeatIds(List.of(beat)).contains(beat.getId())))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -1403,7 +1377,7 @@ public class BeatController {
         if (auth == null || !auth.isAuthenticated()) return null;
         Object p = auth.getPrincipal();
         if (p instanceof com.drilldex.drillbackend.auth.CustomUserDetails cud) {
-            return cud.getUser().getId();
+            return cud.getId();
         }
         if (p instanceof com.drilldex.drillbackend.user.User u) {
             return u.getId();
@@ -4,6 +4,7 @@ package com.drilldex.drillbackend.beat;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -420,6 +422,12 @@ List<Beat> findActiveFeaturedByOwner(@Param("ownerId") Long ownerId,
 """)
     Page<Beat> listRecentPaginated(Pageable pageable);
 
-}
-
+    /** Beats with their licenses and owner, for pricing a cart in one query. */
+    @EntityGraph(attributePaths = {"licenses", "owner"})
+    @Query("SELECT b FROM Beat b WHERE b.id IN :ids")
+    List<Beat> findAllWithLicensesByIdIn(@Param("ids") Collection<Long> ids);
 
+    /** (id, title) pairs for the given ids, without loading the entities. */
+    @Query("SELECT b.id, b.title FROM Beat b WHERE b.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -203,6 +203,11 @@ public class BeatService {
     }
 
 
+    @Transactional
+    public void incrementPlayCount(Long beatId) {
+        beatRepository.incrementPlayCount(beatId);
+    }
+
     @Transactional
     public Beat featureBeat(Long beatId) {
         Beat b = beatRepository.findById(beatId)
@@ -1,11 +1,14 @@
 package com.drilldex.drillbackend.chat;
 
+import com.drilldex.drillbackend.auth.CustomUserDetails;
+import com.drilldex.drillbackend.chat.dto.ChatHistoryPage;
 import com.drilldex.drillbackend.chat.dto.ChatMessageDto;
-import com.drilldex.drillbackend.notification.NotificationService;
-import com.drilldex.drillbackend.user.User;
-import com.drilldex.drillbackend.user.UserRepository;
+import com.drilldex.drillbackend.notification.ChatNotificationCoalescer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.List;
@@ -17,8 +20,7 @@ public class ChatController {
 
     private final ChatStorageService chatStorageService;
     private final SseChatBroadcaster broadcaster;
-    private final UserRepository userRepo;
-    private final NotificationService notificationService;
+    private final ChatNotificationCoalescer chatNotificationCoalescer;
 
     @GetMapping("/history")
     public List<ChatMessage> getChatHistory(
@@ -28,6 +30,29 @@ public class ChatController {
         return chatStorageService.getChatHistory(user1, user2);
     }
 
+    /**
+     * Paged conversation: latest {@code limit} messages, or the page before/after a message id.
+     * Only the two participants may read it.
+     */
+    @GetMapping("/history/page")
+    public ChatHistoryPage getChatHistoryPage(
+            @AuthenticationPrincipal CustomUserDetails principal,
+            @RequestParam Long user1,
+            @RequestParam Long user2,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        Long me = principal.getId();
+        if (!me.equals(user1) && !me.equals(user2)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a participant of this conversation");
+        }
+        return chatStorageService.getChatHistoryPage(user1, user2, before, after, limit);
+    }
+
     @PostMapping("/send")
     public ChatMessage send(@RequestBody ChatMessage msg) {
         // Set timestamp and save
@@ -43,18 +68,8 @@ public class ChatController {
         // Optional: also push to sender (so they see the canonical, server-timestamped message)
         broadcaster.sendTo(saved.getSenderId(), dto);
 
-        // --- Create/aggregate notifications ---
-        User recipient = userRepo.findById(saved.getReceiverId())
-                .orElseThrow(() -> new IllegalArgumentException("Recipient not found"));
-        User sender = userRepo.findById(saved.getSenderId())
-                .orElseThrow(() -> new IllegalArgumentException("Sender not found"));
-
-        notificationService.createOrAggregateChat(
-                recipient,
-                sender,
-                saved.getId(),
-                "You have a new message"
-        );
+        // --- Chat notification, coalesced per (recipient, sender) and flushed in the background ---
+        chatNotificationCoalescer.record(saved.getReceiverId(), saved.getSenderId(), saved.getId());
 
         return saved;
     }
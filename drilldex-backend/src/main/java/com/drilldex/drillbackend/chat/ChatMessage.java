@@ -1,6 +1,7 @@
 // src/main/java/com/drilldex/drillbackend/chat/ChatMessage.java
 package com.drilldex.drillbackend.chat;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,7 +12,8 @@ import java.time.Instant;
         name = "chat_messages",
         indexes = {
                 @Index(name = "idx_sender_receiver_time", columnList = "senderId,receiverId,timestamp"),
-                @Index(name = "idx_receiver_time", columnList = "receiverId,timestamp")
+                @Index(name = "idx_receiver_time", columnList = "receiverId,timestamp"),
+                @Index(name = "idx_conversation_time", columnList = "conversation_id, timestamp DESC, id DESC")
         }
 )
 @Data
@@ -27,8 +29,24 @@ public class ChatMessage {
     private Long senderId;
     private Long receiverId;
 
+    // Canonical "<minUserId>_<maxUserId>", same for both directions; always derived from the
+    // participants on write, never taken from a request body
+    @Column(name = "conversation_id", length = 41)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String conversationId;
+
     @Column(columnDefinition = "text")
     private String content;
 
     private Instant timestamp;
+
+    public static String conversationIdOf(Long userA, Long userB) {
+        return Math.min(userA, userB) + "_" + Math.max(userA, userB);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void assignConversationId() {
+        conversationId = senderId != null && receiverId != null ? conversationIdOf(senderId, receiverId) : null;
+    }
 }
\ No newline at end of file
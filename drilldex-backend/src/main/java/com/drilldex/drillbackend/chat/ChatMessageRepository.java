@@ -1,10 +1,12 @@
 // src/main/java/com/drilldex/drillbackend/chat/ChatMessageRepository.java
 package com.drilldex.drillbackend.chat;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
@@ -15,36 +17,42 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     );
 
 
+    // Whole conversation, ascending; served by idx_conversation_time
+    List<ChatMessage> findByConversationIdOrderByTimestampAscIdAsc(String conversationId);
+
+    /* Keyset pages over idx_conversation_time; the cursor is (timestamp, id) of a message */
+
+    @Query("""
+        SELECT m FROM ChatMessage m
+        WHERE m.conversationId = :cid
+        ORDER BY m.timestamp DESC, m.id DESC
+        """)
+    List<ChatMessage> findLatest(@Param("cid") String conversationId, Pageable pageable);
+
+    @Query("""
+        SELECT m FROM ChatMessage m
+        WHERE m.conversationId = :cid
+          AND (m.timestamp < :ts OR (m.timestamp = :ts AND m.id < :id))
+        ORDER BY m.timestamp DESC, m.id DESC
+        """)
+    List<ChatMessage> findBefore(@Param("cid") String conversationId,
+                                 @Param("ts") Instant timestamp,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+    @Query("""
+        SELECT m FROM ChatMessage m
+        WHERE m.conversationId = :cid
+          AND (m.timestamp > :ts OR (m.timestamp = :ts AND m.id > :id))
+        ORDER BY m.timestamp ASC, m.id ASC
+        """)
+    List<ChatMessage> findAfter(@Param("cid") String conversationId,
+                                @Param("ts") Instant timestamp,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
     // Last message with a specific partner
     ChatMessage findTopBySenderIdAndReceiverIdOrReceiverIdAndSenderIdOrderByTimestampDesc(
             Long s1, Long r1, Long s2, Long r2
     );
-
-
-    @Query(value = """
-        WITH msgs AS (
-            SELECT
-                CASE WHEN sender_id = :uid THEN receiver_id ELSE sender_id END AS partner_id,
-                timestamp,
-                content
-            FROM chat_messages
-            WHERE sender_id = :uid OR receiver_id = :uid
-        ),
-        ranked AS (
-            SELECT
-                partner_id,
-                timestamp AS last_time,
-                content   AS last_content,
-                ROW_NUMBER() OVER (PARTITION BY partner_id ORDER BY timestamp DESC) AS rn
-            FROM msgs
-        )
-        SELECT
-            partner_id     AS partnerId,
-            last_time      AS lastTime,
-            last_content   AS lastContent
-        FROM ranked
-        WHERE rn = 1
-        ORDER BY last_time DESC
-        """, nativeQuery = true)
-    List<ThreadRow> findThreads(@Param("uid") Long uid);
 }
\ No newline at end of file
@@ -1,15 +1,24 @@
 // src/main/java/com/drilldex/drillbackend/chat/ChatStorageService.java
 package com.drilldex.drillbackend.chat;
 
+import com.drilldex.drillbackend.chat.dto.ChatHistoryPage;
+import com.drilldex.drillbackend.chat.dto.ChatMessageDto;
 import com.drilldex.drillbackend.notification.NotificationService;
 import com.drilldex.drillbackend.notification.NotificationType;
 import com.drilldex.drillbackend.notification.RelatedType;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -17,22 +26,70 @@ import java.util.List;
 public class ChatStorageService {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatThreadRepository chatThreadRepository;
     private final SseChatBroadcaster broadcaster;
 
+    private static final int MAX_PAGE_SIZE = 200;
 
 
+    @Transactional
     public ChatMessage saveMessage(ChatMessage message) {
         if (message.getTimestamp() == null) {
             message.setTimestamp(Instant.now());
         }
-        return chatMessageRepository.save(message);
+        ChatMessage saved = chatMessageRepository.save(message);
+
+        // Keep the inbox read model in step with the message
+        chatThreadRepository.upsertForMessage(
+                saved.getConversationId(),
+                Math.min(saved.getSenderId(), saved.getReceiverId()),
+                Math.max(saved.getSenderId(), saved.getReceiverId()),
+                saved.getId(),
+                saved.getSenderId(),
+                saved.getContent(),
+                saved.getTimestamp()
+        );
+        return saved;
     }
 
     public List<ChatMessage> getChatHistory(Long user1, Long user2) {
         return chatMessageRepository
-                .findBySenderIdAndReceiverIdOrReceiverIdAndSenderIdOrderByTimestampAsc(
-                        user1, user2, user1, user2
-                );
+                .findByConversationIdOrderByTimestampAscIdAsc(ChatMessage.conversationIdOf(user1, user2));
+    }
+
+    /**
+     * One page of a conversation, oldest first. Without cursors it returns the latest messages;
+     * beforeId/afterId are message ids from a previous page. Each page is a single range scan
+     * on idx_conversation_time.
+     */
+    public ChatHistoryPage getChatHistoryPage(Long user1, Long user2, Long beforeId, Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String cid = ChatMessage.conversationIdOf(user1, user2);
+        Pageable page = PageRequest.of(0, size + 1); // one extra row tells whether there is more
+
+        List<ChatMessage> rows;
+        if (afterId != null) {
+            ChatMessage cursor = cursor(afterId, cid);
+            rows = chatMessageRepository.findAfter(cid, cursor.getTimestamp(), cursor.getId(), page);
+        } else if (beforeId != null) {
+            ChatMessage cursor = cursor(beforeId, cid);
+            rows = chatMessageRepository.findBefore(cid, cursor.getTimestamp(), cursor.getId(), page);
+        } else {
+            rows = chatMessageRepository.findLatest(cid, page);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<ChatMessage> pageRows = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (afterId == null) Collections.reverse(pageRows); // newest-first scan, oldest-first page
+
+        return new ChatHistoryPage(pageRows.stream().map(ChatMessageDto::new).toList(), hasMore);
+    }
+
+    private ChatMessage cursor(Long messageId, String conversationId) {
+        return chatMessageRepository.findById(messageId)
+                .filter(m -> conversationId.equals(m.getConversationId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cursor message is not part of this conversation"));
     }
 
     public void sendAdminMessageToUser(Long recipientId, String content) {
@@ -44,7 +101,7 @@ public class ChatStorageService {
         message.setContent(content);
         message.setTimestamp(Instant.now());
 
-        ChatMessage saved = chatMessageRepository.save(message);
+        ChatMessage saved = saveMessage(message);
 
         broadcaster.sendTo(recipientId, saved);
     }
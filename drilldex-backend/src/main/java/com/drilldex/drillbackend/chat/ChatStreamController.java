@@ -1,8 +1,13 @@
 package com.drilldex.drillbackend.chat;
 
+import com.drilldex.drillbackend.auth.CustomUserDetails;
+import com.drilldex.drillbackend.auth.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
@@ -11,9 +16,17 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class ChatStreamController {
 
     private final SseChatBroadcaster broadcaster;
+    private final JwtService jwtService;
 
+    /** The caller's own chat stream; authenticated by access token or by a stream token from POST /api/sse/token. */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream(@RequestParam Long userId) {
-        return broadcaster.subscribe(userId);
+    public SseEmitter stream(@AuthenticationPrincipal CustomUserDetails principal,
+                             @RequestParam(required = false) String token,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = principal != null ? principal.getId() : jwtService.parseStreamToken(token);
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Stream token required");
+        }
+        return broadcaster.subscribe(userId, lastEventId);
     }
-}
\ No newline at end of file
+}
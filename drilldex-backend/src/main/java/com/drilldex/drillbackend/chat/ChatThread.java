@@ -0,0 +1,77 @@
+// src/main/java/com/drilldex/drillbackend/chat/ChatThread.java
+package com.drilldex.drillbackend.chat;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Inbox read model: one row per conversation, upserted with every message
+ * ({@link ChatThreadRepository#upsertForMessage}). "low"/"high" are the smaller/larger user id,
+ * matching {@link ChatMessage#conversationIdOf}.
+ */
+@Entity
+@Table(
+        name = "chat_thread",
+        indexes = {
+                @Index(name = "idx_chat_thread_low_time", columnList = "user_low_id, last_timestamp DESC"),
+                @Index(name = "idx_chat_thread_high_time", columnList = "user_high_id, last_timestamp DESC")
+        }
+)
+@Data
+@NoArgsConstructor
+public class ChatThread {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", length = 41, nullable = false, unique = true)
+    private String conversationId;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    // Display-name snapshots, refreshed with every message
+    @Column(name = "low_name")
+    private String lowName;
+
+    @Column(name = "high_name")
+    private String highName;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_content", columnDefinition = "text")
+    private String lastContent;
+
+    @Column(name = "last_timestamp")
+    private Instant lastTimestamp;
+
+    // Messages the low/high user has not read yet
+    @Column(name = "unread_low", nullable = false)
+    private long unreadLow;
+
+    @Column(name = "unread_high", nullable = false)
+    private long unreadHigh;
+
+    public Long partnerOf(Long userId) {
+        return userId.equals(userLowId) ? userHighId : userLowId;
+    }
+
+    public String partnerNameFor(Long userId) {
+        return userId.equals(userLowId) ? highName : lowName;
+    }
+
+    public long unreadFor(Long userId) {
+        return userId.equals(userLowId) ? unreadLow : unreadHigh;
+    }
+}
@@ -1,6 +1,7 @@
 package com.drilldex.drillbackend.chat;// src/main/java/com/drilldex/drillbackend/chat/ChatThreadController.java
 import com.drilldex.drillbackend.auth.CustomUserDetails;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -22,7 +23,7 @@ public class ChatThreadController {
 
         if (uid == null) {
             if (principal instanceof CustomUserDetails custom) {
-                uid = custom.getUser().getId();
+                uid = custom.getId();
             } else {
                 throw new IllegalArgumentException("userId must be provided or resolvable from auth");
             }
@@ -30,4 +31,17 @@ public class ChatThreadController {
 
         return threads.listThreads(uid);
     }
+
+    /** Clears the caller's unread counter for the conversation with partnerId. */
+    @PostMapping("/threads/{partnerId}/read")
+    public ResponseEntity<?> markRead(
+            @PathVariable Long partnerId,
+            @AuthenticationPrincipal UserDetails principal
+    ) {
+        if (!(principal instanceof CustomUserDetails custom)) {
+            return ResponseEntity.status(401).build();
+        }
+        threads.markRead(custom.getId(), partnerId);
+        return ResponseEntity.ok().build();
+    }
 }
\ No newline at end of file
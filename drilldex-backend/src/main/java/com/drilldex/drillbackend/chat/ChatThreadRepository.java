@@ -0,0 +1,71 @@
+// src/main/java/com/drilldex/drillbackend/chat/ChatThreadRepository.java
+package com.drilldex.drillbackend.chat;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChatThreadRepository extends JpaRepository<ChatThread, Long> {
+
+    @Query("""
+        SELECT t FROM ChatThread t
+        WHERE t.userLowId = :uid OR t.userHighId = :uid
+        ORDER BY t.lastTimestamp DESC
+        """)
+    List<ChatThread> findForUser(@Param("uid") Long userId);
+
+    /**
+     * Records a new message on its thread in one statement: last message, name snapshots and the
+     * recipient's unread counter. The sender has evidently read the thread, so theirs resets.
+     * Last-message fields only move forward (higher message id), so racing sends cannot rewind them.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO chat_thread (conversation_id, user_low_id, user_high_id, low_name, high_name,
+                                 last_message_id, last_sender_id, last_content, last_timestamp,
+                                 unread_low, unread_high)
+        VALUES (:cid, :low, :high,
+                (SELECT COALESCE(NULLIF(u.display_name, ''), u.email) FROM users u WHERE u.id = :low),
+                (SELECT COALESCE(NULLIF(u.display_name, ''), u.email) FROM users u WHERE u.id = :high),
+                :messageId, :senderId, LEFT(:content, 500), :ts,
+                CASE WHEN :senderId = :low THEN 0 ELSE 1 END,
+                CASE WHEN :senderId = :high THEN 0 ELSE 1 END)
+        ON CONFLICT (conversation_id) DO UPDATE SET
+            low_name        = COALESCE(EXCLUDED.low_name, chat_thread.low_name),
+            high_name       = COALESCE(EXCLUDED.high_name, chat_thread.high_name),
+            last_message_id = GREATEST(EXCLUDED.last_message_id, chat_thread.last_message_id),
+            last_sender_id  = CASE WHEN EXCLUDED.last_message_id > chat_thread.last_message_id
+                                   THEN EXCLUDED.last_sender_id ELSE chat_thread.last_sender_id END,
+            last_content    = CASE WHEN EXCLUDED.last_message_id > chat_thread.last_message_id
+                                   THEN EXCLUDED.last_content ELSE chat_thread.last_content END,
+            last_timestamp  = CASE WHEN EXCLUDED.last_message_id > chat_thread.last_message_id
+                                   THEN EXCLUDED.last_timestamp ELSE chat_thread.last_timestamp END,
+            unread_low      = CASE WHEN EXCLUDED.last_sender_id = chat_thread.user_low_id
+                                   THEN 0 ELSE chat_thread.unread_low + 1 END,
+            unread_high     = CASE WHEN EXCLUDED.last_sender_id = chat_thread.user_high_id
+                                   THEN 0 ELSE chat_thread.unread_high + 1 END
+        """, nativeQuery = true)
+    void upsertForMessage(@Param("cid") String conversationId,
+                          @Param("low") Long userLowId,
+                          @Param("high") Long userHighId,
+                          @Param("messageId") Long messageId,
+                          @Param("senderId") Long senderId,
+                          @Param("content") String content,
+                          @Param("ts") Instant timestamp);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE chat_thread SET
+            unread_low  = CASE WHEN user_low_id  = :uid THEN 0 ELSE unread_low END,
+            unread_high = CASE WHEN user_high_id = :uid THEN 0 ELSE unread_high END
+        WHERE conversation_id = :cid
+        """, nativeQuery = true)
+    int markRead(@Param("cid") String conversationId, @Param("uid") Long userId);
+}
@@ -10,23 +10,25 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ChatThreadService {
 
-    private final ChatMessageRepository repo;
+    private final ChatThreadRepository repo;
 
     public List<ThreadSummary> listThreads(Long userId) {
-        List<ThreadRow> rows = repo.findThreads(userId);
+        List<ChatThread> rows = repo.findForUser(userId);
         List<ThreadSummary> out = new ArrayList<>(rows.size());
 
-        for (ThreadRow r : rows) {
+        for (ChatThread t : rows) {
             out.add(ThreadSummary.builder()
-                    .partnerId(r.getPartnerId())
-                    .partnerName(null)           // let FE resolve; or inject UserService to fill it here
-                    .lastContent(r.getLastContent())
-                    .lastTimestamp(r.getLastTime())
-                    .unreadCount(0L)             // implement if you later track reads
+                    .partnerId(t.partnerOf(userId))
+                    .partnerName(t.partnerNameFor(userId))
+                    .lastContent(t.getLastContent())
+                    .lastTimestamp(t.getLastTimestamp())
+                    .unreadCount(t.unreadFor(userId))
                     .build());
         }
         return out;
     }
 
-
-}
\ No newline at end of file
+    public void markRead(Long userId, Long partnerId) {
+        repo.markRead(ChatMessage.conversationIdOf(userId, partnerId), userId);
+    }
+}
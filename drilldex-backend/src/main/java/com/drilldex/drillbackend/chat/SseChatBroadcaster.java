@@ -1,61 +1,25 @@
 package com.drilldex.drillbackend.chat;
 
+import com.drilldex.drillbackend.sse.SseChannel;
+import com.drilldex.drillbackend.sse.SseDispatcher;
+import com.drilldex.drillbackend.sse.SseHub;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.time.Duration;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-
+/** Chat facade over {@link SseHub}: messages go out as the "message" event, on whichever node holds the stream. */
 @Component
+@RequiredArgsConstructor
 public class SseChatBroadcaster {
 
-    private static final long TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
-
-    // userId -> list of emitters (support multiple tabs/devices)
-    private final Map<Long, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
-
-    public SseEmitter subscribe(Long userId) {
-        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
-        emitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-
-        emitter.onCompletion(() -> remove(userId, emitter));
-        emitter.onTimeout(() -> remove(userId, emitter));
-        emitter.onError(e -> remove(userId, emitter));
+    private final SseHub hub;
+    private final SseDispatcher dispatcher;
 
-        // Optional initial event so client knows it's alive
-        try {
-            emitter.send(SseEmitter.event().name("init").data("{\"ok\":true}"));
-        } catch (IOException ignored) {}
-
-        return emitter;
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return hub.subscribe(SseChannel.CHAT, userId, lastEventId);
     }
 
     public void sendTo(Long userId, Object payload) {
-        List<SseEmitter> list = emitters.get(userId);
-        if (list == null || list.isEmpty()) return;
-
-        for (SseEmitter em : new CopyOnWriteArrayList<>(list)) {
-            try {
-                em.send(SseEmitter.event().name("message").data(payload));
-            } catch (IOException e) {
-                // failed: clean it up
-                em.complete();
-                remove(userId, em);
-            }
-        }
-    }
-
-    private void remove(Long userId, SseEmitter emitter) {
-        List<SseEmitter> list = emitters.get(userId);
-        if (list != null) {
-            list.remove(emitter);
-            if (list.isEmpty()) {
-                emitters.remove(userId);
-            }
-        }
+        dispatcher.send(SseChannel.CHAT, userId, "message", payload);
     }
-}
\ No newline at end of file
+}
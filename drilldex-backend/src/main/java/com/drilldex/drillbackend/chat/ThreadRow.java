@@ -1,9 +0,0 @@
-package com.drilldex.drillbackend.chat;
-
-import java.time.Instant;
-
-public interface ThreadRow {
-    Long getPartnerId();
-    Instant getLastTime();
-    String getLastContent();
-}
\ No newline at end of file
@@ -6,8 +6,8 @@ import lombok.*;
 @Data @AllArgsConstructor @NoArgsConstructor @Builder
 public class ThreadSummary {
     private Long partnerId;
-    private String partnerName;      // optional; can be filled later on FE
+    private String partnerName;      // display-name snapshot from chat_thread
     private String lastContent;
     private Instant lastTimestamp;
-    private Long unreadCount;        // optional; 0 for now
+    private Long unreadCount;
 }
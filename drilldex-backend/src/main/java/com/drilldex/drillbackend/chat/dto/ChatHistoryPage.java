@@ -0,0 +1,18 @@
+// src/main/java/com/drilldex/drillbackend/chat/dto/ChatHistoryPage.java
+package com.drilldex.drillbackend.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a conversation, oldest first. Pass the first message id as {@code before} to load
+ * older messages, the last one as {@code after} to catch up.
+ */
+@Data
+@AllArgsConstructor
+public class ChatHistoryPage {
+    private List<ChatMessageDto> messages;
+    private boolean hasMore; // more messages beyond this page in the requested direction
+}
@@ -1,18 +1,26 @@
 package com.drilldex.drillbackend.checkout;
 
+import com.drilldex.drillbackend.auth.CustomUserDetails;
 import com.drilldex.drillbackend.auth.JwtService;
 import com.drilldex.drillbackend.checkout.dto.CheckoutRequest;
 import com.drilldex.drillbackend.checkout.dto.CheckoutResult;
 import com.drilldex.drillbackend.checkout.dto.CheckoutSession;
 import com.drilldex.drillbackend.checkout.dto.ConfirmCheckoutRequest;
+import com.drilldex.drillbackend.purchase.Order;
+import com.drilldex.drillbackend.purchase.OrderRepository;
 import com.drilldex.drillbackend.user.User;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/checkout")
@@ -22,6 +30,7 @@ public class CheckoutController {
     private final CheckoutService checkoutService;
     private final com.drilldex.drillbackend.user.UserRepository userRepository;
     private final JwtService jwtService;
+    private final OrderRepository orderRepository;
 
     @PostMapping("/start")
     public ResponseEntity<CheckoutSession> startCheckout(
@@ -108,6 +117,22 @@ public class CheckoutController {
             System.out.println("[CHECKOUT] Checkout successful: " + result);
             return ResponseEntity.ok(result);
 
+        } catch (ResponseStatusException e) {
+            // e.g. 401 for a guest, 409 for another buyer's checkout session
+            return ResponseEntity.status(e.getStatusCode())
+                    .body(CheckoutResult.builder()
+                            .success(false)
+                            .message(e.getReason())
+                            .orderId(orderId)
+                            .build());
+        } catch (IllegalArgumentException e) {
+            // Nothing was written: the cart was rejected before the order was stored
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(CheckoutResult.builder()
+                            .success(false)
+                            .message("Checkout failed: " + e.getMessage())
+                            .orderId(orderId)
+                            .build());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -118,4 +143,26 @@ public class CheckoutController {
                             .build());
         }
     }
+
+    /** Current fulfilment state of one of the caller's orders; live updates come as "order-progress" events. */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<?> orderStatus(@PathVariable String orderId,
+                                         @AuthenticationPrincipal CustomUserDetails principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Order order = orderRepository.findByOrderId(orderId).orElse(null);
+        if (order == null || order.getUser() == null || !order.getUser().getId().equals(principal.getId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Order not found"));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("orderId", order.getOrderId());
+        body.put("status", order.getStatus() != null ? order.getStatus().name() : null);
+        body.put("itemCount", order.getItemCount());
+        body.put("total", order.getTotal());
+        body.put("createdAt", order.getCreatedAt());
+        body.put("updatedAt", order.getUpdatedAt());
+        return ResponseEntity.ok(body);
+    }
 }
@@ -0,0 +1,196 @@
+package com.drilldex.drillbackend.checkout;
+
+import com.drilldex.drillbackend.jobs.JobRunner;
+import com.drilldex.drillbackend.licensing.LicenseRenderService;
+import com.drilldex.drillbackend.licensing.LicenseStatus;
+import com.drilldex.drillbackend.notification.NotificationDraft;
+import com.drilldex.drillbackend.notification.NotificationService;
+import com.drilldex.drillbackend.notification.SseNotificationBroadcaster;
+import com.drilldex.drillbackend.promotions.PromotionService;
+import com.drilldex.drillbackend.purchase.Order;
+import com.drilldex.drillbackend.purchase.OrderRepository;
+import com.drilldex.drillbackend.purchase.OrderStatus;
+import com.drilldex.drillbackend.purchase.Purchase;
+import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.purchase.PurchaseService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The asynchronous half of checkout: takes a PAID order through its fulfilment steps off the
+ * request thread and reports progress to the buyer as "order-progress" SSE events.
+ *
+ * Every step is idempotent, so an order can be run again after a crash or failure: licenses are
+ * only queued for purchases still PENDING (the render service de-duplicates in-flight work), and
+ * notifications (purchases and started promotions) are written in the same transaction that
+ * flips the order's notified flag.
+ * Orders left PAID/FULFILLING or FAILED (with attempts to spare) are picked up by a sweep.
+ */
+@Service
+@Slf4j
+public class OrderFulfillmentService {
+
+    private static final String EVENT = "order-progress";
+    private static final int STEPS = 2; // licenses, notifications
+    private static final Duration SWEEP_LEASE = Duration.ofMinutes(5);
+
+    private final OrderRepository orderRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final PurchaseService purchaseService;
+    private final PromotionService promotionService;
+    private final LicenseRenderService licenseRenderService;
+    private final NotificationService notificationService;
+    private final SseNotificationBroadcaster broadcaster;
+    private final JobRunner jobRunner;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final int maxAttempts;
+
+    // orderId -> fulfilment queued or running on this node
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public OrderFulfillmentService(OrderRepository orderRepository,
+                                   PurchaseRepository purchaseRepository,
+                                   PurchaseService purchaseService,
+                                   PromotionService promotionService,
+                                   LicenseRenderService licenseRenderService,
+                                   NotificationService notificationService,
+                                   SseNotificationBroadcaster broadcaster,
+                                   JobRunner jobRunner,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.checkout.fulfillment.threads:4}") int threads,
+                                   @Value("${app.checkout.fulfillment.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${app.checkout.fulfillment.retry-after:PT2M}") Duration retryAfter,
+                                   @Value("${app.checkout.fulfillment.max-attempts:3}") int maxAttempts) {
+        this.orderRepository = orderRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.purchaseService = purchaseService;
+        this.promotionService = promotionService;
+        this.licenseRenderService = licenseRenderService;
+        this.notificationService = notificationService;
+        this.broadcaster = broadcaster;
+        this.jobRunner = jobRunner;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.retryAfter = retryAfter;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        AtomicInteger seq = new AtomicInteger();
+        // A full queue drops the submission; the sweep picks the order up later
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "order-fulfillment-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Queues fulfilment of a committed order on this node. */
+    public void enqueue(String orderId) {
+        if (!inFlight.add(orderId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    fulfil(orderId);
+                } finally {
+                    inFlight.remove(orderId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(orderId);
+            log.warn("Fulfilment queue full; order {} is left for the retry sweep", orderId);
+        }
+    }
+
+    /** Runs the order's fulfilment steps; safe to call again for an order already (partly) done. */
+    public void fulfil(String orderId) {
+        int claimed = orderRepository.transition(orderId,
+                List.of(OrderStatus.PAID, OrderStatus.FULFILLING, OrderStatus.FAILED),
+                OrderStatus.FULFILLING, LocalDateTime.now());
+        if (claimed == 0) return; // already fulfilled, or unknown
+
+        Order order = orderRepository.findByOrderId(orderId).orElse(null);
+        if (order == null || order.getUser() == null) return;
+        Long buyerId = order.getUser().getId();
+
+        try {
+            progress(buyerId, orderId, OrderStatus.FULFILLING, "licenses", 0);
+
+            // Step 1: license PDFs for purchases still pending (re-queued ones de-duplicate)
+            List<Purchase> purchases = purchaseRepository.findForFulfillment(orderId);
+            for (Purchase p : purchases) {
+                if (p.getLicenseStatus() == LicenseStatus.PENDING) {
+                    licenseRenderService.enqueue(p.getId());
+                }
+            }
+            progress(buyerId, orderId, OrderStatus.FULFILLING, "notifications", 1);
+
+            // Step 2: notifications, written once together with the notified flag
+            tx.executeWithoutResult(status -> {
+                if (orderRepository.markNotified(orderId) == 0) return;
+                List<NotificationDraft> drafts = new ArrayList<>();
+                for (Purchase p : purchases) drafts.addAll(purchaseService.purchaseNotifications(p));
+                drafts.addAll(promotionService.startedNotifications(buyerId, purchases));
+                notificationService.createBulk(drafts);
+            });
+
+            orderRepository.transition(orderId, List.of(OrderStatus.FULFILLING), OrderStatus.FULFILLED, LocalDateTime.now());
+            progress(buyerId, orderId, OrderStatus.FULFILLED, "done", STEPS);
+            log.info("[CHECKOUT] Order {} fulfilled ({} purchases)", orderId, purchases.size());
+        } catch (RuntimeException e) {
+            log.error("[CHECKOUT] Fulfilment of order {} failed", orderId, e);
+            String reason = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage();
+            orderRepository.markFailed(orderId, OrderStatus.FAILED, reason, LocalDateTime.now());
+            progress(buyerId, orderId, OrderStatus.FAILED, "retrying", 0);
+        }
+    }
+
+    /** Re-queues orders a crash or restart left unfinished, and failed ones with attempts to spare. */
+    @Scheduled(fixedDelayString = "${app.checkout.fulfillment.sweep-ms:60000}")
+    public void retryStalled() {
+        jobRunner.run("order-fulfillment-sweep", SWEEP_LEASE, ctx -> {
+            List<String> stalled = orderRepository.findRetryable(
+                    LocalDateTime.now().minus(retryAfter),
+                    List.of(OrderStatus.PAID, OrderStatus.FULFILLING),
+                    OrderStatus.FAILED,
+                    maxAttempts,
+                    PageRequest.of(0, 500));
+            if (!stalled.isEmpty()) log.info("[CHECKOUT] Re-queuing {} unfinished orders", stalled.size());
+            stalled.forEach(this::enqueue);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void progress(Long buyerId, String orderId, OrderStatus status, String step, int done) {
+        try {
+            broadcaster.sendTo(buyerId, EVENT, Map.of(
+                    "orderId", orderId,
+                    "status", status.name(),
+                    "step", step,
+                    "completed", done,
+                    "total", STEPS));
+        } catch (RuntimeException e) {
+            log.debug("Could not push progress for order {}", orderId, e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.drilldex.drillbackend.checkout;
+
+import com.drilldex.drillbackend.beat.Beat;
+import com.drilldex.drillbackend.beat.BeatRepository;
+import com.drilldex.drillbackend.beat.LicenseType;
+import com.drilldex.drillbackend.checkout.dto.ConfirmCheckoutRequest;
+import com.drilldex.drillbackend.kit.Kit;
+import com.drilldex.drillbackend.kit.KitRepository;
+import com.drilldex.drillbackend.pack.Pack;
+import com.drilldex.drillbackend.pack.PackRepository;
+import com.drilldex.drillbackend.promotions.PromotionRequest;
+import com.drilldex.drillbackend.promotions.PromotionService;
+import com.drilldex.drillbackend.purchase.Order;
+import com.drilldex.drillbackend.purchase.OrderRepository;
+import com.drilldex.drillbackend.purchase.OrderStatus;
+import com.drilldex.drillbackend.purchase.Purchase;
+import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.purchase.PurchaseService;
+import com.drilldex.drillbackend.subscription.Subscription;
+import com.drilldex.drillbackend.subscription.SubscriptionService;
+import com.drilldex.drillbackend.subscription.dto.SubscriptionStartRequest;
+import com.drilldex.drillbackend.user.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The synchronous half of checkout confirmation: validates and prices the whole cart with one
+ * query per item type, then writes the order, its purchases, promotions and subscription in a
+ * single transaction. Nothing slow happens here; licenses and notifications are left to
+ * {@link OrderFulfillmentService}, which is started once the order has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPlacementService {
+
+    /** What confirm reports back once the order is stored. */
+    public record PlacedOrder(Order order, String confirmationId,
+                              List<String> subscriptionPayloads, List<String> promotionPayloads) {}
+
+    private final OrderRepository orderRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final PurchaseService purchaseService;
+    private final BeatRepository beatRepository;
+    private final PackRepository packRepository;
+    private final KitRepository kitRepository;
+    private final PromotionService promotionService;
+    private final SubscriptionService subscriptionService;
+    private final OrderFulfillmentService fulfillmentService;
+
+    /**
+     * Stores the order atomically: either every item is recorded or none is. A confirm retried by
+     * the same buyer with the same checkout session returns the order stored the first time; two
+     * such confirms racing each other are resolved by the unique session id, see {@link #placed}.
+     */
+    @Transactional
+    public PlacedOrder place(User user, ConfirmCheckoutRequest request, String orderId, String provider) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "You must be logged in to check out");
+        }
+        List<ConfirmCheckoutRequest.CartItem> items = request.getItems() != null ? request.getItems() : List.of();
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+
+        String sessionId = request.getSessionId();
+        Optional<PlacedOrder> existing = placed(user, sessionId);
+        if (existing.isPresent()) return existing.get();
+
+        // --- 1) Load every referenced item with one query per type ---
+        Map<Long, Beat> beats = byId(ids(items, "beat", ConfirmCheckoutRequest.CartItem::getBeatId),
+                beatRepository::findAllWithLicensesByIdIn, Beat::getId);
+        Map<Long, Pack> packs = byId(ids(items, "pack", ConfirmCheckoutRequest.CartItem::getPackId),
+                packRepository::findAllWithLicensesByIdIn, Pack::getId);
+        Map<Long, Kit> kits = byId(ids(items, "kit", ConfirmCheckoutRequest.CartItem::getKitId),
+                kitRepository::findAllById, Kit::getId);
+
+        // --- 2) Validate and price every item before writing anything ---
+        List<Purchase> purchases = new ArrayList<>();
+        List<PromotionRequest> promotions = new ArrayList<>();
+        List<String> promotionPayloads = new ArrayList<>();
+        List<String> subscriptionPayloads = new ArrayList<>();
+        ConfirmCheckoutRequest.CartItem subscriptionItem = null;
+
+        for (ConfirmCheckoutRequest.CartItem item : items) {
+            String type = item.getType() != null ? item.getType().toLowerCase() : "";
+            try {
+                switch (type) {
+                    case "beat" -> purchases.add(purchaseService.prepareBeatPurchase(user,
+                            require(beats, item.getBeatId(), "Beat"), licenseType(item), orderId));
+                    case "pack" -> purchases.add(purchaseService.preparePackPurchase(user,
+                            require(packs, item.getPackId(), "Pack"), licenseType(item), orderId));
+                    case "kit" -> purchases.add(purchaseService.prepareKitPurchase(user,
+                            require(kits, item.getKitId(), "Kit"), orderId));
+                    case "promotion" -> {
+                        PromotionRequest req = promotionRequest(item, orderId, provider);
+                        promotions.add(req);
+                        purchases.add(purchaseService.preparePromotionPurchase(user, req.getTargetType(), req.getTargetId(),
+                                req.getTier(), req.getDays(), item.getPrice(), orderId, provider));
+                        promotionPayloads.add(req.getTargetType() + "-" + req.getTargetId() + "-" + req.getTier() + "-" + req.getDays());
+                    }
+                    case "subscription" -> {
+                        if (subscriptionItem != null || items.size() > 1) {
+                            throw new IllegalArgumentException(
+                                    "Subscriptions cannot be purchased together with other items. Please checkout separately.");
+                        }
+                        subscriptionItem = item;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown cart item type: " + type);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Failed to process item: " + item.getType() + " / id=" + itemId(item)
+                        + ": " + e.getMessage(), e);
+            }
+        }
+
+        // --- 3) Write everything in this transaction, the order first: a concurrent confirm of the
+        //        same session fails on its unique session id before anything else is written ---
+        BigDecimal subtotal = purchases.stream()
+                .map(Purchase::getPricePaid)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        LocalDateTime now = LocalDateTime.now();
+        Order order = orderRepository.save(Order.builder()
+                .orderId(orderId)
+                .user(user)
+                .checkoutSessionId(sessionId)
+                .subtotal(subtotal)
+                .tax(BigDecimal.ZERO)
+                .total(subtotal)
+                .status(OrderStatus.PAID)
+                .itemCount(items.size())
+                .notified(false)
+                .attempts(0)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        String confirmationId = "local_" + UUID.randomUUID();
+        if (subscriptionItem != null) {
+            confirmationId = "local_sub_" + UUID.randomUUID();
+            subscriptionPayloads.add(startSubscription(user, subscriptionItem, orderId, provider, confirmationId));
+        }
+        purchaseRepository.saveAll(purchases);
+        if (!promotions.isEmpty()) {
+            promotionService.promote(user, promotions); // "promotion started" is sent by fulfilment
+        }
+
+        // --- 4) Fulfil once the order is visible to other threads ---
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                fulfillmentService.enqueue(orderId);
+            }
+        });
+
+        return new PlacedOrder(order, confirmationId, subscriptionPayloads, promotionPayloads);
+    }
+
+    /**
+     * The order this buyer already placed for the checkout session, if any. Also used after a
+     * concurrent duplicate confirm lost the race on the unique session id.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PlacedOrder> placed(User user, String sessionId) {
+        if (user == null || sessionId == null) return Optional.empty();
+        return orderRepository.findByCheckoutSessionIdAndUser_Id(sessionId, user.getId())
+                .map(order -> {
+                    log.info("[CHECKOUT] Session {} already confirmed as order {}", sessionId, order.getOrderId());
+                    return new PlacedOrder(order, "local_" + order.getOrderId(), List.of(), List.of());
+                });
+    }
+
+    private String startSubscription(User user, ConfirmCheckoutRequest.CartItem item, String orderId,
+                                     String provider, String confirmationId) {
+        String planName = item.getPlanId();
+        String billingCycle = item.getBillingCycle();
+        if (billingCycle == null || (!"monthly".equalsIgnoreCase(billingCycle) && !"yearly".equalsIgnoreCase(billingCycle))) {
+            throw new IllegalArgumentException("Invalid or missing billingCycle for subscription: " + planName);
+        }
+        billingCycle = billingCycle.toLowerCase();
+
+        SubscriptionStartRequest subReq = new SubscriptionStartRequest(
+                planName,           // planId
+                planName,           // planName
+                billingCycle,       // billingCycle
+                null,               // trialDays
+                item.getDays(),     // days
+                provider            // payment method
+        );
+        Subscription sub = subscriptionService.start(user, subReq, orderId);
+        sub.setPaymentProvider(provider);
+        sub.setProviderSubscriptionId(confirmationId);
+        subscriptionService.save(sub);
+
+        return planName + "-" + billingCycle + "-" + item.getDays();
+    }
+
+    private static PromotionRequest promotionRequest(ConfirmCheckoutRequest.CartItem item, String orderId, String provider) {
+        Long targetId = itemId(item);
+        if (targetId == null) {
+            throw new IllegalArgumentException("Promotion must target a beat, pack, or kit");
+        }
+
+        String targetType;
+        if (item.getBeatId() != null) targetType = "BEAT";
+        else if (item.getPackId() != null) targetType = "PACK";
+        else targetType = "KIT";
+
+        PromotionRequest req = new PromotionRequest();
+        req.setTargetType(targetType);
+        req.setTargetId(targetId);
+        req.setTier(item.getTier() != null ? item.getTier() : "standard");
+        req.setDays(item.getDays() > 0 ? item.getDays() : 1);
+        req.setPaymentMethod(provider);
+        req.setOrderId(orderId);
+        return req;
+    }
+
+    private static LicenseType licenseType(ConfirmCheckoutRequest.CartItem item) {
+        return item.getLicenseType() != null ? LicenseType.valueOf(item.getLicenseType().toUpperCase()) : null;
+    }
+
+    private static Long itemId(ConfirmCheckoutRequest.CartItem item) {
+        return item.getBeatId() != null ? item.getBeatId()
+                : item.getPackId() != null ? item.getPackId()
+                : item.getKitId();
+    }
+
+    private static Set<Long> ids(List<ConfirmCheckoutRequest.CartItem> items, String type,
+                                 Function<ConfirmCheckoutRequest.CartItem, Long> id) {
+        return items.stream()
+                .filter(i -> type.equalsIgnoreCase(i.getType()))
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static <T> Map<Long, T> byId(Set<Long> ids, Function<Set<Long>, List<T>> load, Function<T, Long> id) {
+        if (ids.isEmpty()) return Map.of();
+        return load.apply(ids).stream().collect(Collectors.toMap(id, Function.identity(), (a, b) -> a));
+    }
+
+    private static <T> T require(Map<Long, T> loaded, Long id, String what) {
+        T found = id != null ? loaded.get(id) : null;
+        if (found == null) throw new IllegalArgumentException(what + " not found");
+        return found;
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/drilldex/drillbackend/config/StaticResourceConfig.java
 package com.drilldex.drillbackend.config;
 
+import com.drilldex.drillbackend.storage.ShardedPathResourceResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -16,6 +17,8 @@ public class StaticResourceConfig implements WebMvcConfigurer {
     @Override public void addResourceHandlers(ResourceHandlerRegistry r) {
         String base = System.getProperty("user.dir").replace("\\","/");
         r.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + base + "/uploads/");
+                .addResourceLocations("file:" + base + "/uploads/")
+                .resourceChain(false)
+                .addResolver(new ShardedPathResourceResolver());
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.drilldex.drillbackend.config;
 
+import com.drilldex.drillbackend.storage.ShardedPathResourceResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -13,6 +14,8 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${app.upload.root:uploads}") String uploadRoot;
     @Override public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + Path.of(uploadRoot).toAbsolutePath().normalize().toString() + "/");
+                .addResourceLocations("file:" + Path.of(uploadRoot).toAbsolutePath().normalize().toString() + "/")
+                .resourceChain(false)
+                .addResolver(new ShardedPathResourceResolver());
     }
 }
\ No newline at end of file
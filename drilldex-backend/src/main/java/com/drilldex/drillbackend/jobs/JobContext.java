@@ -0,0 +1,54 @@
+package com.drilldex.drillbackend.jobs;
+
+import java.time.Duration;
+
+/** Handed to a running job: where to resume from, and how to save progress. */
+public class JobContext {
+
+    private final String name;
+    private final String resumeFrom;
+    private final Duration leaseTtl;
+    private final JobRunner runner;
+
+    JobContext(String name, String resumeFrom, Duration leaseTtl, JobRunner runner) {
+        this.name = name;
+        this.resumeFrom = resumeFrom;
+        this.leaseTtl = leaseTtl;
+        this.runner = runner;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Checkpoint left by an earlier run that did not finish, or null for a fresh run. */
+    public String resumeFrom() {
+        return resumeFrom;
+    }
+
+    /** {@link #resumeFrom()} as a numeric id, or the fallback for a fresh run. */
+    public long resumeFromId(long fallback) {
+        if (resumeFrom == null) return fallback;
+        try {
+            return Long.parseLong(resumeFrom);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Records progress after a committed chunk and renews the lease. Throws
+     * {@link LeaseLostException} if the lease expired and another node took it.
+     */
+    public void checkpoint(String checkpoint) {
+        runner.checkpoint(this, checkpoint);
+    }
+
+    public void checkpoint(long lastId) {
+        checkpoint(Long.toString(lastId));
+    }
+
+    Duration leaseTtl() {
+        return leaseTtl;
+    }
+}
@@ -0,0 +1,152 @@
+package com.drilldex.drillbackend.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a scheduled job on one node at a time, using a lease row in job_lock.
+ *
+ * Every node's scheduler still fires. Only the node that takes the lease runs the job, and the
+ * others skip that firing. A lease expires after its TTL, so a crashed node blocks the job for
+ * at most one TTL. Jobs renew the lease whenever they save a checkpoint.
+ *
+ * The checkpoint is an opaque string, typically the last id processed. It is kept when a run
+ * fails or dies, and handed to the next run so that run resumes; a successful run clears it.
+ * After a success the lease is still held for lock-at-least, so a node whose clock is a little
+ * behind does not run the same firing again.
+ *
+ * Lease statements run in their own transactions (DB clock), never in the caller's.
+ */
+@Component
+@Slf4j
+public class JobRunner {
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO job_lock (name, locked_by, locked_until, started_at)
+            VALUES (?, ?, now() + make_interval(secs => ?), now())
+            ON CONFLICT (name) DO UPDATE
+            SET locked_by = EXCLUDED.locked_by, locked_until = EXCLUDED.locked_until, started_at = now()
+            WHERE job_lock.locked_until <= now()
+            RETURNING checkpoint
+            """;
+
+    private static final String CHECKPOINT_SQL = """
+            UPDATE job_lock SET checkpoint = ?, locked_until = now() + make_interval(secs => ?)
+            WHERE name = ? AND locked_by = ?
+            """;
+
+    private static final String SUCCESS_SQL = """
+            UPDATE job_lock
+            SET checkpoint = NULL, last_status = 'ok', finished_at = now(),
+                locked_until = GREATEST(now(), started_at + make_interval(secs => ?))
+            WHERE name = ? AND locked_by = ?
+            """;
+
+    private static final String FAILURE_SQL = """
+            UPDATE job_lock SET last_status = 'failed', finished_at = now(), locked_until = now()
+            WHERE name = ? AND locked_by = ?
+            """;
+
+    /** A job body; save progress through the context as it goes. */
+    @FunctionalInterface
+    public interface Job {
+        void run(JobContext context);
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate leaseTx;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final Duration lockAtLeast;
+
+    public JobRunner(JdbcTemplate jdbc,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.jobs.lock-at-least:PT30S}") Duration lockAtLeast) {
+        this.jdbc = jdbc;
+        this.leaseTx = new TransactionTemplate(transactionManager);
+        this.leaseTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.lockAtLeast = lockAtLeast;
+    }
+
+    /**
+     * Runs the job here if no other node holds its lease. Returns false when the run was skipped.
+     * Failures are logged and recorded, never thrown, as with a plain scheduled method.
+     */
+    public boolean run(String name, Duration leaseTtl, Job job) {
+        List<String> acquired = leaseTx.execute(status -> jdbc.query(ACQUIRE_SQL,
+                (rs, i) -> rs.getString(1), name, nodeId, leaseTtl.toSeconds()));
+        if (acquired == null || acquired.isEmpty()) {
+            Counter.builder("jobs.skipped").tag("job", name)
+                    .description("Scheduled firings skipped because another node held the lease")
+                    .register(meterRegistry).increment();
+            log.debug("Job {} skipped: lease held by another node", name);
+            return false;
+        }
+
+        String resumeFrom = acquired.get(0);
+        if (resumeFrom != null) log.info("Job {} resuming from checkpoint {}", name, resumeFrom);
+
+        JobContext context = new JobContext(name, resumeFrom, leaseTtl, this);
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            job.run(context);
+            leaseTx.executeWithoutResult(status -> jdbc.update(SUCCESS_SQL, lockAtLeast.toSeconds(), name, nodeId));
+        } catch (LeaseLostException e) {
+            outcome = "lease_lost";
+            log.warn("Job {} stopped: {}", name, e.getMessage());
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            log.error("Job {} failed; the next run resumes from its last checkpoint", name, e);
+            try {
+                leaseTx.executeWithoutResult(status -> jdbc.update(FAILURE_SQL, name, nodeId));
+            } catch (RuntimeException releaseError) {
+                log.warn("Job {} could not release its lease; it expires on its own", name, releaseError);
+            }
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            Timer.builder("jobs.run").tag("job", name).tag("outcome", outcome)
+                    .description("Duration of scheduled job runs")
+                    .register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+            log.debug("Job {} finished ({}) in {} ms", name, outcome, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return true;
+    }
+
+    /** Saves the checkpoint and renews the lease; throws when another node took the lease over. */
+    void checkpoint(JobContext context, String checkpoint) {
+        Integer updated = leaseTx.execute(status -> jdbc.update(CHECKPOINT_SQL,
+                checkpoint, context.leaseTtl().toSeconds(), context.name(), nodeId));
+        if (updated == null || updated == 0) {
+            throw new LeaseLostException("lease on " + context.name() + " was taken over");
+        }
+        Counter.builder("jobs.checkpoints").tag("job", context.name())
+                .description("Checkpoints saved by scheduled jobs")
+                .register(meterRegistry).increment();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
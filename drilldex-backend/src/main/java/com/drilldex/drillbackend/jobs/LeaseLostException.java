@@ -0,0 +1,8 @@
+package com.drilldex.drillbackend.jobs;
+
+/** A job's lease expired and another node took it over; the job must stop. */
+public class LeaseLostException extends RuntimeException {
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -5,8 +5,8 @@ import com.drilldex.drillbackend.dto.SearchCardDto;
 import com.drilldex.drillbackend.kit.dto.*;
 import com.drilldex.drillbackend.notification.*;
 import com.drilldex.drillbackend.pack.dto.FeatureStartReq;
+import com.drilldex.drillbackend.promotions.ActivePromotionIndex;
 import com.drilldex.drillbackend.promotions.Promotion;
-import com.drilldex.drillbackend.promotions.PromotionRepository;
 import com.drilldex.drillbackend.purchase.PurchaseRepository;
 import com.drilldex.drillbackend.shared.PaginatedResponse;
 import com.drilldex.drillbackend.shared.SlugUtil;
@@ -15,6 +15,8 @@ import com.drilldex.drillbackend.user.Role;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
 import com.drilldex.drillbackend.util.AudioUtils;
+import com.drilldex.drillbackend.ratelimit.PlayDeduplicator;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -53,8 +55,9 @@ public class KitController {
     private final UserRepository userRepository;
     private final PurchaseRepository purchaseRepository;
     private final CurrentUserService currentUserService;
-    private final PromotionRepository promotionRepository;
+    private final ActivePromotionIndex activePromotionIndex;
     private final FollowerNotificationService followerNotificationService;
+    private final PlayDeduplicator playDeduplicator;
 
 
     @Value("${app.storage.local.web-base:/uploads}")
@@ -386,10 +389,7 @@ public class KitController {
         int offset = (pg - 1) * lim;
 
         // Total count of active KIT promotions
-        int totalCount = promotionRepository.countActiveByType(
-                Promotion.TargetType.KIT.name(),  // string as expected
-                Instant.now()
-        );
+        int totalCount = activePromotionIndex.count(Promotion.TargetType.KIT);
 
         // Fetch paginated kits from service
         List<KitSummaryDto> kits = kitService.getFeaturedKitsFromPromotions(offset, lim);
@@ -399,8 +399,11 @@ public class KitController {
 
     @PostMapping("/{id}/play")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void markPlay(@PathVariable Long id) {
-        kitService.incrementPlayCount(id);
+    public void markPlay(@PathVariable Long id, HttpServletRequest request) {
+        // Repeat plays by the same listener within the window are accepted but not counted
+        if (playDeduplicator.shouldCount("kit", id, request)) {
+            kitService.incrementPlayCount(id);
+        }
     }
 
     @GetMapping("/by-slug/{slug}")
@@ -693,7 +696,7 @@ public class KitController {
             kits = repo.searchFlexiblePaginated(qLike, qNoSpace, pageable).getContent();
         }
 
-        Long userId = (principal != null) ? principal.getUser().getId() : null;
+        Long userId = (principal != null) ? principal.getId() : null;
         Set<Long> likedIds = (userId != null && !kits.isEmpty())
                 ? new HashSet<>(repo.findLikedKitIds(userId, kits.stream().map(Kit::getId).toList()))
                 : Set.of();
@@ -787,7 +790,7 @@ public class KitController {
         if (auth == null || !auth.isAuthenticated()) return null;
         Object p = auth.getPrincipal();
         if (p instanceof com.drilldex.drillbackend.auth.CustomUserDetails cud) {
-            return cud.getUser().getId();
+            return cud.getId();
         }
         if (p instanceof com.drilldex.drillbackend.user.User u) {
             return u.getId();
@@ -2,8 +2,8 @@
 package com.drilldex.drillbackend.kit;
 
 import com.drilldex.drillbackend.kit.dto.FeaturedKitDto;
+import com.drilldex.drillbackend.promotions.ActivePromotionIndex;
 import com.drilldex.drillbackend.promotions.Promotion;
-import com.drilldex.drillbackend.promotions.PromotionRepository;
 import com.drilldex.drillbackend.promotions.PromotionService;
 import com.drilldex.drillbackend.user.User;
 import lombok.RequiredArgsConstructor;
@@ -18,7 +18,7 @@ import java.util.*;
 public class KitFeatureService {
     private final KitRepository repo;
     private final PromotionService promotionService;
-    private final PromotionRepository promotionRepository;
+    private final ActivePromotionIndex activePromotionIndex;
 
     public List<FeaturedKitDto> getFeaturedKits(int limit) {
         int capped = Math.max(1, Math.min(100, limit));
@@ -31,11 +31,7 @@ public class KitFeatureService {
     }
 
     public boolean isKitCurrentlyFeatured(Long kitId) {
-        return promotionRepository.isCurrentlyFeatured(
-                "KIT",
-                kitId,
-                Instant.now()
-        );
+        return activePromotionIndex.isFeatured(Promotion.TargetType.KIT, kitId);
     }
 
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -335,6 +336,7 @@ ORDER BY
 """)
     List<Kit> findPopularSince(@Param("cutoff") Instant cutoff, Pageable pageable);
 
-
+    /** (id, title) pairs for the given ids, without loading the entities. */
+    @Query("SELECT k.id, k.title FROM Kit k WHERE k.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
 }
-
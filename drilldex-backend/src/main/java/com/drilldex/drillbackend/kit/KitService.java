@@ -4,6 +4,7 @@ import com.drilldex.drillbackend.kit.dto.FeaturedKitDto;
 import com.drilldex.drillbackend.kit.dto.KitSummaryDto;
 import com.drilldex.drillbackend.kit.dto.KitUploadMeta;
 import com.drilldex.drillbackend.preview.PreviewGenerator;
+import com.drilldex.drillbackend.promotions.ActivePromotionIndex;
 import com.drilldex.drillbackend.promotions.Promotion;
 import com.drilldex.drillbackend.promotions.PromotionRepository;
 import com.drilldex.drillbackend.promotions.PromotionService;
@@ -48,6 +49,7 @@ public class KitService {
     private final StorageService storage;
     private final KitFileRepository kitFileRepository;
     private final PromotionRepository promotionRepository;
+    private final ActivePromotionIndex activePromotionIndex;
     private final CurrentUserService currentUserService;
     private final PurchaseRepository purchaseRepository;
 
@@ -377,20 +379,9 @@ public class KitService {
     public List<KitSummaryDto> getFeaturedKitsFromPromotions(int offset, int limit) {
         int safeLimit = Math.max(1, Math.min(100, limit));
         int safeOffset = Math.max(0, offset);
-        Instant now = Instant.now();
 
-        // 1) Fetch active KIT promotions, already ordered by tier desc, start_date desc
-        List<Promotion> allPromos = promotionRepository.findActiveByTypeOrdered(
-                Promotion.TargetType.KIT.name(),
-                now,
-                PageRequest.of(0, Integer.MAX_VALUE) // fetch all and apply pagination manually
-        );
-
-        // 2) Apply manual pagination
-        List<Promotion> paginatedPromos = allPromos.stream()
-                .skip(safeOffset)
-                .limit(safeLimit)
-                .toList();
+        // 1-2) One page of running KIT promotions, ordered by tier desc, start_date desc (in-memory index)
+        List<Promotion> paginatedPromos = activePromotionIndex.slice(Promotion.TargetType.KIT, safeOffset, safeLimit);
 
         if (paginatedPromos.isEmpty()) return List.of();
 
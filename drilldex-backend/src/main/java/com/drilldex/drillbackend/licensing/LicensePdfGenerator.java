@@ -63,56 +63,7 @@ public class LicensePdfGenerator {
         doc.add(Styles.vspace(6));
         doc.add(summaryTableForBeat(buyer, beat, terms, styles));
 
-        // Rights section (driven by LicenseTerms)
-        doc.add(Styles.vspace(10));
-        section(doc, styles, "1. Grant of License",
-                "Licensor grants Licensee a non-exclusive (unless marked Exclusive), worldwide, non-transferable license to use the musical work (“Beat”) under the terms below.");
-
-        doc.add(section(doc, styles, "2. Rights Granted",
-                bulletLines(styles.body,
-                        "Commercial Use: " + yn(terms.isCommercialUse()),
-                        "Max Streams: " + unlimited(terms.getMaxStreams()),
-                        "Max Music Videos: " + unlimited(terms.getMaxMusicVideos()),
-                        "Radio Broadcast: " + yn(terms.isRadioRights()),
-                        "Live Performances: " + yn(terms.isLivePerformanceRights()),
-                        "Includes Stems: " + yn(terms.isIncludesStems()),
-                        "Exclusive Rights: " + yn(terms.isExclusive())
-                )));
-
-        doc.add(section(doc, styles, "3. Term", para(styles.body, "Perpetual unless otherwise agreed in writing.")));
-        doc.add(section(doc, styles, "4. Territory", para(styles.body, "Worldwide.")));
-
-        doc.add(section(doc, styles, "5. Restrictions",
-                para(styles.body, "Licensee shall not resell, redistribute, or sublicense the Beat in isolation. No use in fingerprinting systems (e.g., Content ID) without explicit written consent.")));
-
-        doc.add(section(doc, styles, "6. Ownership",
-                para(styles.body, "Licensor retains all rights in the master and underlying composition. No ownership transfers under this Agreement.")));
-
-        doc.add(section(doc, styles, "7. Credit",
-                para(styles.body, "Where technically feasible: “Produced by Drilldex”.")));
-
-        doc.add(section(doc, styles, "8. Payment",
-                para(styles.body, "A one‑time licensing fee has been paid. No further royalties are due under this Agreement.")));
-
-        doc.add(section(doc, styles, "9. Warranties",
-                para(styles.body, "Licensor warrants it has the right to license the Beat and believes use as licensed does not infringe third‑party rights.")));
-
-        doc.add(section(doc, styles, "10. Indemnification",
-                para(styles.body, "Licensee will indemnify and hold Licensor harmless from claims arising from Licensee’s use beyond the scope of this Agreement.")));
-
-        doc.add(section(doc, styles, "11. Limitation of Liability",
-                para(styles.body, "Licensor shall not be liable for indirect, incidental, or consequential damages.")));
-
-        doc.add(section(doc, styles, "12. Governing Law",
-                para(styles.body, "Laws of the Netherlands; exclusive jurisdiction of the courts of Amsterdam.")));
-
-        doc.add(section(doc, styles, "13. Entire Agreement",
-                para(styles.body, "This is the entire agreement and supersedes prior understandings.")));
-
-        doc.add(section(doc, styles, "14. Electronic Execution",
-                para(styles.body, "Assent by click/checkout constitutes a binding signature. This document may be stored electronically.")));
-
-
+        addBeatLicenseSections(doc, styles, terms);
 
         doc.close();
 
@@ -215,6 +166,80 @@ public class LicensePdfGenerator {
         doc.add(Styles.vspace(6));
         doc.add(summaryTableForPack(buyer, pack, licenseType, price, styles));
 
+        addPackLicenseSections(doc, styles, terms);
+
+        // Schedule A — Contents
+        doc.add(Styles.vspace(8));
+        for (Element e : packSchedule(pack, styles)) doc.add(e);
+
+        doc.close();
+
+        // Compute SHA-256 fingerprint and append
+        byte[] pdfBytes = bos.toByteArray();
+        String fingerprint = sha256Hex(pdfBytes);
+        PdfStamperUtil.appendFingerprint(filename, pdfBytes, fingerprint, agreementId);
+
+        return filename;
+    }
+
+    /* ==============================
+       Sections & Tables
+       ============================== */
+
+    /** Fixed legal body of a beat license; only depends on the license tier. */
+    static void addBeatLicenseSections(Document doc, Styles styles, LicenseTerms terms) throws DocumentException {
+        // Rights section (driven by LicenseTerms)
+        doc.add(Styles.vspace(10));
+        section(doc, styles, "1. Grant of License",
+                "Licensor grants Licensee a non-exclusive (unless marked Exclusive), worldwide, non-transferable license to use the musical work (“Beat”) under the terms below.");
+
+        doc.add(section(doc, styles, "2. Rights Granted",
+                bulletLines(styles.body,
+                        "Commercial Use: " + yn(terms.isCommercialUse()),
+                        "Max Streams: " + unlimited(terms.getMaxStreams()),
+                        "Max Music Videos: " + unlimited(terms.getMaxMusicVideos()),
+                        "Radio Broadcast: " + yn(terms.isRadioRights()),
+                        "Live Performances: " + yn(terms.isLivePerformanceRights()),
+                        "Includes Stems: " + yn(terms.isIncludesStems()),
+                        "Exclusive Rights: " + yn(terms.isExclusive())
+                )));
+
+        doc.add(section(doc, styles, "3. Term", para(styles.body, "Perpetual unless otherwise agreed in writing.")));
+        doc.add(section(doc, styles, "4. Territory", para(styles.body, "Worldwide.")));
+
+        doc.add(section(doc, styles, "5. Restrictions",
+                para(styles.body, "Licensee shall not resell, redistribute, or sublicense the Beat in isolation. No use in fingerprinting systems (e.g., Content ID) without explicit written consent.")));
+
+        doc.add(section(doc, styles, "6. Ownership",
+                para(styles.body, "Licensor retains all rights in the master and underlying composition. No ownership transfers under this Agreement.")));
+
+        doc.add(section(doc, styles, "7. Credit",
+                para(styles.body, "Where technically feasible: “Produced by Drilldex”.")));
+
+        doc.add(section(doc, styles, "8. Payment",
+                para(styles.body, "A one‑time licensing fee has been paid. No further royalties are due under this Agreement.")));
+
+        doc.add(section(doc, styles, "9. Warranties",
+                para(styles.body, "Licensor warrants it has the right to license the Beat and believes use as licensed does not infringe third‑party rights.")));
+
+        doc.add(section(doc, styles, "10. Indemnification",
+                para(styles.body, "Licensee will indemnify and hold Licensor harmless from claims arising from Licensee’s use beyond the scope of this Agreement.")));
+
+        doc.add(section(doc, styles, "11. Limitation of Liability",
+                para(styles.body, "Licensor shall not be liable for indirect, incidental, or consequential damages.")));
+
+        doc.add(section(doc, styles, "12. Governing Law",
+                para(styles.body, "Laws of the Netherlands; exclusive jurisdiction of the courts of Amsterdam.")));
+
+        doc.add(section(doc, styles, "13. Entire Agreement",
+                para(styles.body, "This is the entire agreement and supersedes prior understandings.")));
+
+        doc.add(section(doc, styles, "14. Electronic Execution",
+                para(styles.body, "Assent by click/checkout constitutes a binding signature. This document may be stored electronically.")));
+    }
+
+    /** Fixed legal body of a pack license; only depends on the license tier. */
+    static void addPackLicenseSections(Document doc, Styles styles, LicenseTerms terms) throws DocumentException {
         // Rights / license sections (like per-beat)
         doc.add(Styles.vspace(10));
         section(doc, styles, "1. Grant of License",
@@ -254,33 +279,19 @@ public class LicensePdfGenerator {
                 para(styles.body, "This is the entire agreement and supersedes prior understandings.")));
         doc.add(section(doc, styles, "14. Electronic Execution",
                 para(styles.body, "Assent by click/checkout constitutes a binding signature. This document may be stored electronically.")));
+    }
 
-        // Schedule A — Contents
-        doc.add(Styles.vspace(8));
-        doc.add(new Paragraph("SCHEDULE A — Contents", styles.h2));
+    static java.util.List<Element> packSchedule(Pack pack, Styles styles) {
         com.lowagie.text.List list = new com.lowagie.text.List(com.lowagie.text.List.UNORDERED);
         list.setListSymbol("• ");
         int i = 1;
         for (Beat b : pack.getBeats()) {
             list.add(new ListItem(new Phrase(i++ + ". " + b.getTitle(), styles.mono)));
         }
-        doc.add(list);
-
-        doc.close();
-
-        // Compute SHA-256 fingerprint and append
-        byte[] pdfBytes = bos.toByteArray();
-        String fingerprint = sha256Hex(pdfBytes);
-        PdfStamperUtil.appendFingerprint(filename, pdfBytes, fingerprint, agreementId);
-
-        return filename;
+        return java.util.List.of(new Paragraph("SCHEDULE A — Contents", styles.h2), list);
     }
 
-    /* ==============================
-       Sections & Tables
-       ============================== */
-
-    private static Element summaryTableForBeat(User buyer, Beat beat, LicenseTerms t, Styles s) {
+    static PdfPTable summaryTableForBeat(User buyer, Beat beat, LicenseTerms t, Styles s) {
         PdfPTable tbl = table(2, 100f);
         addKV(tbl, "Agreement Date", nowHuman(), s);
         addKV(tbl, "Buyer", safe(buyer.getEmail()), s);
@@ -302,7 +313,7 @@ public class LicensePdfGenerator {
         return tbl;
     }
 
-    private static Element summaryTableForPack(User buyer, Pack pack, LicenseType licenseType, BigDecimal price, Styles s) {
+    static PdfPTable summaryTableForPack(User buyer, Pack pack, LicenseType licenseType, BigDecimal price, Styles s) {
         PdfPTable tbl = table(2, 100f);
 
         addKV(tbl, "Agreement Date", nowHuman(), s);
@@ -413,7 +424,7 @@ public class LicensePdfGenerator {
        PDF Infrastructure & Styles
        ============================== */
 
-    private static class PdfDocFactory {
+    static class PdfDocFactory {
         static Document newDocument(ByteArrayOutputStream bos, String title, String agreementId) {
             Document d = new Document(PageSize.A4, 56f, 56f, 72f, 56f); // nice margins
             d.addTitle(title);
@@ -424,7 +435,7 @@ public class LicensePdfGenerator {
         }
     }
 
-    private static class PdfBranding {
+    static class PdfBranding {
 
         /** Create a PdfWriter and (optionally) attach a page event. */
         static PdfWriter newWriter(Document doc, OutputStream out, PdfPageEvent event) throws DocumentException {
@@ -504,7 +515,7 @@ public class LicensePdfGenerator {
         }
     }
 
-    private static class Styles {
+    static class Styles {
         final Font h1, h2, body, muted, mono, monoSmall;
         private Styles(Font h1, Font h2, Font body, Font muted, Font mono, Font monoSmall) {
             this.h1 = h1; this.h2 = h2; this.body = body; this.muted = muted; this.mono = mono; this.monoSmall = monoSmall;
@@ -537,16 +548,19 @@ public class LicensePdfGenerator {
         }
     }
 
-    private static class PdfStamperUtil {
+    static class PdfStamperUtil {
         static void appendFingerprint(String filename, byte[] pdfBytes, String fingerprint, String agreementId) throws Exception {
-            // write initial file
+            // stamp in memory and write the file once
+            byte[] stamped = stampFingerprint(pdfBytes, fingerprint);
             try (FileOutputStream fos = new FileOutputStream(filename)) {
-                fos.write(pdfBytes);
+                fos.write(stamped);
             }
+        }
 
-            // stamp the fingerprint on the last page footer line (simple approach)
-            PdfReader reader = new PdfReader(filename);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
+        /** Stamps the fingerprint on the last page footer line (simple approach). */
+        static byte[] stampFingerprint(byte[] pdfBytes, String fingerprint) throws Exception {
+            PdfReader reader = new PdfReader(pdfBytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(pdfBytes.length + 1024);
             PdfStamper stamper = new PdfStamper(reader, out);
 
             PdfContentByte cb = stamper.getOverContent(reader.getNumberOfPages());
@@ -556,10 +570,7 @@ public class LicensePdfGenerator {
 
             stamper.close();
             reader.close();
-
-            try (FileOutputStream fos = new FileOutputStream(filename)) {
-                fos.write(out.toByteArray());
-            }
+            return out.toByteArray();
         }
     }
 
@@ -573,14 +584,14 @@ public class LicensePdfGenerator {
 
     private static String yn(boolean b) { return b ? "Yes" : "No"; }
     private static String unlimited(int v) { return v == Integer.MAX_VALUE ? "Unlimited" : String.valueOf(v); }
-    private static String safe(String s) { return s == null ? "" : s; }
+    static String safe(String s) { return s == null ? "" : s; }
 
     private static String money(double amount, Locale locale) {
         NumberFormat nf = NumberFormat.getCurrencyInstance(locale);
         return nf.format(amount);
     }
 
-    private static String sha256Hex(byte[] data) throws Exception {
+    static String sha256Hex(byte[] data) throws Exception {
         MessageDigest md = MessageDigest.getInstance("SHA-256");
         byte[] d = md.digest(data);
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,198 @@
+// src/main/java/com/drilldex/drillbackend/licensing/LicenseRenderService.java
+package com.drilldex.drillbackend.licensing;
+
+import com.drilldex.drillbackend.beat.Beat;
+import com.drilldex.drillbackend.beat.LicenseType;
+import com.drilldex.drillbackend.pack.Pack;
+import com.drilldex.drillbackend.purchase.Purchase;
+import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.user.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders license PDFs off the checkout transaction.
+ *
+ * Purchases are saved with {@link LicenseStatus#PENDING}; once the surrounding transaction
+ * commits, the PDF is rendered on a small bounded pool and the row is flipped to READY/FAILED.
+ * Download endpoints call {@link #awaitLicense(Purchase)}, which waits for an in-flight render
+ * or renders on demand (e.g. after a restart dropped the queue).
+ *
+ * Renders may be started from an {@code afterCommit} callback, where the finished transaction is
+ * still bound to the thread, so the read and the status update each run in their own new transaction.
+ */
+@Service
+@Slf4j
+public class LicenseRenderService {
+
+    private final PurchaseRepository purchaseRepository;
+    private final LicenseTemplateEngine templateEngine;
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate writeTx;
+    private final ThreadPoolExecutor renderExecutor;
+    private final long awaitTimeoutMs;
+
+    // purchaseId -> render in progress; removed as soon as it finishes
+    private final Map<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public LicenseRenderService(PurchaseRepository purchaseRepository,
+                                LicenseTemplateEngine templateEngine,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.licenses.render.threads:4}") int threads,
+                                @Value("${app.licenses.render.queue-capacity:500}") int queueCapacity,
+                                @Value("${app.licenses.render.await-timeout-ms:15000}") long awaitTimeoutMs) {
+        this.purchaseRepository = purchaseRepository;
+        this.templateEngine = templateEngine;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.awaitTimeoutMs = awaitTimeoutMs;
+
+        AtomicInteger seq = new AtomicInteger();
+        // Bounded queue; when it is full the purchase stays PENDING and is rendered on first download
+        this.renderExecutor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "license-render-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Schedules rendering for a purchase once the current transaction (if any) has committed. */
+    public void enqueue(Long purchaseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(purchaseId);
+                }
+            });
+        } else {
+            submit(purchaseId);
+        }
+    }
+
+    /**
+     * Returns the license path for a purchase, waiting for a pending render if needed.
+     * Returns null when there is no license (kit purchases) or rendering failed.
+     */
+    public String awaitLicense(Purchase purchase) {
+        if (purchase.getBeat() == null && purchase.getPack() == null) {
+            return purchase.getLicensePdfPath();
+        }
+        LicenseStatus status = purchase.getLicenseStatus();
+        if (status == null || status == LicenseStatus.READY) {
+            return purchase.getLicensePdfPath();
+        }
+
+        Long id = purchase.getId();
+        CompletableFuture<String> job = inFlight.get(id);
+        if (job != null) {
+            try {
+                return job.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("License render for purchase {} still running after {} ms", id, awaitTimeoutMs);
+                return null;
+            } catch (ExecutionException e) {
+                log.warn("License render for purchase {} failed, retrying inline", id, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        } else {
+            // The entity may be stale: the job could have finished since it was loaded
+            String ready = purchaseRepository.findLicensePdfPathByStatus(id, LicenseStatus.READY).orElse(null);
+            if (ready != null) return ready;
+        }
+
+        try {
+            return render(id);
+        } catch (RuntimeException e) {
+            log.error("On-demand license render failed for purchase {}", id, e);
+            return null;
+        }
+    }
+
+    private CompletableFuture<String> submit(Long purchaseId) {
+        CompletableFuture<String> job = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(purchaseId, job);
+        if (existing != null) return existing;
+
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    job.complete(render(purchaseId));
+                } catch (Throwable t) {
+                    job.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(purchaseId, job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("License render queue full; purchase {} stays PENDING until downloaded", purchaseId);
+            inFlight.remove(purchaseId, job);
+            job.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    private String render(Long purchaseId) {
+        // Load everything the generator touches in a short read-only tx, then render without a connection
+        LicenseJob job = readTx.execute(tx -> purchaseRepository.findById(purchaseId)
+                .map(LicenseJob::of)
+                .orElse(null));
+        if (job == null) {
+            throw new IllegalArgumentException("Purchase not found: " + purchaseId);
+        }
+
+        try {
+            String path = job.render(templateEngine);
+            writeTx.executeWithoutResult(tx -> purchaseRepository.updateLicense(purchaseId, path, LicenseStatus.READY));
+            return path;
+        } catch (Exception e) {
+            writeTx.executeWithoutResult(tx -> purchaseRepository.updateLicense(purchaseId, null, LicenseStatus.FAILED));
+            throw new IllegalStateException("License render failed for purchase " + purchaseId, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderExecutor.shutdown();
+    }
+
+    private record LicenseJob(User buyer, Beat beat, Pack pack, LicenseType licenseType, BigDecimal price) {
+
+        static LicenseJob of(Purchase p) {
+            if (p.getPack() != null) {
+                Hibernate.initialize(p.getPack().getBeats()); // listed in Schedule A
+            }
+            return new LicenseJob(p.getBuyer(), p.getBeat(), p.getPack(), p.getLicenseType(), p.getPricePaid());
+        }
+
+        String render(LicenseTemplateEngine engine) throws Exception {
+            LicenseTerms terms = LicenseTermsConfig.getTermsFor(licenseType);
+            if (beat != null) {
+                return engine.generateLicensePdf(buyer, beat, terms);
+            }
+            return engine.generatePackLicensePdf(buyer, pack, terms, licenseType, price);
+        }
+    }
+}
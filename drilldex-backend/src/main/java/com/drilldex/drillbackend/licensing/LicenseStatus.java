@@ -0,0 +1,11 @@
+package com.drilldex.drillbackend.licensing;
+
+/**
+ * Lifecycle of the license PDF attached to a purchase.
+ * Rows created before async rendering have no status and are treated as READY.
+ */
+public enum LicenseStatus {
+    PENDING,
+    READY,
+    FAILED
+}
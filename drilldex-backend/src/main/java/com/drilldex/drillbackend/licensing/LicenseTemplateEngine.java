@@ -0,0 +1,300 @@
+// src/main/java/com/drilldex/drillbackend/licensing/LicenseTemplateEngine.java
+package com.drilldex.drillbackend.licensing;
+
+import com.drilldex.drillbackend.beat.Beat;
+import com.drilldex.drillbackend.beat.LicenseType;
+import com.drilldex.drillbackend.licensing.LicensePdfGenerator.PdfDocFactory;
+import com.drilldex.drillbackend.licensing.LicensePdfGenerator.PdfStamperUtil;
+import com.drilldex.drillbackend.licensing.LicensePdfGenerator.Styles;
+import com.drilldex.drillbackend.pack.Pack;
+import com.drilldex.drillbackend.user.User;
+import com.lowagie.text.*;
+import com.lowagie.text.pdf.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders beat/pack license PDFs from pre-compiled templates.
+ *
+ * The fixed part of a license (fonts, title, legal sections) only depends on the license tier
+ * and the item kind, so it is laid out once per (LicenseType, ItemKind) and cached as PDF bytes.
+ * Per purchase we only stamp the agreement ID, the summary table, the page decoration
+ * (header/footer/watermark), the pack Schedule A and the fingerprint.
+ *
+ * Output mirrors {@link LicensePdfGenerator}; if a summary table does not fit the space reserved
+ * in the template (very long titles/emails), we fall back to the full generator.
+ */
+@Component
+@Slf4j
+public class LicenseTemplateEngine {
+
+    enum ItemKind { BEAT, PACK }
+
+    private record TemplateKey(LicenseType type, ItemKind kind) {}
+
+    /** Static license body plus where the per-purchase fields go on page 1. */
+    record CompiledTemplate(byte[] pdf, float left, float right, float top, float bottom,
+                            float agreementBaseline, float tableTop, float tableReserved) {}
+
+    // Room for a couple of wrapped summary rows before we give up and fall back
+    private static final float TABLE_SLACK = 40f;
+    private static final DateTimeFormatter FOOTER_TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final boolean enabled;
+    private final Map<TemplateKey, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    // Fonts are created once instead of per document
+    private final Styles styles = Styles.defaultStyles();
+    private final Font headerFont = Styles.font(BaseFont.HELVETICA_BOLD, 10);
+    private final Font footerFont = Styles.font(BaseFont.HELVETICA, 9);
+    private final Font watermarkFont = Styles.font(BaseFont.HELVETICA_BOLD, 60);
+
+    public LicenseTemplateEngine(@Value("${app.licenses.templates.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /* ==============================
+       Public API (same contract as LicensePdfGenerator)
+       ============================== */
+
+    public String generateLicensePdf(User buyer, Beat beat, LicenseTerms terms) throws Exception {
+        if (!enabled) return LicensePdfGenerator.generateLicensePdf(buyer, beat, terms);
+
+        byte[] pdf = null;
+        try {
+            pdf = renderBeat(buyer, beat, terms, newAgreementId());
+        } catch (RuntimeException e) {
+            log.warn("Template render failed for beat {}, using full render", beat.getId(), e);
+        }
+        if (pdf == null) return LicensePdfGenerator.generateLicensePdf(buyer, beat, terms);
+
+        return write("license-" + beat.getId(), pdf);
+    }
+
+    public String generatePackLicensePdf(User buyer, Pack pack, LicenseTerms terms,
+                                         LicenseType licenseType, BigDecimal price) throws Exception {
+        if (!enabled) return LicensePdfGenerator.generatePackLicensePdf(buyer, pack, terms, licenseType, price);
+
+        byte[] pdf = null;
+        try {
+            pdf = renderPack(buyer, pack, terms, licenseType, price, newAgreementId());
+        } catch (RuntimeException e) {
+            log.warn("Template render failed for pack {}, using full render", pack.getId(), e);
+        }
+        if (pdf == null) return LicensePdfGenerator.generatePackLicensePdf(buyer, pack, terms, licenseType, price);
+
+        return write("pack-license-" + pack.getId(), pdf);
+    }
+
+    /** Returns the stamped PDF, or null when the summary does not fit the template. */
+    byte[] renderBeat(User buyer, Beat beat, LicenseTerms terms, String agreementId) throws Exception {
+        CompiledTemplate t = template(new TemplateKey(terms.getType(), ItemKind.BEAT));
+        PdfPTable summary = LicensePdfGenerator.summaryTableForBeat(buyer, beat, terms, styles);
+        return stamp(t, agreementId, "Drilldex License", summary, null);
+    }
+
+    /** Returns the stamped PDF, or null when the summary does not fit the template. */
+    byte[] renderPack(User buyer, Pack pack, LicenseTerms terms, LicenseType licenseType,
+                      BigDecimal price, String agreementId) throws Exception {
+        CompiledTemplate t = template(new TemplateKey(terms.getType(), ItemKind.PACK));
+        PdfPTable summary = LicensePdfGenerator.summaryTableForPack(buyer, pack, licenseType, price, styles);
+        return stamp(t, agreementId, "Drilldex Pack License", summary,
+                LicensePdfGenerator.packSchedule(pack, styles));
+    }
+
+    /* ==============================
+       Template compilation
+       ============================== */
+
+    private CompiledTemplate template(TemplateKey key) {
+        return templates.computeIfAbsent(key, k -> {
+            try {
+                return compile(k);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to compile license template " + k, e);
+            }
+        });
+    }
+
+    private CompiledTemplate compile(TemplateKey key) throws Exception {
+        LicenseTerms terms = LicenseTermsConfig.getTermsFor(key.type());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Document doc = PdfDocFactory.newDocument(bos, "Drilldex License", "");
+        PdfWriter writer = PdfWriter.getInstance(doc, bos); // no page event: decoration is stamped per purchase
+        doc.open();
+
+        doc.add(new Paragraph("DRILLDEX LICENSE AGREEMENT", styles.h1));
+        doc.add(Styles.vspace(4));
+
+        // Empty line where "Agreement ID: ..." goes; the baseline is where the line ended
+        doc.add(new Paragraph(" ", styles.muted));
+        float agreementBaseline = writer.getVerticalPosition(true);
+
+        doc.add(Styles.vspace(6));
+        float tableTop = writer.getVerticalPosition(true);
+        float width = doc.right() - doc.left();
+        float reserved = sampleSummaryHeight(key, terms, width) + TABLE_SLACK;
+        doc.add(spacer(reserved));
+
+        if (key.kind() == ItemKind.BEAT) {
+            LicensePdfGenerator.addBeatLicenseSections(doc, styles, terms);
+        } else {
+            LicensePdfGenerator.addPackLicenseSections(doc, styles, terms);
+        }
+
+        float left = doc.left(), right = doc.right(), top = doc.top(), bottom = doc.bottom();
+        doc.close();
+
+        log.info("Compiled license template {} ({} bytes)", key, bos.size());
+        return new CompiledTemplate(bos.toByteArray(), left, right, top, bottom, agreementBaseline, tableTop, reserved);
+    }
+
+    private float sampleSummaryHeight(TemplateKey key, LicenseTerms terms, float width) {
+        User buyer = new User();
+        buyer.setEmail("buyer@example.com");
+
+        PdfPTable sample;
+        if (key.kind() == ItemKind.BEAT) {
+            Beat beat = new Beat();
+            beat.setTitle("Sample");
+            sample = LicensePdfGenerator.summaryTableForBeat(buyer, beat, terms, styles);
+        } else {
+            Pack pack = new Pack();
+            pack.setTitle("Sample");
+            sample = LicensePdfGenerator.summaryTableForPack(buyer, pack, key.type(), BigDecimal.TEN, styles);
+        }
+        sample.setTotalWidth(width);
+        sample.setLockedWidth(true);
+        return sample.getTotalHeight();
+    }
+
+    private static PdfPTable spacer(float height) {
+        PdfPTable t = new PdfPTable(1);
+        t.setWidthPercentage(100f);
+        PdfPCell c = new PdfPCell();
+        c.setBorder(Rectangle.NO_BORDER);
+        c.setFixedHeight(height);
+        t.addCell(c);
+        return t;
+    }
+
+    /* ==============================
+       Per-purchase stamping
+       ============================== */
+
+    private byte[] stamp(CompiledTemplate t, String agreementId, String title,
+                         PdfPTable summary, java.util.List<Element> schedule) throws Exception {
+        summary.setTotalWidth(t.right() - t.left());
+        summary.setLockedWidth(true);
+        if (summary.getTotalHeight() > t.tableReserved()) {
+            log.debug("License summary ({}pt) exceeds template slot ({}pt), using full render",
+                    summary.getTotalHeight(), t.tableReserved());
+            return null;
+        }
+
+        PdfReader reader = new PdfReader(t.pdf());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(t.pdf().length + 8192);
+        PdfStamper stamper = new PdfStamper(reader, out);
+
+        PdfContentByte first = stamper.getOverContent(1);
+        ColumnText.showTextAligned(first, Element.ALIGN_LEFT,
+                new Phrase("Agreement ID: " + agreementId, styles.muted),
+                t.left(), t.agreementBaseline(), 0);
+        summary.writeSelectedRows(0, -1, t.left(), t.tableTop(), first);
+
+        if (schedule != null) {
+            appendPages(stamper, reader, t, schedule);
+        }
+
+        String ts = FOOTER_TS.format(LocalDateTime.now());
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            decorate(stamper.getOverContent(page), reader.getPageSize(page), t, agreementId, ts, page);
+        }
+
+        HashMap<String, String> info = new HashMap<>();
+        info.put("Title", title);
+        info.put("Subject", "Agreement " + agreementId);
+        stamper.setMoreInfo(info);
+
+        stamper.close();
+        reader.close();
+
+        // Same fingerprint semantics as the full generator: hash of the document before the footer line
+        byte[] pdfBytes = out.toByteArray();
+        return PdfStamperUtil.stampFingerprint(pdfBytes, LicensePdfGenerator.sha256Hex(pdfBytes));
+    }
+
+    /** Lays out variable-length content (pack Schedule A) on freshly inserted pages. */
+    private void appendPages(PdfStamper stamper, PdfReader reader, CompiledTemplate t,
+                             java.util.List<Element> elements) throws DocumentException {
+        ColumnText ct = new ColumnText(null);
+        for (Element e : elements) ct.addElement(e);
+
+        Rectangle size = reader.getPageSize(1);
+        int status;
+        do {
+            int page = reader.getNumberOfPages() + 1;
+            stamper.insertPage(page, size);
+            ct.setCanvas(stamper.getOverContent(page));
+            ct.setSimpleColumn(t.left(), t.bottom(), t.right(), t.top());
+            status = ct.go();
+        } while (ColumnText.hasMoreText(status));
+    }
+
+    /** Same header/footer/watermark as LicensePdfGenerator.PdfBranding.PageDecoration. */
+    private void decorate(PdfContentByte cb, Rectangle r, CompiledTemplate t,
+                          String agreementId, String ts, int page) {
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT,
+                new Phrase("DRILLDEX", headerFont), t.left(), r.getTop() - 30, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_RIGHT,
+                new Phrase("Agreement " + agreementId, headerFont), t.right(), r.getTop() - 30, 0);
+
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT,
+                new Phrase("Generated " + ts + " • drilldex.com", footerFont), t.left(), r.getBottom() + 28, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_RIGHT,
+                new Phrase("Page " + page, footerFont), t.right(), r.getBottom() + 28, 0);
+
+        PdfGState gs = new PdfGState();
+        gs.setFillOpacity(0.06f);
+        cb.saveState();
+        cb.setGState(gs);
+        ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
+                new Phrase(agreementId, watermarkFont),
+                (r.getLeft() + r.getRight()) / 2,
+                (r.getTop() + r.getBottom()) / 2,
+                45);
+        cb.restoreState();
+    }
+
+    /* ==============================
+       Utils
+       ============================== */
+
+    private static String newAgreementId() {
+        return "DL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    private static String write(String prefix, byte[] pdf) throws Exception {
+        final String outDir = "licenses";
+        Files.createDirectories(Paths.get(outDir));
+        final String filename = outDir + "/" + prefix + "-" + System.currentTimeMillis() + ".pdf";
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
+            fos.write(pdf);
+        }
+        return filename;
+    }
+}
@@ -0,0 +1,212 @@
+package com.drilldex.drillbackend.notification;
+
+import com.drilldex.drillbackend.notification.dto.NotificationDto;
+import com.drilldex.drillbackend.user.User;
+import com.drilldex.drillbackend.user.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds chat messages into one notification per (recipient, sender).
+ *
+ * Sending a message only bumps an in-memory counter. Every window the counters are flushed: one
+ * INSERT ... ON CONFLICT either creates the recipient's unread CHAT notification from that sender
+ * or adds to its aggregate_count, and one SSE update is pushed. A burst of 30 messages therefore
+ * costs one write and one push instead of a read + write + push per message.
+ *
+ * The upsert is keyed on the unique partial index idx_notification_chat_unread_key, so nodes
+ * flushing the same pair at once cannot create two unread notifications. A partitioned
+ * notification table cannot carry that index; there the bump-then-insert runs under a
+ * transaction-scoped advisory lock on the pair instead.
+ */
+@Component
+@Slf4j
+public class ChatNotificationCoalescer {
+
+    private record Key(Long recipientId, Long senderId) {}
+
+    private record Pending(int count, Long lastMessageId) {
+        Pending plus(Pending other) {
+            return new Pending(count + other.count, Math.max(lastMessageId, other.lastMessageId));
+        }
+    }
+
+    // nextval under pooled semantics owns a whole id block; the row takes its top value, which
+    // Hibernate never hands out (see NotificationBulkWriter). A conflicting insert burns a block.
+    private static final String UPSERT_SQL = """
+            INSERT INTO notification (id, recipient_id, type, related_type, reference_id, actor_id,
+                                      aggregate_count, title, message, read, created_at, updated_at)
+            VALUES (nextval('notification_seq'), ?, 'CHAT', 'CHAT', ?, ?, ?, ?, ?, false, ?, ?)
+            ON CONFLICT (recipient_id, actor_id) WHERE type = 'CHAT' AND read = false
+            DO UPDATE SET aggregate_count = COALESCE(notification.aggregate_count, 1) + EXCLUDED.aggregate_count,
+                message = ? || ' sent ' || (COALESCE(notification.aggregate_count, 1) + EXCLUDED.aggregate_count) || ' messages',
+                reference_id = GREATEST(notification.reference_id, EXCLUDED.reference_id),
+                updated_at = EXCLUDED.updated_at
+            RETURNING id, aggregate_count, (xmax = 0) AS inserted
+            """;
+
+    private static final String UPSERT_KEY_EXISTS_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_indexes
+                           WHERE tablename = 'notification' AND indexname = 'idx_notification_chat_unread_key'
+                             AND schemaname = current_schema())
+            """;
+
+    private static final String BUMP_SQL = """
+            UPDATE notification
+            SET aggregate_count = COALESCE(aggregate_count, 1) + ?,
+                message = ? || ' sent ' || (COALESCE(aggregate_count, 1) + ?) || ' messages',
+                reference_id = GREATEST(reference_id, ?),
+                updated_at = ?
+            WHERE id = (
+                SELECT id FROM notification
+                WHERE recipient_id = ? AND type = 'CHAT' AND actor_id = ? AND read = false
+                ORDER BY created_at DESC
+                LIMIT 1
+            )
+            RETURNING id, aggregate_count
+            """;
+
+    private record Written(long id, int count, boolean inserted) {}
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final NotificationRepository repository;
+    private final UserRepository userRepository;
+    private final SseNotificationBroadcaster broadcaster;
+    private final UnreadCounterService unreadCounter;
+    private final ScheduledExecutorService flusher;
+
+    public ChatNotificationCoalescer(JdbcTemplate jdbc,
+                                     PlatformTransactionManager transactionManager,
+                                     NotificationRepository repository,
+                                     UserRepository userRepository,
+                                     SseNotificationBroadcaster broadcaster,
+                                     UnreadCounterService unreadCounter,
+                                     @Value("${app.notifications.chat.window-ms:2000}") long windowMs) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.broadcaster = broadcaster;
+        this.unreadCounter = unreadCounter;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-notification-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Counts a chat message towards the recipient's notification; no I/O. */
+    public void record(Long recipientId, Long senderId, Long messageId) {
+        if (recipientId == null || senderId == null || recipientId.equals(senderId)) return;
+        pending.merge(new Key(recipientId, senderId), new Pending(1, messageId), Pending::plus);
+    }
+
+    void flush() {
+        if (pending.isEmpty()) return;
+        boolean upsert;
+        try {
+            upsert = Boolean.TRUE.equals(jdbc.queryForObject(UPSERT_KEY_EXISTS_SQL, Boolean.class));
+        } catch (RuntimeException e) {
+            log.warn("Chat notification flush skipped; will retry next window", e);
+            return;
+        }
+        for (Key key : List.copyOf(pending.keySet())) {
+            Pending p = pending.remove(key);
+            if (p == null) continue;
+            try {
+                write(key, p, upsert);
+            } catch (RuntimeException e) {
+                log.warn("Chat notification flush failed for recipient {} from {}", key.recipientId(), key.senderId(), e);
+            }
+        }
+    }
+
+    private void write(Key key, Pending p, boolean upsert) {
+        User sender = userRepository.findById(key.senderId()).orElse(null);
+        if (sender == null) return;
+
+        Written w = upsert ? upsert(key, p, sender) : tx.execute(status -> lockedBumpOrInsert(key, p, sender));
+        if (w == null) return;
+        if (w.inserted()) unreadCounter.adjust(key.recipientId(), 1); // a bump leaves the unread count unchanged
+
+        broadcaster.sendTo(key.recipientId(), new NotificationDto(
+                w.id(),
+                "New message from " + sender.getDisplayName(),
+                messageFor(sender, w.count()),
+                false,
+                RelatedType.CHAT,
+                p.lastMessageId(),
+                null,
+                null,
+                key.senderId()
+        ));
+    }
+
+    /** Creates or bumps the pair's unread notification in one statement. */
+    private Written upsert(Key key, Pending p, User sender) {
+        Timestamp now = Timestamp.from(Instant.now());
+        return jdbc.queryForObject(UPSERT_SQL,
+                (rs, i) -> new Written(rs.getLong(1), rs.getInt(2), rs.getBoolean(3)),
+                key.recipientId(), p.lastMessageId(), key.senderId(), p.count(),
+                "New message from " + sender.getDisplayName(), messageFor(sender, p.count()), now, now,
+                sender.getDisplayName());
+    }
+
+    /** Partitioned table: bump, else insert, with concurrent flushes of the pair serialized. */
+    private Written lockedBumpOrInsert(Key key, Pending p, User sender) {
+        // Key collisions only serialize unrelated pairs, they never merge them
+        jdbc.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {},
+                key.recipientId().intValue(), key.senderId().intValue());
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Written> bumped = jdbc.query(BUMP_SQL,
+                (rs, i) -> new Written(rs.getLong(1), rs.getInt(2), false),
+                p.count(), sender.getDisplayName(), p.count(), p.lastMessageId(), now,
+                key.recipientId(), key.senderId());
+        if (!bumped.isEmpty()) return bumped.get(0);
+
+        User recipient = userRepository.findById(key.recipientId()).orElse(null);
+        if (recipient == null) return null;
+
+        Notification n = new Notification();
+        n.setRecipient(recipient);
+        n.setType(NotificationType.CHAT);
+        n.setRelatedType(RelatedType.CHAT);
+        n.setReferenceId(p.lastMessageId());
+        n.setActorId(key.senderId());
+        n.setAggregateCount(p.count());
+        n.setTitle("New message from " + sender.getDisplayName());
+        n.setMessage(messageFor(sender, p.count()));
+        n.setCreatedAt(Instant.now());
+        return new Written(repository.saveAndFlush(n).getId(), p.count(), true);
+    }
+
+    // Text is derived from the structured count, never parsed back
+    private static String messageFor(User sender, int count) {
+        return count <= 1 ? "You have a new message" : sender.getDisplayName() + " sent " + count + " messages";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        flush(); // don't lose the last window
+    }
+}
@@ -0,0 +1,41 @@
+package com.drilldex.drillbackend.notification;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One row per upload by a followed user. Followers' feeds are read from this table through
+ * user_followers instead of copying a Notification row to every follower.
+ */
+@Entity
+@Data
+@Table(name = "feed_activity",
+        indexes = @Index(name = "idx_feed_activity_actor_created", columnList = "actor_id, created_at"))
+public class FeedActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId; // user who uploaded
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RelatedType relatedType; // BEAT, PACK, KIT
+
+    private Long referenceId;
+
+    private String slug; // snapshot at upload time, so reads and pushes need no lookups
+
+    @Column(length = 128, nullable = false)
+    private String title;
+
+    @Column(length = 1024)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+}
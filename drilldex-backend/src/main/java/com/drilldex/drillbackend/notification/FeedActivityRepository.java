@@ -0,0 +1,25 @@
+package com.drilldex.drillbackend.notification;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface FeedActivityRepository extends JpaRepository<FeedActivity, Long> {
+
+    // Activities of everyone the user follows, newest first (fan-out on read)
+    @Query(value = """
+            SELECT a.* FROM feed_activity a
+            JOIN user_followers uf ON uf.user_id = a.actor_id
+            WHERE uf.follower_id = :userId
+            ORDER BY a.created_at DESC, a.id DESC
+            """,
+            countQuery = """
+            SELECT COUNT(*) FROM feed_activity a
+            JOIN user_followers uf ON uf.user_id = a.actor_id
+            WHERE uf.follower_id = :userId
+            """,
+            nativeQuery = true)
+    Page<FeedActivity> findFeedForUser(@Param("userId") Long userId, Pageable pageable);
+}
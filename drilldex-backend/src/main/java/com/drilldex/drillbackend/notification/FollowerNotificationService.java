@@ -1,54 +1,140 @@
 package com.drilldex.drillbackend.notification;
 
 import com.drilldex.drillbackend.kit.Kit;
+import com.drilldex.drillbackend.notification.dto.FeedActivityDto;
 import com.drilldex.drillbackend.pack.Pack;
+import com.drilldex.drillbackend.sse.SseEventBus;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.beat.Beat;
 import com.drilldex.drillbackend.user.UserRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Follower notifications for new uploads, fanned out on read.
+ *
+ * An upload writes a single {@link FeedActivity}; followers read it through user_followers via
+ * {@link #getFeed}. Followers with an open SSE stream get an "activity" event, pushed after the
+ * upload commits from a background thread in batches, so the upload itself costs one insert
+ * whatever the follower count. The activity goes out on the SSE bus and every node pushes to
+ * the followers connected to it.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class FollowerNotificationService {
 
-    private final NotificationService notificationService;
+    private static final String BUS_TOPIC = "feed-activity";
+
+    private final FeedActivityRepository feedActivityRepository;
     private final UserRepository userRepository;
+    private final SseNotificationBroadcaster broadcaster;
+    private final SseEventBus bus;
+    private final int pushBatchSize;
+
+    private final ExecutorService pushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "follower-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FollowerNotificationService(FeedActivityRepository feedActivityRepository,
+                                       UserRepository userRepository,
+                                       SseNotificationBroadcaster broadcaster,
+                                       SseEventBus bus,
+                                       @Value("${app.notifications.follower-push.batch-size:1000}") int pushBatchSize) {
+        this.feedActivityRepository = feedActivityRepository;
+        this.userRepository = userRepository;
+        this.broadcaster = broadcaster;
+        this.bus = bus;
+        this.pushBatchSize = Math.max(1, pushBatchSize);
+        bus.subscribe(BUS_TOPIC, FeedActivityDto.class, dto -> pushExecutor.execute(() -> pushToConnectedFollowers(dto)));
+    }
 
     @Transactional
     public void notifyFollowersOfNewBeat(User user, Beat beat) {
-        notifyFollowers(user, NotificationType.SYSTEM, RelatedType.BEAT, beat.getId(), "New beat from " + user.getDisplayName(), user.getDisplayName() + " uploaded a new beat: " + beat.getTitle());
+        notifyFollowers(user, RelatedType.BEAT, beat.getId(), beat.getSlug(), "New beat from " + user.getDisplayName(), user.getDisplayName() + " uploaded a new beat: " + beat.getTitle());
     }
 
     @Transactional
     public void notifyFollowersOfNewKit(User owner, Kit kit) {
-        notifyFollowers(owner, NotificationType.SYSTEM, RelatedType.KIT, kit.getId(), "New kit from " + owner.getDisplayName(), owner.getDisplayName() + " uploaded a new kit: " + kit.getTitle());
+        notifyFollowers(owner, RelatedType.KIT, kit.getId(), kit.getSlug(), "New kit from " + owner.getDisplayName(), owner.getDisplayName() + " uploaded a new kit: " + kit.getTitle());
     }
 
     @Transactional
     public void notifyFollowersOfNewPack(User artist, Pack pack) {
-        notifyFollowers(artist, NotificationType.SYSTEM, RelatedType.PACK, pack.getId(), "New pack from " + artist.getDisplayName(), artist.getDisplayName() + " uploaded a new pack: " + pack.getTitle());
-    }
-
-    private void notifyFollowers(User user, NotificationType type, RelatedType relatedType, Long referenceId, String title, String body) {
-        List<User> followers = userRepository.findFollowersByUserId(user.getId());
-        if (followers.isEmpty()) return;
-
-        for (User follower : followers) {
-            Notification n = notificationService.create(
-                    follower,
-                    type,
-                    relatedType,
-                    referenceId,
-                    title,
-                    body
-            );
-            notificationService.pushNotificationToUser(follower.getId(), n);
+        notifyFollowers(artist, RelatedType.PACK, pack.getId(), pack.getSlug(), "New pack from " + artist.getDisplayName(), artist.getDisplayName() + " uploaded a new pack: " + pack.getTitle());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<FeedActivityDto> getFeed(User user, Pageable pageable) {
+        return feedActivityRepository.findFeedForUser(user.getId(), pageable).map(FollowerNotificationService::toDto);
+    }
+
+    private void notifyFollowers(User user, RelatedType relatedType, Long referenceId, String slug, String title, String body) {
+        FeedActivity a = new FeedActivity();
+        a.setActorId(user.getId());
+        a.setRelatedType(relatedType);
+        a.setReferenceId(referenceId);
+        a.setSlug(slug);
+        a.setTitle(title);
+        a.setMessage(body);
+        FeedActivityDto dto = toDto(feedActivityRepository.save(a));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bus.publish(BUS_TOPIC, dto);
+                }
+            });
+        } else {
+            bus.publish(BUS_TOPIC, dto);
+        }
+    }
+
+    /** Intersects this node's connected users with the actor's followers, one IN-list query per batch. */
+    private void pushToConnectedFollowers(FeedActivityDto dto) {
+        try {
+            List<Long> connected = new ArrayList<>(broadcaster.connectedUserIds());
+            connected.remove(dto.getActorId());
+            for (int from = 0; from < connected.size(); from += pushBatchSize) {
+                List<Long> batch = connected.subList(from, Math.min(from + pushBatchSize, connected.size()));
+                for (Long followerId : userRepository.findFollowerIdsAmong(dto.getActorId(), batch)) {
+                    broadcaster.sendLocal(followerId, "activity", dto);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Follower push for activity {} failed", dto.getId(), e);
         }
     }
-}
\ No newline at end of file
+
+    private static FeedActivityDto toDto(FeedActivity a) {
+        return new FeedActivityDto(
+                a.getId(),
+                a.getActorId(),
+                a.getTitle(),
+                a.getMessage(),
+                a.getRelatedType(),
+                a.getReferenceId(),
+                a.getSlug(),
+                a.getCreatedAt()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pushExecutor.shutdown();
+    }
+}
@@ -26,6 +26,10 @@ public class Notification {
 
     private Long referenceId; // e.g., chatMessageId, beatId, promotionId
 
+    private Long actorId; // user who caused it (chat sender); key for CHAT aggregation
+
+    private Integer aggregateCount; // CHAT: number of messages folded into this notification
+
     @Column(length = 128, nullable = false)
     private String title;   // short headline like "Beat Rejected", "New Follower"
 
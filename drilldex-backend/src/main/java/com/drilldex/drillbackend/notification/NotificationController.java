@@ -2,19 +2,24 @@ package com.drilldex.drillbackend.notification;
 
 import com.drilldex.drillbackend.auth.CustomUserDetails;
 import com.drilldex.drillbackend.auth.JwtService;
+import com.drilldex.drillbackend.notification.dto.FeedActivityDto;
 import com.drilldex.drillbackend.notification.dto.NotificationDto;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/notifications")
 @RequiredArgsConstructor
@@ -24,6 +29,7 @@ public class NotificationController {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final SseNotificationBroadcaster broadcaster;
+    private final FollowerNotificationService followerNotificationService;
 
     private User resolveUser(CustomUserDetails principal, String authHeader) {
         if (principal != null) {
@@ -62,13 +68,48 @@ public class NotificationController {
         return notifications.map(service::toDto);
     }
 
+    /**
+     * Unread count for the bell badge, from the per-user counter.
+     * Changes are also pushed on the stream as "unread-count" events.
+     */
+    @GetMapping("/unread-count")
+    public Map<String, Long> getUnreadCount(
+            @AuthenticationPrincipal CustomUserDetails principal,
+            @RequestHeader(value = "Authorization", required = false) String authHeader
+    ) {
+        User user = resolveUser(principal, authHeader);
+        return Map.of("count", user == null ? 0L : service.getUnreadCount(user));
+    }
+
+    /** The caller's own stream; authenticated by access token or by a stream token from POST /api/sse/token. */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamNotifications(@RequestParam Long userId) {
+    public SseEmitter streamNotifications(@AuthenticationPrincipal CustomUserDetails principal,
+                                          @RequestParam(required = false) String token,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = principal != null ? principal.getId() : jwtService.parseStreamToken(token);
         if (userId == null) {
-            throw new IllegalArgumentException("Missing userId");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Stream token required");
         }
 
-        return broadcaster.subscribe(userId);
+        return broadcaster.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Uploads from followed users, newest first.
+     * Defaults: page=0, size=20
+     */
+    @GetMapping("/feed")
+    public Page<FeedActivityDto> getFeed(
+            @AuthenticationPrincipal CustomUserDetails principal,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        User user = resolveUser(principal, authHeader);
+        if (user == null) {
+            return Page.empty(PageRequest.of(page, size));
+        }
+        return followerNotificationService.getFeed(user, PageRequest.of(page, size));
     }
 
     /**
@@ -0,0 +1,9 @@
+package com.drilldex.drillbackend.notification;
+
+/** A notification to be inserted in bulk; recipients are referenced by id so no User entities are loaded. */
+public record NotificationDraft(Long recipientId,
+                                NotificationType type,
+                                RelatedType relatedType,
+                                Long referenceId,
+                                String title,
+                                String message) {}
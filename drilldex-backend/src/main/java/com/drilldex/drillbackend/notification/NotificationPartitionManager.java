@@ -0,0 +1,154 @@
+package com.drilldex.drillbackend.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitions of the notification table on created_at (opt-in).
+ *
+ * When enabled, the first start converts a plain notification table in one transaction: the old
+ * table is renamed, a partitioned copy with primary key (id, created_at) takes its name, rows are
+ * copied into monthly partitions and the old secondary indexes are recreated on the parent.
+ * The table is locked for the duration, so run the first start in a maintenance window.
+ *
+ * Afterwards partitions are created ahead of time; rows outside every month land in the default
+ * partition. Old partitions are dropped by {@link NotificationRetentionTask} once emptied.
+ */
+@Component
+@Slf4j
+public class NotificationPartitionManager {
+
+    private static final String TABLE = "notification";
+    private static final String LEGACY = "notification_legacy";
+    private static final Pattern PARTITION_NAME = Pattern.compile("notification_p(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int monthsAhead;
+
+    public NotificationPartitionManager(JdbcTemplate jdbc,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.notifications.partitioning.enabled:false}") boolean enabled,
+                                        @Value("${app.notifications.partitioning.months-ahead:2}") int monthsAhead) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) return;
+        try {
+            if (!isPartitioned()) convert();
+            ensurePartitions();
+        } catch (RuntimeException e) {
+            log.error("Notification partitioning failed; the table is left as it was", e);
+        }
+    }
+
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbc.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p
+                               JOIN pg_class c ON c.oid = p.partrelid
+                               WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace)
+                """, Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /** Creates the partitions for this month and the next months-ahead months. */
+    public void ensurePartitions() {
+        if (!isPartitioned()) return;
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) createPartition(now.plusMonths(i));
+    }
+
+    /**
+     * Drops monthly partitions that end at or before the cutoff and hold no rows.
+     * Returns the number of partitions dropped.
+     */
+    public int dropEmptyPartitionsBefore(Instant cutoff) {
+        if (!isPartitioned()) return 0;
+        List<String> partitions = jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ? AND p.relnamespace = current_schema()::regnamespace
+                """, String.class, TABLE);
+
+        int dropped = 0;
+        for (String name : partitions) {
+            Matcher m = PARTITION_NAME.matcher(name);
+            if (!m.matches()) continue; // default partition
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (startOf(month.plusMonths(1)).isAfter(cutoff)) continue;
+
+            Boolean empty = jdbc.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                jdbc.execute("DROP TABLE IF EXISTS " + name);
+                dropped++;
+                log.info("Dropped empty notification partition {}", name);
+            }
+        }
+        return dropped;
+    }
+
+    private void convert() {
+        long started = System.currentTimeMillis();
+        tx.executeWithoutResult(status -> {
+            jdbc.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            List<String> indexDefs = jdbc.queryForList("""
+                    SELECT indexdef FROM pg_indexes
+                    WHERE tablename = ? AND schemaname = current_schema()
+                      AND indexdef NOT LIKE 'CREATE UNIQUE%'
+                    """, String.class, TABLE);
+
+            jdbc.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY);
+            jdbc.execute("UPDATE " + LEGACY + " SET created_at = now() WHERE created_at IS NULL");
+            jdbc.execute("CREATE TABLE " + TABLE + " (LIKE " + LEGACY + " INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+            jdbc.execute("ALTER TABLE " + TABLE + " ALTER COLUMN created_at SET NOT NULL");
+            jdbc.execute("CREATE TABLE " + TABLE + "_default PARTITION OF " + TABLE + " DEFAULT");
+
+            Timestamp oldest = jdbc.queryForObject("SELECT min(created_at) FROM " + LEGACY, Timestamp.class);
+            YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+            YearMonth month = oldest != null ? YearMonth.from(oldest.toInstant().atZone(ZoneOffset.UTC)) : last;
+            for (; !month.isAfter(last); month = month.plusMonths(1)) createPartition(month);
+
+            int copied = jdbc.update("INSERT INTO " + TABLE + " SELECT * FROM " + LEGACY);
+            jdbc.execute("DROP TABLE " + LEGACY);
+
+            jdbc.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + TABLE + "_pkey PRIMARY KEY (id, created_at)");
+            for (String def : indexDefs) {
+                // indexdef was read before the rename; only the schema qualifier is dropped
+                jdbc.execute(def.replaceFirst(" ON (\\S+\\.)?" + TABLE + " ", " ON " + TABLE + " "));
+            }
+            log.info("Converted notification to a partitioned table: {} rows, {} indexes", copied, indexDefs.size());
+        });
+        log.info("Notification partitioning migration took {} ms", System.currentTimeMillis() - started);
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbc.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS notification_p%04d_%02d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), TABLE, startOf(month), startOf(month.plusMonths(1))));
+    }
+
+    private static Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
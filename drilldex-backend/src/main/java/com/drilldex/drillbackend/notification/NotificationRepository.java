@@ -5,9 +5,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Instant;
+
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
@@ -17,15 +20,20 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Fetch all notifications with pagination
     Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
 
-    /**
-     * Find the most recent unread notification of a specific type and reference for aggregation.
-     * Used for chat message aggregation.
-     */
-    Optional<Notification> findTopByRecipientAndTypeAndReferenceIdAndReadFalseOrderByCreatedAtDesc(
-            User recipient,
-            NotificationType type,
-            Long referenceId
-    );
+    // Same, bounded by created date so a partitioned table only scans the recent partitions
+    Page<Notification> findByRecipientAndReadFalseAndCreatedAtAfterOrderByCreatedAtDesc(User recipient, Instant since, Pageable pageable);
+
+    Page<Notification> findByRecipientAndCreatedAtAfterOrderByCreatedAtDesc(User recipient, Instant since, Pageable pageable);
+
+    // One UPDATE instead of loading and saving every unread row
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :readAt WHERE n.recipient.id = :recipientId AND n.read = false")
+    int markAllRead(@Param("recipientId") Long recipientId, @Param("readAt") Instant readAt);
+
+    // Only flips a row that is still unread, so of two concurrent callers just one sees 1
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :readAt WHERE n.id = :id AND n.recipient.id = :recipientId AND n.read = false")
+    int markRead(@Param("id") Long id, @Param("recipientId") Long recipientId, @Param("readAt") Instant readAt);
 
     @Transactional
     @Modifying
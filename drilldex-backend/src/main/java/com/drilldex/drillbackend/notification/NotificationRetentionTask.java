@@ -0,0 +1,118 @@
+package com.drilldex.drillbackend.notification;
+
+import com.drilldex.drillbackend.jobs.JobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the notification table small by moving old rows to notification_archive.
+ *
+ * Read notifications older than read-days are archived, and so is anything older than
+ * max-age-days (the window {@link NotificationService} queries). Rows move in chunks, each in its
+ * own transaction, and unread rows taken by the max age are subtracted from the unread counters.
+ * With partitioning enabled, monthly partitions past the max age are dropped once empty.
+ * Runs on one node at a time through {@link JobRunner}.
+ */
+@Component
+@Slf4j
+public class NotificationRetentionTask {
+
+    private static final String ARCHIVE_SQL = """
+            WITH moved AS (
+                DELETE FROM notification
+                WHERE id IN (
+                    SELECT id FROM notification
+                    WHERE created_at < ? AND (read = true OR created_at < ?)
+                    ORDER BY created_at
+                    LIMIT ?
+                )
+                RETURNING id, recipient_id, type, related_type, reference_id, actor_id, aggregate_count,
+                          title, message, read, read_at, created_at
+            )
+            INSERT INTO notification_archive (id, recipient_id, type, related_type, reference_id, actor_id,
+                                              aggregate_count, title, message, read, read_at, created_at)
+            SELECT id, recipient_id, type, related_type, reference_id, actor_id,
+                   aggregate_count, title, message, read, read_at, created_at
+            FROM moved
+            ON CONFLICT (id) DO NOTHING
+            RETURNING recipient_id, read
+            """;
+
+    private static final Duration LEASE = Duration.ofHours(2);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final UnreadCounterService unreadCounter;
+    private final NotificationPartitionManager partitions;
+    private final JobRunner jobRunner;
+    private final boolean enabled;
+    private final Duration readRetention;
+    private final Duration maxAge;
+    private final int chunkSize;
+
+    public NotificationRetentionTask(JdbcTemplate jdbc,
+                                     PlatformTransactionManager transactionManager,
+                                     UnreadCounterService unreadCounter,
+                                     NotificationPartitionManager partitions,
+                                     JobRunner jobRunner,
+                                     @Value("${app.notifications.retention.enabled:true}") boolean enabled,
+                                     @Value("${app.notifications.retention.read-days:90}") long readDays,
+                                     @Value("${app.notifications.retention.max-age-days:365}") long maxAgeDays,
+                                     @Value("${app.notifications.retention.chunk-size:5000}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.unreadCounter = unreadCounter;
+        this.partitions = partitions;
+        this.jobRunner = jobRunner;
+        this.enabled = enabled;
+        this.readRetention = Duration.ofDays(readDays);
+        this.maxAge = Duration.ofDays(Math.max(readDays, maxAgeDays));
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${app.notifications.retention.cron:0 40 3 * * *}")
+    public void run() {
+        if (!enabled) return;
+        jobRunner.run("notification-retention", LEASE, ctx -> {
+            partitions.ensurePartitions();
+            Instant now = Instant.now();
+            long archived = archive(now.minus(readRetention), now.minus(maxAge));
+            int dropped = partitions.dropEmptyPartitionsBefore(now.minus(maxAge));
+            log.info("Notification retention: archived {} rows, dropped {} partitions", archived, dropped);
+        });
+    }
+
+    /** Moves rows chunk by chunk until none are left; returns the number moved. */
+    public long archive(Instant readCutoff, Instant maxAgeCutoff) {
+        Timestamp read = Timestamp.from(readCutoff);
+        Timestamp any = Timestamp.from(maxAgeCutoff);
+        long total = 0;
+        while (true) {
+            Integer moved = tx.execute(status -> {
+                Map<Long, Integer> unreadRemoved = new HashMap<>();
+                int[] rows = {0};
+                jdbc.query(ARCHIVE_SQL, rs -> {
+                    rows[0]++;
+                    if (!rs.getBoolean(2)) unreadRemoved.merge(rs.getLong(1), -1, Integer::sum);
+                }, read, any, chunkSize);
+                unreadCounter.adjustAll(unreadRemoved);
+                return rows[0];
+            });
+            if (moved == null || moved == 0) break;
+            total += moved;
+            if (moved < chunkSize) break;
+        }
+        return total;
+    }
+}
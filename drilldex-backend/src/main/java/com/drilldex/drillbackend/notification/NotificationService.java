@@ -5,34 +5,53 @@ import com.drilldex.drillbackend.chat.ChatStorageService;
 import com.drilldex.drillbackend.kit.KitRepository;
 import com.drilldex.drillbackend.notification.dto.NotificationDto;
 import com.drilldex.drillbackend.pack.PackRepository;
+import com.drilldex.drillbackend.sse.SseMessage;
 import com.drilldex.drillbackend.user.User;
+import com.drilldex.drillbackend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.internal.util.stereotypes.Lazy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int PUSH_CHUNK = 500; // targets per bus message
+
+    // Reports whether the deleted row was unread; empty if another request deleted it first
+    private static final String DELETE_SQL = "DELETE FROM notification WHERE id = ? AND recipient_id = ? RETURNING read";
+
     private final NotificationRepository repository;
-    private final Map<Long, List<SseEmitter>> userEmitters = new ConcurrentHashMap<>();
     private final BeatRepository beatRepository;
     private final PackRepository packRepository;
     private final KitRepository kitRepository;
     private final SseNotificationBroadcaster broadcaster;
     private final ChatStorageService chatStorageService;
+    private final NotificationBulkWriter bulkWriter;
+    private final UserRepository userRepository;
+    private final UnreadCounterService unreadCounter;
+    private final JdbcTemplate jdbc;
+
+    // Older rows are archived by NotificationRetentionTask; the bound lets queries prune partitions
+    @Value("${app.notifications.retention.max-age-days:365}")
+    private long maxAgeDays;
 
     /**
      * Create a generic notification.
@@ -54,59 +73,85 @@ public class NotificationService {
         n.setMessage(message);
         n.setRead(false);
         n.setCreatedAt(Instant.now());
-        return repository.save(n);
+        Notification saved = repository.saveAndFlush(n);
+        unreadCounter.adjust(recipient.getId(), 1);
+        return saved;
     }
 
     /**
-     * Aggregate chat notifications: if there's already an unread notification from the same sender,
-     * update the message count instead of creating a new notification.
+     * Create many notifications with batched inserts. Recipients with an open stream get an SSE
+     * push once the surrounding transaction (if any) has committed. On a single node only locally
+     * connected recipients are pushed; with a cluster bus every recipient is sent, in chunks, and
+     * each node delivers the ones it holds.
      */
-    public Notification createOrAggregateChat(User recipient, User sender, Long chatMessageId, String latestMessage) {
-        Optional<Notification> existing = repository
-                .findTopByRecipientAndTypeAndReferenceIdAndReadFalseOrderByCreatedAtDesc(
-                        recipient, NotificationType.CHAT, chatMessageId
-                );
-
-        Notification n;
-
-        if (existing.isPresent()) {
-            n = existing.get();
-            // Aggregate message count
-            String msg = n.getMessage();
-            int count = 1;
-            if (msg != null && msg.matches(".*\\d+ messages")) {
-                count = Integer.parseInt(msg.replaceAll(".*?(\\d+) messages.*", "$1")) + 1;
+    public int createBulk(List<NotificationDraft> drafts) {
+        if (drafts.isEmpty()) return 0;
+        List<Long> ids = bulkWriter.write(drafts);
+
+        Map<Long, Integer> perRecipient = new HashMap<>();
+        for (NotificationDraft d : drafts) perRecipient.merge(d.recipientId(), 1, Integer::sum);
+        unreadCounter.adjustAll(perRecipient);
+
+        boolean cluster = broadcaster.isDistributed();
+        Set<Long> connected = cluster ? Set.of() : broadcaster.connectedUserIds();
+        Map<String, String> slugs = new HashMap<>();
+        List<SseMessage.Target> pushes = new ArrayList<>();
+        for (int i = 0; i < drafts.size(); i++) {
+            NotificationDraft d = drafts.get(i);
+            if (!cluster && !connected.contains(d.recipientId())) continue;
+
+            String slug = null;
+            Long profileId = null;
+            if (d.relatedType() != null) {
+                switch (d.relatedType()) {
+                    case BEAT, PACK, KIT -> slug = slugs.computeIfAbsent(d.relatedType() + ":" + d.referenceId(),
+                            k -> fetchSlugForItem(d.referenceId(), d.relatedType()));
+                    case USER -> profileId = d.referenceId();
+                    default -> {}
+                }
             }
-            n.setMessage(sender.getDisplayName() + " sent " + count + " messages");
-            n.setUpdatedAt(Instant.now());
-            n = repository.save(n);
-        } else {
-            // Create new notification
-            n = create(
-                    recipient,
-                    NotificationType.CHAT,
-                    RelatedType.CHAT,
-                    chatMessageId,
-                    "New message from " + sender.getDisplayName(),
-                    latestMessage
-            );
+            pushes.add(new SseMessage.Target(d.recipientId(), new NotificationDto(ids.get(i), d.title(), d.message(), false,
+                    d.relatedType(), d.referenceId(), slug, profileId, null)));
         }
 
-        // --- Push to recipient via SSE (real-time) ---
-        pushNotificationToUser(recipient.getId(), n);
-
-        return n;
-    }
-
-    public void registerEmitter(Long userId, SseEmitter emitter) {
-        userEmitters.computeIfAbsent(userId, k -> new ArrayList<>()).add(emitter);
+        if (!pushes.isEmpty()) {
+            Runnable send = () -> {
+                for (int from = 0; from < pushes.size(); from += PUSH_CHUNK) {
+                    broadcaster.sendTo("notification", pushes.subList(from, Math.min(from + PUSH_CHUNK, pushes.size())));
+                }
+            };
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        send.run();
+                    }
+                });
+            } else {
+                send.run();
+            }
+        }
+        return ids.size();
     }
 
-    public void removeEmitter(Long userId, SseEmitter emitter) {
-        List<SseEmitter> emitters = userEmitters.get(userId);
-        if (emitters != null) {
-            emitters.remove(emitter);
+    /**
+     * Sends a SYSTEM notification to every user who is not banned, in keyset-paged chunks.
+     */
+    public int announce(String title, String message, int chunkSize) {
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> recipientIds = userRepository.findActiveIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (recipientIds.isEmpty()) break;
+
+            List<NotificationDraft> drafts = new ArrayList<>(recipientIds.size());
+            for (Long id : recipientIds) {
+                drafts.add(new NotificationDraft(id, NotificationType.SYSTEM, RelatedType.SYSTEM, null, title, message));
+            }
+            total += createBulk(drafts);
+            afterId = recipientIds.get(recipientIds.size() - 1);
         }
+        return total;
     }
 
     @Async
@@ -169,55 +214,54 @@ public class NotificationService {
 
 
     /**
-     * Mark a single notification as read.
+     * Mark a single notification as read. The counter is only decremented by the request whose
+     * conditional UPDATE actually flipped the row (double clicks, two tabs, a racing delete).
      */
+    @Transactional
     public void markAsRead(Long notificationId, User recipient) {
+        if (repository.markRead(notificationId, recipient.getId(), Instant.now()) == 1) {
+            unreadCounter.adjust(recipient.getId(), -1);
+            return;
+        }
         Notification n = repository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
         if (!n.getRecipient().getId().equals(recipient.getId())) {
             throw new SecurityException("Not your notification");
         }
-        n.setRead(true);
-        n.setReadAt(Instant.now());
-        repository.save(n);
+        // Already read
     }
 
     /**
      * Mark all notifications as read for a user.
      */
+    @Transactional
     public void markAllAsRead(User recipient) {
-        int page = 0;
-        int size = 100; // batch size
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Notification> unreadPage;
-
-        do {
-            unreadPage = repository.findByRecipientAndReadFalseOrderByCreatedAtDesc(recipient, pageable);
-            List<Notification> unread = unreadPage.getContent();
-
-            for (Notification n : unread) {
-                n.setRead(true);
-                n.setReadAt(Instant.now());
-            }
+        repository.markAllRead(recipient.getId(), Instant.now());
+        unreadCounter.reset(recipient.getId());
+    }
 
-            repository.saveAll(unread);
-            page++;
-            pageable = PageRequest.of(page, size);
-        } while (!unreadPage.isLast());
+    /** Unread count for the bell badge; does not touch the notification table. */
+    public long getUnreadCount(User recipient) {
+        return unreadCounter.get(recipient.getId());
     }
 
     /**
      * Fetch unread notifications for a user with pagination.
      */
     public Page<Notification> getUnread(User recipient, Pageable pageable) {
-        return repository.findByRecipientAndReadFalseOrderByCreatedAtDesc(recipient, pageable);
+        return repository.findByRecipientAndReadFalseAndCreatedAtAfterOrderByCreatedAtDesc(recipient, queryWindowStart(), pageable);
     }
 
     /**
      * Fetch all notifications for a user with pagination.
      */
     public Page<Notification> getAll(User recipient, Pageable pageable) {
-        return repository.findByRecipientOrderByCreatedAtDesc(recipient, pageable);
+        return repository.findByRecipientAndCreatedAtAfterOrderByCreatedAtDesc(recipient, queryWindowStart(), pageable);
+    }
+
+    // One day of slack so rows the retention job has not reached yet stay visible
+    private Instant queryWindowStart() {
+        return Instant.now().minus(Duration.ofDays(maxAgeDays + 1));
     }
 
     public NotificationDto toDto(Notification n) {
@@ -258,12 +302,17 @@ public class NotificationService {
         );
     }
 
+    @Transactional
     public void delete(Long id, User user) {
-        Notification notif = repository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Notification not found"));
-        if (!notif.getRecipient().equals(user)) {
+        List<Boolean> deleted = jdbc.queryForList(DELETE_SQL, Boolean.class, id, user.getId());
+        if (deleted.isEmpty()) {
+            if (!repository.existsById(id)) {
+                throw new IllegalArgumentException("Notification not found");
+            }
             throw new IllegalArgumentException("Cannot delete notification of another user");
         }
-        repository.delete(notif);
+        if (!deleted.get(0)) {
+            unreadCounter.adjust(user.getId(), -1);
+        }
     }
 }
\ No newline at end of file
@@ -1,59 +1,55 @@
 package com.drilldex.drillbackend.notification;
 
+import com.drilldex.drillbackend.sse.SseChannel;
+import com.drilldex.drillbackend.sse.SseDispatcher;
+import com.drilldex.drillbackend.sse.SseHub;
+import com.drilldex.drillbackend.sse.SseMessage;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
 
+/** Notification facade over {@link SseHub}; sends are routed to whichever node holds the stream. */
 @Component
+@RequiredArgsConstructor
 public class SseNotificationBroadcaster {
 
-    private static final long TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    private final SseHub hub;
+    private final SseDispatcher dispatcher;
 
-    // userId -> list of emitters (support multiple tabs/devices)
-    private final Map<Long, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return hub.subscribe(SseChannel.NOTIFICATION, userId, lastEventId);
+    }
 
-    public SseEmitter subscribe(Long userId) {
-        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
-        emitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+    public void sendTo(Long userId, Object payload) {
+        // Send with a named event so frontend can listen specifically
+        sendTo(userId, "notification", payload);
+    }
 
-        emitter.onCompletion(() -> remove(userId, emitter));
-        emitter.onTimeout(() -> remove(userId, emitter));
-        emitter.onError(e -> remove(userId, emitter));
+    public void sendTo(Long userId, String eventName, Object payload) {
+        dispatcher.send(SseChannel.NOTIFICATION, userId, eventName, payload);
+    }
 
-        // Optional initial event so client knows it's alive
-        try {
-            emitter.send(SseEmitter.event().name("init").data("{\"ok\":true}"));
-        } catch (IOException ignored) {}
+    /** Delivers to this node's streams only, for callers that already routed per node. */
+    public void sendLocal(Long userId, String eventName, Object payload) {
+        hub.publish(SseChannel.NOTIFICATION, userId, eventName, payload);
+    }
 
-        return emitter;
+    public void sendTo(String eventName, List<SseMessage.Target> targets) {
+        dispatcher.send(SseChannel.NOTIFICATION, eventName, targets);
     }
 
-    public void sendTo(Long userId, Object payload) {
-        List<SseEmitter> list = emitters.get(userId);
-        if (list == null || list.isEmpty()) return;
-
-        for (SseEmitter em : new CopyOnWriteArrayList<>(list)) {
-            try {
-                // Send with a named event so frontend can listen specifically
-                em.send(SseEmitter.event().name("notification").data(payload));
-            } catch (IOException e) {
-                em.complete();
-                remove(userId, em);
-            }
-        }
+    /**
+     * Users with at least one open stream on this node. With a distributed bus other nodes hold
+     * streams too; see {@link #isDistributed()}.
+     */
+    public Set<Long> connectedUserIds() {
+        return hub.connectedUserIds(SseChannel.NOTIFICATION);
     }
 
-    private void remove(Long userId, SseEmitter emitter) {
-        List<SseEmitter> list = emitters.get(userId);
-        if (list != null) {
-            list.remove(emitter);
-            if (list.isEmpty()) emitters.remove(userId);
-        }
+    public boolean isDistributed() {
+        return dispatcher.isDistributed();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.drilldex.drillbackend.notification;
+
+import com.drilldex.drillbackend.jobs.JobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Low-frequency safety net for notification_unread_counter: recounts every counter against the
+ * notification table and fixes the ones that drifted, so a lost decrement or a clamped
+ * underflow does not stick to a badge forever. Chunks are keyed by user id, each in its own
+ * transaction and checkpointed, on one node at a time through {@link JobRunner}.
+ */
+@Component
+@Slf4j
+public class UnreadCounterReconcileTask {
+
+    private static final Duration LEASE = Duration.ofHours(1);
+
+    private final UnreadCounterService unreadCounter;
+    private final TransactionTemplate tx;
+    private final JobRunner jobRunner;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public UnreadCounterReconcileTask(UnreadCounterService unreadCounter,
+                                      PlatformTransactionManager transactionManager,
+                                      JobRunner jobRunner,
+                                      @Value("${app.notifications.unread.reconcile.enabled:true}") boolean enabled,
+                                      @Value("${app.notifications.unread.reconcile.chunk-size:1000}") int chunkSize) {
+        this.unreadCounter = unreadCounter;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.jobRunner = jobRunner;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${app.notifications.unread.reconcile.cron:0 10 5 * * *}")
+    public void run() {
+        if (!enabled) return;
+        jobRunner.run("unread-counter-reconcile", LEASE, ctx -> {
+            long after = ctx.resumeFromId(0);
+            long scanned = 0;
+            long corrected = 0;
+            while (true) {
+                long from = after;
+                UnreadCounterService.ReconcileChunk chunk = tx.execute(s -> unreadCounter.reconcileChunk(from, chunkSize));
+                if (chunk == null || chunk.scanned() == 0) break;
+                scanned += chunk.scanned();
+                corrected += chunk.corrected();
+                after = chunk.lastUserId();
+                ctx.checkpoint(after);
+                if (chunk.scanned() < chunkSize) break;
+            }
+            log.info("Unread counter reconcile: checked {} users, corrected {}", scanned, corrected);
+        });
+    }
+}
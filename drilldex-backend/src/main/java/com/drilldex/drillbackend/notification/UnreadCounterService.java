@@ -0,0 +1,253 @@
+package com.drilldex.drillbackend.notification;
+
+import com.drilldex.drillbackend.sse.SseEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification count, so the bell badge never counts the notification table.
+ *
+ * The count lives in notification_unread_counter and is adjusted with a single-row UPDATE in the
+ * same transaction as the notification change; callers must adjust after their change is flushed.
+ * A user without a row is seeded from a COUNT once. Reads go through a small in-memory cache.
+ *
+ * After commit every change is published on the SSE bus: each node refreshes its cache entry and
+ * pushes an "unread-count" event to the user's streams it holds.
+ *
+ * Drift from any path that adjusts without changing a row (or from the GREATEST(0, ...) clamp) is
+ * healed by {@link UnreadCounterReconcileTask}, which recounts the counters chunk by chunk.
+ */
+@Service
+@Slf4j
+public class UnreadCounterService {
+
+    private static final String BUS_TOPIC = "unread-count";
+    private static final String EVENT = "unread-count";
+    private static final int PUBLISH_CHUNK = 500; // changes per bus message
+
+    private static final String UPDATE_SQL = """
+            UPDATE notification_unread_counter
+            SET unread = GREATEST(0, unread + ?)
+            WHERE user_id = ?
+            RETURNING unread
+            """;
+
+    // Only for users without a row; the COUNT already includes the caller's change
+    private static final String SEED_SQL = """
+            INSERT INTO notification_unread_counter (user_id, unread)
+            VALUES (?, (SELECT count(*) FROM notification WHERE recipient_id = ? AND read = false))
+            ON CONFLICT (user_id) DO UPDATE SET unread = notification_unread_counter.unread
+            RETURNING unread
+            """;
+
+    private static final String RESET_SQL = """
+            INSERT INTO notification_unread_counter (user_id, unread) VALUES (?, 0)
+            ON CONFLICT (user_id) DO UPDATE SET unread = 0
+            """;
+
+    // Locks a chunk of counters; rows a writer holds right now are skipped and checked next run
+    private static final String LOCK_CHUNK_SQL = """
+            SELECT user_id FROM notification_unread_counter
+            WHERE user_id > ?
+            ORDER BY user_id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Runs after LOCK_CHUNK_SQL in the same transaction. Writers change the notification rows before
+    // their counter, so a change committed before the lock is counted here, and one still in flight
+    // is applied on top of the corrected value once the lock is released.
+    private static final String RECONCILE_SQL = """
+            UPDATE notification_unread_counter c
+            SET unread = a.actual
+            FROM (
+                SELECT u.user_id,
+                       (SELECT count(*) FROM notification n WHERE n.recipient_id = u.user_id AND n.read = false) AS actual
+                FROM unnest(?::bigint[]) AS u(user_id)
+            ) a
+            WHERE c.user_id = a.user_id AND c.unread <> a.actual
+            RETURNING c.user_id, c.unread
+            """;
+
+    /** A changed count; count is null when the publisher did not read it back (bulk adjustments). */
+    public record Change(Long userId, Long count) {}
+
+    public record ChangeSet(List<Change> changes) {}
+
+    /** Outcome of one reconcile chunk; scanned below the limit means the table is done. */
+    public record ReconcileChunk(long lastUserId, int scanned, int corrected) {}
+
+    private record Cached(long count, long expiresAt) {}
+
+    private final JdbcTemplate jdbc;
+    private final SseNotificationBroadcaster broadcaster;
+    private final SseEventBus bus;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public UnreadCounterService(JdbcTemplate jdbc,
+                                SseNotificationBroadcaster broadcaster,
+                                SseEventBus bus,
+                                @Value("${app.notifications.unread.cache-ttl-seconds:300}") long ttlSeconds,
+                                @Value("${app.notifications.unread.cache-max-entries:100000}") int maxEntries) {
+        this.jdbc = jdbc;
+        this.broadcaster = broadcaster;
+        this.bus = bus;
+        this.ttlMs = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        bus.subscribe(BUS_TOPIC, ChangeSet.class, this::onChanges);
+    }
+
+    /** Current unread count; served from memory when cached. */
+    public long get(Long userId) {
+        Cached c = cache.get(userId);
+        long now = System.currentTimeMillis();
+        if (c != null && c.expiresAt() > now) return c.count();
+
+        long gen = generation.get();
+        List<Long> rows = jdbc.queryForList(
+                "SELECT unread FROM notification_unread_counter WHERE user_id = ?", Long.class, userId);
+        long count = rows.isEmpty() ? seed(userId) : rows.get(0);
+        if (generation.get() == gen) put(userId, count, now);
+        return count;
+    }
+
+    /** Adds delta (negative to decrement) to the user's count. */
+    public void adjust(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        List<Long> updated = jdbc.queryForList(UPDATE_SQL, Long.class, delta, userId);
+        long count = updated.isEmpty() ? seed(userId) : updated.get(0);
+        afterCommit(List.of(new Change(userId, count)));
+    }
+
+    /** Applies many deltas with one JDBC batch; the new counts are read back lazily. */
+    public void adjustAll(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) return;
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(deltas.entrySet());
+        int[] updated = jdbc.batchUpdate("UPDATE notification_unread_counter SET unread = GREATEST(0, unread + ?) WHERE user_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, entries.get(i).getValue());
+                        ps.setLong(2, entries.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+
+        List<Change> changes = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Long userId = entries.get(i).getKey();
+            if (updated[i] == 0) seed(userId);
+            changes.add(new Change(userId, null));
+        }
+        afterCommit(changes);
+    }
+
+    /** Sets the user's count to zero (mark all as read). */
+    public void reset(Long userId) {
+        jdbc.update(RESET_SQL, userId);
+        afterCommit(List.of(new Change(userId, 0L)));
+    }
+
+    /**
+     * Recounts the counters of up to limit users after afterUserId and fixes the ones that drifted.
+     * Must run inside a transaction; the corrected counts are published after it commits.
+     */
+    public ReconcileChunk reconcileChunk(long afterUserId, int limit) {
+        List<Long> locked = jdbc.queryForList(LOCK_CHUNK_SQL, Long.class, afterUserId, limit);
+        if (locked.isEmpty()) return new ReconcileChunk(afterUserId, 0, 0);
+
+        List<Change> corrected = new ArrayList<>();
+        jdbc.query(RECONCILE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", locked.toArray())),
+                rs -> {
+                    corrected.add(new Change(rs.getLong(1), rs.getLong(2)));
+                });
+        if (!corrected.isEmpty()) {
+            log.info("Unread counters corrected for {} users", corrected.size());
+            afterCommit(corrected);
+        }
+        return new ReconcileChunk(locked.get(locked.size() - 1), locked.size(), corrected.size());
+    }
+
+    private long seed(Long userId) {
+        return jdbc.queryForObject(SEED_SQL, Long.class, userId, userId);
+    }
+
+    private void afterCommit(List<Change> changes) {
+        Runnable publish = () -> {
+            for (int from = 0; from < changes.size(); from += PUBLISH_CHUNK) {
+                bus.publish(BUS_TOPIC, new ChangeSet(changes.subList(from, Math.min(from + PUBLISH_CHUNK, changes.size()))));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    /** Runs on every node: refresh the cache and push to the streams held here. */
+    private void onChanges(ChangeSet set) {
+        generation.incrementAndGet();
+        long now = System.currentTimeMillis();
+        Set<Long> connected = broadcaster.connectedUserIds();
+        List<Long> unknown = new ArrayList<>();
+
+        for (Change c : set.changes()) {
+            if (c.count() != null) {
+                put(c.userId(), c.count(), now);
+                if (connected.contains(c.userId())) push(c.userId(), c.count());
+            } else {
+                cache.remove(c.userId());
+                if (connected.contains(c.userId())) unknown.add(c.userId());
+            }
+        }
+
+        if (unknown.isEmpty()) return;
+        try {
+            jdbc.query("SELECT user_id, unread FROM notification_unread_counter WHERE user_id = ANY(?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", unknown.toArray())),
+                    rs -> {
+                        push(rs.getLong(1), rs.getLong(2));
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Could not push unread counts to {} users", unknown.size(), e);
+        }
+    }
+
+    private void push(Long userId, long count) {
+        broadcaster.sendLocal(userId, EVENT, Map.of("count", count));
+    }
+
+    private void put(Long userId, long count, long now) {
+        // Crude bound: the cache only saves reads, so dropping it all is always safe
+        if (cache.size() >= maxEntries && !cache.containsKey(userId)) cache.clear();
+        cache.put(userId, new Cached(count, now + ttlMs));
+    }
+}
@@ -0,0 +1,22 @@
+package com.drilldex.drillbackend.notification.dto;
+
+import com.drilldex.drillbackend.notification.RelatedType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor // deserialized from the SSE bus
+public class FeedActivityDto {
+    private Long id;
+    private Long actorId;
+    private String title;
+    private String message;
+    private RelatedType relatedType;
+    private Long referenceId;
+    private String slug;
+    private Instant createdAt;
+}
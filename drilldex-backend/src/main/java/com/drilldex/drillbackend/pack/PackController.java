@@ -12,6 +12,8 @@ import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.shared.SlugUtil;
 import com.drilldex.drillbackend.user.UserRepository;
 import com.drilldex.drillbackend.util.AudioUtils;
+import com.drilldex.drillbackend.ratelimit.PlayDeduplicator;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import com.drilldex.drillbackend.shared.SlugUtil;
 import org.springframework.data.domain.Page;
@@ -53,6 +55,7 @@ public class PackController {
     private final PackRepository packRepository;
     private final PackRepository repo;
     private final UserRepository userRepository;
+    private final PlayDeduplicator playDeduplicator;
     private final PurchaseRepository purchaseRepository;
     private final NotificationService notificationService;
     private final FollowerNotificationService followerNotificationService;
@@ -278,8 +281,11 @@ public class PackController {
 
     @PostMapping("/{id}/play")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void markPlay(@PathVariable Long id) {
-        packService.incrementPlayCount(id);
+    public void markPlay(@PathVariable Long id, HttpServletRequest request) {
+        // Repeat plays by the same listener within the window are accepted but not counted
+        if (playDeduplicator.shouldCount("pack", id, request)) {
+            packService.incrementPlayCount(id);
+        }
     }
 
     @GetMapping("/{id}/preview-playlist")
@@ -861,7 +867,7 @@ public class PackController {
         }
 
         List<Pack> rows = resultPage.getContent();
-        Long userId = (principal != null) ? principal.getUser().getId() : null;
+        Long userId = (principal != null) ? principal.getId() : null;
         List<Long> ids = rows.stream().map(Pack::getId).toList();
 
         Set<Long> likedIds = (userId != null && !ids.isEmpty())
@@ -939,7 +945,7 @@ public class PackController {
         if (auth == null || !auth.isAuthenticated()) return null;
         Object p = auth.getPrincipal();
         if (p instanceof com.drilldex.drillbackend.auth.CustomUserDetails cud) {
-            return cud.getUser().getId();
+            return cud.getId();
         }
         if (p instanceof com.drilldex.drillbackend.user.User u) {
             return u.getId();
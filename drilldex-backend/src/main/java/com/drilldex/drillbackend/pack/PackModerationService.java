@@ -5,6 +5,7 @@ import com.drilldex.drillbackend.beat.Beat;
 import com.drilldex.drillbackend.inbox.InboxMessageService;
 import com.drilldex.drillbackend.pack.dto.AdminPackDetailDto;
 import com.drilldex.drillbackend.pack.dto.AdminPackRowDto;
+import com.drilldex.drillbackend.storage.StorageService;
 import com.drilldex.drillbackend.user.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -12,8 +13,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.*;
@@ -26,6 +25,7 @@ public class PackModerationService {
 
     private final PackRepository packRepository;
     private final InboxMessageService inboxMessageService;
+    private final StorageService storage;
 
     public List<AdminPackRowDto> listPending() {
         return packRepository.findByApprovedFalseAndRejectedFalseOrderByCreatedAtDesc()
@@ -118,12 +118,11 @@ public class PackModerationService {
             // log.warn("Failed to send rejection inbox message for pack {}", id, ex);
         }
 
-        // Delete cover if it looks like a local upload path (keep your existing helper)
+        // Delete the cover through storage, which knows the upload root and its layout
         String cover = p.getCoverImagePath();
         if (StringUtils.hasText(cover) && isRelativeUploadPath(cover)) {
             try {
-                Path uploadsRoot = Path.of("uploads"); // adjust if your uploads root differs
-                Files.deleteIfExists(uploadsRoot.resolve(cover));
+                storage.delete(cover);
             } catch (Exception ignored) {}
         }
 
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -301,8 +302,12 @@ public interface PackRepository extends JpaRepository<Pack, Long> {
 """)
     List<Pack> findGlobalPopularSince(@Param("cutoff") Instant cutoff, Pageable pageable);
 
+    /** Packs with their licenses and owner, for pricing a cart in one query. */
+    @EntityGraph(attributePaths = {"licenses", "owner"})
+    @Query("SELECT p FROM Pack p WHERE p.id IN :ids")
+    List<Pack> findAllWithLicensesByIdIn(@Param("ids") Collection<Long> ids);
 
-
-
-
+    /** (id, title) pairs for the given ids, without loading the entities. */
+    @Query("SELECT p.id, p.title FROM Pack p WHERE p.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
 }
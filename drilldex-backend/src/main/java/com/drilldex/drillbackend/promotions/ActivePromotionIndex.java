@@ -0,0 +1,199 @@
+package com.drilldex.drillbackend.promotions;
+
+import com.drilldex.drillbackend.sse.SseEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Running promotions held in memory, so featured checks and featured pages never hit the
+ * promotion table.
+ *
+ * The snapshot holds, per target type, the running promotions ordered by tier then start date
+ * (newest first), and per target id its promotion intervals. Lookups compare against the clock,
+ * so a promotion drops out at its end even before the next reload.
+ *
+ * Writers call {@link #changed()} after they start, cancel or expire promotions; the reload runs
+ * on every node after commit (through the SSE bus) and on a fixed delay as a safety net.
+ * Entities in the snapshot are detached: only their columns and the owner id may be read.
+ */
+@Component
+@Slf4j
+public class ActivePromotionIndex {
+
+    private static final String BUS_TOPIC = "promotions-changed";
+
+    private static final Comparator<Promotion> FEATURED_ORDER = Comparator
+            .comparingInt((Promotion p) -> tierRank(p.getTier())).reversed()
+            .thenComparing(Promotion::getStartDate, Comparator.reverseOrder());
+
+    private record Snapshot(Map<Promotion.TargetType, List<Promotion>> ordered,
+                            Map<Promotion.TargetType, Map<Long, List<Promotion>>> byTarget) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+
+    private final PromotionRepository repo;
+    private final SseEventBus bus;
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "promotion-index");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ActivePromotionIndex(PromotionRepository repo, SseEventBus bus) {
+        this.repo = repo;
+        this.bus = bus;
+        bus.subscribe(BUS_TOPIC, String.class, reason -> scheduleReload());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduleReload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.index.refresh-ms:60000}",
+               initialDelayString = "${app.promotions.index.refresh-ms:60000}")
+    public void periodicReload() {
+        scheduleReload();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    /** Signals that promotions were started, canceled or expired; every node reloads after commit. */
+    public void changed() {
+        Runnable publish = () -> bus.publish(BUS_TOPIC, "changed");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    /** True when the target has a promotion running now. */
+    public boolean isFeatured(Promotion.TargetType type, Long targetId) {
+        return current(type, targetId, Instant.now()) != null;
+    }
+
+    /** The latest running promotion per target, for the given targets only. */
+    public Map<Long, Promotion> activeByTarget(Promotion.TargetType type, Collection<Long> targetIds) {
+        Map<Long, List<Promotion>> byTarget = snapshot.byTarget().getOrDefault(type, Map.of());
+        if (byTarget.isEmpty() || targetIds.isEmpty()) return Map.of();
+        Instant now = Instant.now();
+        Map<Long, Promotion> out = new HashMap<>();
+        for (Long id : targetIds) {
+            Promotion p = current(type, id, now);
+            if (p != null) out.put(id, p);
+        }
+        return out;
+    }
+
+    /** Running promotions in featured order (tier, then newest first). */
+    public List<Promotion> active(Promotion.TargetType type) {
+        Instant now = Instant.now();
+        return snapshot.ordered().getOrDefault(type, List.of()).stream()
+                .filter(p -> isRunning(p, now))
+                .toList();
+    }
+
+    /** One page of {@link #active}. */
+    public List<Promotion> slice(Promotion.TargetType type, int offset, int limit) {
+        Instant now = Instant.now();
+        return snapshot.ordered().getOrDefault(type, List.of()).stream()
+                .filter(p -> isRunning(p, now))
+                .skip(Math.max(0, offset))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    public int count(Promotion.TargetType type) {
+        Instant now = Instant.now();
+        return (int) snapshot.ordered().getOrDefault(type, List.of()).stream()
+                .filter(p -> isRunning(p, now))
+                .count();
+    }
+
+    /** Reloads the running promotions now, on the calling thread. */
+    public void reload() {
+        Instant now = Instant.now();
+        Map<Promotion.TargetType, List<Promotion>> ordered = new EnumMap<>(Promotion.TargetType.class);
+        Map<Promotion.TargetType, Map<Long, List<Promotion>>> byTarget = new EnumMap<>(Promotion.TargetType.class);
+
+        for (Promotion p : repo.findRunning()) {
+            if (p.getTargetType() == null || p.getTargetId() == null || !endOf(p).isAfter(now)) continue;
+            ordered.computeIfAbsent(p.getTargetType(), t -> new ArrayList<>()).add(p);
+            byTarget.computeIfAbsent(p.getTargetType(), t -> new HashMap<>())
+                    .computeIfAbsent(p.getTargetId(), id -> new ArrayList<>()).add(p);
+        }
+        ordered.values().forEach(list -> list.sort(FEATURED_ORDER));
+        // Newest first, so the first running interval is the one to show
+        byTarget.values().forEach(m -> m.values().forEach(list -> list.sort(
+                Comparator.comparing(Promotion::getStartDate, Comparator.reverseOrder()))));
+
+        snapshot = new Snapshot(ordered, byTarget);
+        log.debug("Promotion index reloaded: {}", ordered.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue().size()).toList());
+    }
+
+    private void scheduleReload() {
+        // Bursts of changes collapse into one reload
+        if (!reloadPending.compareAndSet(false, true)) return;
+        reloader.execute(() -> {
+            reloadPending.set(false);
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Promotion index reload failed; keeping the previous snapshot", e);
+            }
+        });
+    }
+
+    private Promotion current(Promotion.TargetType type, Long targetId, Instant now) {
+        if (targetId == null) return null;
+        List<Promotion> intervals = snapshot.byTarget().getOrDefault(type, Map.of()).get(targetId);
+        if (intervals == null) return null;
+        for (Promotion p : intervals) {
+            if (isRunning(p, now)) return p;
+        }
+        return null;
+    }
+
+    private static boolean isRunning(Promotion p, Instant now) {
+        return !p.getStartDate().isAfter(now) && endOf(p).isAfter(now);
+    }
+
+    private static Instant endOf(Promotion p) {
+        return p.getStartDate().plus(Duration.ofDays(p.getDurationDays()));
+    }
+
+    private static int tierRank(String tier) {
+        if (tier == null) return 1;
+        return switch (tier.toLowerCase()) {
+            case "spotlight" -> 3;
+            case "premium" -> 2;
+            default -> 1;
+        };
+    }
+}
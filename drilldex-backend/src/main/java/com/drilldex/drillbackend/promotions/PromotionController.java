@@ -25,21 +25,21 @@ public class PromotionController {
     private final BeatRepository beatRepository;
     private final PackRepository packRepository;
     private final KitRepository kitRepository;
-
+    private final ActivePromotionIndex activePromotionIndex;
 
     @org.springframework.beans.factory.annotation.Value("${app.storage.local.web-base:/uploads}")
     private String webBase;
 
     public PromotionController(PromotionService promotionService, PromotionRepository promotionRepository, CurrentUserService currentUserService
-            , BeatRepository beatRepository, PackRepository packRepository, KitRepository kitRepository, NotificationService notificationService) {
+            , BeatRepository beatRepository, PackRepository packRepository, KitRepository kitRepository, NotificationService notificationService,
+            ActivePromotionIndex activePromotionIndex) {
         this.promotionService = promotionService;
         this.promotionRepository = promotionRepository;
         this.currentUserService = currentUserService;
         this.beatRepository = beatRepository;
         this.packRepository = packRepository;
         this.kitRepository = kitRepository;
-
-
+        this.activePromotionIndex = activePromotionIndex;
     }
 
 
@@ -133,6 +133,7 @@ public class PromotionController {
 
         promo.setStatus("canceled");
         promotionRepository.save(promo);
+        activePromotionIndex.changed();
         return ResponseEntity.ok().build();
     }
 }
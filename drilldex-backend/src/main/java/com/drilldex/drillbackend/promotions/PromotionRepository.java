@@ -21,13 +21,9 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
                 .toList();
     }
 
-
-
-    default List<Promotion> findAllActive() {
-        return findAll().stream()
-                .filter(Promotion::isActive)
-                .toList();
-    }
+    /** Promotions not yet expired or canceled; read through the partial index on running rows. */
+    @Query("SELECT p FROM Promotion p WHERE p.status = 'active' AND p.startDate IS NOT NULL")
+    List<Promotion> findRunning();
 
     @Query(value = """
     SELECT p.target_id FROM promotion p
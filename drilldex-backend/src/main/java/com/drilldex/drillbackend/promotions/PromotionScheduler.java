@@ -1,41 +1,67 @@
 package com.drilldex.drillbackend.promotions;
 
-import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.jobs.JobRunner;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PromotionScheduler {
 
-    private final PromotionRepository promotionRepository;
-    private final PurchaseRepository purchaseRepository;
-    private final PromotionService promotionService; // contains handleUnsoldPromotion
+    private static final Duration EXPIRY_LEASE = Duration.ofMinutes(10);
+    private static final Duration UNSOLD_LEASE = Duration.ofMinutes(30);
 
-    // Runs every hour
-    @Scheduled(cron = "0 0 * * * *")
-    public void checkForUnsoldPromotions() {
-        List<Promotion> activePromotions = promotionRepository.findByStatus("active");
+    private final PromotionService promotionService;
+    private final JobRunner jobRunner;
 
-        for (Promotion promo : activePromotions) {
-            Instant startDate = promo.getStartDate();
-            Instant endDate = startDate.plus(Duration.ofDays(promo.getDurationDays()));
+    // Ended promotions older than this are completed without a rerun (e.g. a backlog expired after downtime)
+    @Value("${app.promotions.unsold.lookback-hours:48}")
+    private long unsoldLookbackHours;
 
-            boolean hasSales = purchaseRepository.existsByPromotionTarget(
-                    promo.getTargetType().name(), // String now
-                    promo.getTargetId(),
-                    startDate,
-                    endDate
-            );
+    @Value("${app.promotions.unsold.batch-size:200}")
+    private int unsoldBatchSize;
+
+    // Runs every hour, on one node
+    @Scheduled(cron = "0 0 * * * *")
+    public void checkForExpiredPromotions() {
+        jobRunner.run("promotion-expiry", EXPIRY_LEASE, ctx -> promotionService.checkForExpiredPromotions());
+    }
+
+    // Runs every hour after the expiry job has marked the promotions that ended, on one node;
+    // each batch commits on its own and is checkpointed
+    @Scheduled(cron = "0 5 * * * *")
+    public void checkForUnsoldPromotions() {
+        jobRunner.run("promotion-unsold", UNSOLD_LEASE, ctx -> {
+            Instant endedAfter = Instant.now().minus(Duration.ofHours(unsoldLookbackHours));
+            int stale = 0;
+            int completed;
+            do {
+                completed = promotionService.completeStaleExpired(endedAfter, unsoldBatchSize);
+                stale += completed;
+            } while (completed == unsoldBatchSize);
+            if (stale > 0) log.info("Completed {} expired promotions that ended before the lookback window", stale);
 
-            if (!hasSales) {
-                promotionService.handleUnsoldPromotion(promo.getOwner(), promo);
+            long lastId = ctx.resumeFromId(0);
+            int evaluated = 0;
+            int rerun = 0;
+            while (true) {
+                PromotionService.UnsoldBatch batch =
+                        promotionService.processEndedPromotions(lastId, endedAfter, unsoldBatchSize);
+                if (batch.evaluated() == 0) break;
+                evaluated += batch.evaluated();
+                rerun += batch.rerun();
+                lastId = batch.lastId();
+                ctx.checkpoint(lastId);
+                if (batch.evaluated() < unsoldBatchSize) break;
             }
-        }
+            if (evaluated > 0) log.info("Settled {} ended promotions, reran {} unsold", evaluated, rerun);
+        });
     }
-}
\ No newline at end of file
+}
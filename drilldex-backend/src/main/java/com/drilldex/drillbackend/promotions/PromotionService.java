@@ -2,26 +2,37 @@ package com.drilldex.drillbackend.promotions;
 
 import com.drilldex.drillbackend.beat.BeatRepository;
 import com.drilldex.drillbackend.kit.KitRepository;
-import com.drilldex.drillbackend.notification.Notification;
+import com.drilldex.drillbackend.notification.NotificationDraft;
 import com.drilldex.drillbackend.notification.NotificationService;
 import com.drilldex.drillbackend.notification.NotificationType;
 import com.drilldex.drillbackend.notification.RelatedType;
 import com.drilldex.drillbackend.pack.PackRepository;
+import com.drilldex.drillbackend.purchase.Purchase;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.drilldex.drillbackend.promotions.PromotionRequest;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
+@Slf4j
 public class PromotionService {
 
     private final PromotionRepository repo;
@@ -31,15 +42,19 @@ public class PromotionService {
     private final PackRepository packRepository;
     private final KitRepository kitRepository;
     private final UserRepository userRepository;
-
-
+    private final JdbcTemplate jdbc;
+    private final ActivePromotionIndex activeIndex;
+    private final Duration expiryNotifyWindow;
 
 
     public PromotionService(PromotionRepository repo, UserRepository userRepo, NotificationService notificationService,
                             BeatRepository beatRepository,
                             PackRepository packRepository,
                             KitRepository kitRepository,
-                            UserRepository userRepository) {
+                            UserRepository userRepository,
+                            JdbcTemplate jdbc,
+                            ActivePromotionIndex activeIndex,
+                            @Value("${app.promotions.expiry.notify-within-hours:24}") long notifyWithinHours) {
         this.repo = repo;
         this.userRepo = userRepo;
         this.notificationService = notificationService;
@@ -47,31 +62,42 @@ public class PromotionService {
         this.packRepository = packRepository;
         this.kitRepository = kitRepository;
         this.userRepository = userRepository;
+        this.jdbc = jdbc;
+        this.activeIndex = activeIndex;
+        this.expiryNotifyWindow = Duration.ofHours(Math.max(1, notifyWithinHours));
     }
 
+    // Marks every running promotion whose end has passed, in one statement.
+    // Served by the partial index idx_promotion_running, so only running rows are scanned.
+    private static final String EXPIRE_SQL = """
+            UPDATE promotion
+            SET status = 'expired'
+            WHERE status = 'active'
+              AND start_date IS NOT NULL
+              AND start_date + make_interval(days => duration_days) <= ?
+            RETURNING id, owner_id, target_type, target_id, target_title_cached,
+                      start_date + make_interval(days => duration_days) AS ends_at
+            """;
+
+    private record Expired(Long id, Long ownerId, Promotion.TargetType type, Long targetId,
+                           String cachedTitle, Instant endsAt) {}
+
     private static final Map<String, BigDecimal> RATE_PER_DAY = Map.of(
             "standard", BigDecimal.valueOf(1.5),
             "premium", BigDecimal.valueOf(3.0),
             "spotlight", BigDecimal.valueOf(6.0)
     );
 
-    /** Promote multiple items for a user */
+    /**
+     * Starts the promotions of a paid order for the user, spending their credits first.
+     * Notifications are sent by checkout fulfilment, see {@link #startedNotifications}.
+     */
     @Transactional
     public void promote(User user, List<PromotionRequest> reqs) {
         BigDecimal availableCredits = (user.getPromoCredits() != null ? user.getPromoCredits() : BigDecimal.ZERO)
                 .add(user.getReferralCredits() != null ? user.getReferralCredits() : BigDecimal.ZERO);
-        List<Promotion> savedPromotions = new java.util.ArrayList<>();
 
         for (PromotionRequest req : reqs) {
-            // --- LOG THE INCOMING REQUEST ---
-            System.out.println("[PROMOTE] Incoming PromotionRequest:");
-            System.out.println("  targetType: " + req.getTargetType());
-            System.out.println("  targetId: " + req.getTargetId());
-            System.out.println("  tier: " + req.getTier());
-            System.out.println("  days: " + req.getDays());
-            System.out.println("  paymentMethod: " + req.getPaymentMethod());
-            System.out.println("  orderId: " + req.getOrderId());
-
             Promotion p = new Promotion();
             p.setOwner(user);
             p.setTargetType(Promotion.TargetType.valueOf(req.getTargetType().toUpperCase()));
@@ -83,12 +109,8 @@ public class PromotionService {
 
             BigDecimal basePrice = getPromotionPrice(p.getTargetType(), p.getTier(), p.getDurationDays());
             BigDecimal price = applyPlanDiscount(user, basePrice);
-            System.out.println("[PROMOTE] Created Promotion object:");
-            System.out.println("  targetType: " + p.getTargetType());
-            System.out.println("  targetId: " + p.getTargetId());
-            System.out.println("  tier: " + p.getTier());
-            System.out.println("  durationDays: " + p.getDurationDays());
-            System.out.println("  calculatedPrice: " + price);
+            log.debug("[PROMOTE] {} {} tier={} days={} order={} price={}", p.getTargetType(), p.getTargetId(),
+                    p.getTier(), p.getDurationDays(), req.getOrderId(), price);
 
             BigDecimal creditsToUse = price.min(availableCredits);
             price = price.subtract(creditsToUse);
@@ -111,40 +133,37 @@ public class PromotionService {
             p.setCreditsUsed(promoUsed.add(referralUsed));
 
             repo.save(p);
-            savedPromotions.add(p);
-
-            if (price.compareTo(BigDecimal.ZERO) > 0) {
-                String paymentMethod = req.getPaymentMethod() != null ? req.getPaymentMethod() : "test";
-                String transactionId = "local_tx_" + java.util.UUID.randomUUID();
-                System.out.println("Simulated charge for " + user.getEmail() + " via " + paymentMethod + ", transactionId=" + transactionId);
-            }
         }
 
         userRepo.save(user);
+        activeIndex.changed();
+    }
 
-        // --- Hybrid Notification Strategy ---
-        if (savedPromotions.size() == 1) {
-            Promotion p = savedPromotions.get(0);
-            String title = resolveTitle(p.getTargetType(), p.getTargetId());
-            Notification n = notificationService.create(
-                    user,
-                    NotificationType.PROMOTION,
-                    RelatedType.valueOf(p.getTargetType().name()),
-                    p.getId(),
-                    "Promotion started",
-                    "Your promotion for " + title + " is now live"
-            );
-            notificationService.pushNotificationToUser(user.getId(), n); // <-- SSE push
-        } else if (!savedPromotions.isEmpty()) {
-            Notification n = notificationService.create(
-                    user,
-                    NotificationType.PROMOTION,
-                    RelatedType.SYSTEM,
-                    null,
-                    "Promotions started",
-                    "Your prootions are now live"
-            );
-            notificationService.pushNotificationToUser(user.getId(), n); // <-- SSE push
+    /**
+     * "Promotion started" notifications for the owner of the given promotion purchases: one naming
+     * the item when a single promotion started, otherwise one summary.
+     */
+    public List<NotificationDraft> startedNotifications(Long ownerId, List<Purchase> promotionPurchases) {
+        List<Purchase> started = promotionPurchases.stream()
+                .filter(p -> targetType(p.getPromotionTargetType()) != null && p.getPromotionTargetId() != null)
+                .toList();
+        if (started.isEmpty()) return List.of();
+        if (started.size() > 1) {
+            return List.of(new NotificationDraft(ownerId, NotificationType.PROMOTION, RelatedType.SYSTEM, null,
+                    "Promotions started", "Your promotions are now live"));
+        }
+        Promotion.TargetType type = targetType(started.get(0).getPromotionTargetType());
+        Long targetId = started.get(0).getPromotionTargetId();
+        return List.of(new NotificationDraft(ownerId, NotificationType.PROMOTION, RelatedType.valueOf(type.name()), targetId,
+                "Promotion started", "Your promotion for " + resolveTitle(type, targetId) + " is now live"));
+    }
+
+    private static Promotion.TargetType targetType(String name) {
+        if (name == null) return null;
+        try {
+            return Promotion.TargetType.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null; // e.g. SUBSCRIPTION
         }
     }
 
@@ -172,118 +191,225 @@ public class PromotionService {
         return rate.multiply(BigDecimal.valueOf(days));
     }
 
-    /** Get active promotions for a type */
+    /** Running promotions for a type in featured order (tier, then newest first), served from memory */
     public List<Promotion> getActivePromotions(Promotion.TargetType type, Instant now, int limit) {
-        return repo.findByTargetTypeAndStartDateBefore(type, now, PageRequest.of(0, Math.max(1, limit)))
-                .stream()
-                .filter(Promotion::isActive)
-                .toList();
+        return activeIndex.slice(type, 0, Math.max(1, limit));
+    }
+
+    /** One page of running promotions for a type, in featured order */
+    public List<Promotion> getActivePromotionsPage(Promotion.TargetType type, int offset, int limit) {
+        return activeIndex.slice(type, offset, limit);
+    }
+
+    public int countActivePromotions(Promotion.TargetType type) {
+        return activeIndex.count(type);
+    }
+
+    /** Latest running promotion per item, for the given items only */
+    public Map<Long, Promotion> getActivePromotionsByTarget(Promotion.TargetType type, Collection<Long> targetIds) {
+        return activeIndex.activeByTarget(type, targetIds);
     }
 
     /** Check if an item is currently featured */
     public boolean isCurrentlyFeatured(Promotion.TargetType type, Long targetId) {
-        List<Promotion> promos = repo.findByTargetTypeAndTargetId(type, targetId);
-        Instant now = Instant.now();
-        return promos.stream().anyMatch(p ->
-                p.getStartDate() != null &&
-                        p.getStartDate().isBefore(now) &&
-                        p.getStartDate().plus(Duration.ofDays(p.getDurationDays())).isAfter(now)
-        );
+        return activeIndex.isFeatured(type, targetId);
     }
 
 
-    @Scheduled(cron = "0 0 * * * *") // every hour on the hour
+    /**
+     * Hourly expiry (scheduled by {@link PromotionScheduler}): one UPDATE ... RETURNING marks the promotions that ended, titles are resolved
+     * with one IN query per target type, and the owners are notified with one batch insert.
+     * Promotions that ended more than notify-within-hours ago (a backlog after downtime) are
+     * expired silently rather than announced late.
+     */
     @Transactional
     public void checkForExpiredPromotions() {
         Instant now = Instant.now();
-        List<Promotion> activePromotions = repo.findAllActive();
-
-        for (Promotion p : activePromotions) {
-            Instant end = p.getStartDate().plus(Duration.ofDays(p.getDurationDays()));
-            if (now.isAfter(end)) {
-                p.setStatus("expired");
-                repo.save(p);
-
-                // Send expiration notification
-                String title = resolveTitle(p.getTargetType(), p.getTargetId());
-                Notification n = notificationService.create(
-                        p.getOwner(),
-                        NotificationType.PROMOTION,
-                        RelatedType.valueOf(p.getTargetType().name()),
-                        p.getId(),
-                        "Promotion ended",
-                        "Your promotion for " + title + " has ended"
-                );
-
-                // --- Push via SSE ---
-                notificationService.pushNotificationToUser(p.getOwner().getId(), n);
-            }
+        List<Expired> expired = jdbc.query(EXPIRE_SQL, (rs, i) -> new Expired(
+                rs.getLong("id"),
+                rs.getObject("owner_id", Long.class),
+                Promotion.TargetType.valueOf(rs.getString("target_type")),
+                rs.getLong("target_id"),
+                rs.getString("target_title_cached"),
+                rs.getTimestamp("ends_at").toInstant()
+        ), Timestamp.from(now));
+        if (expired.isEmpty()) return;
+        activeIndex.changed();
+
+        Instant notifyAfter = now.minus(expiryNotifyWindow);
+        List<Expired> toNotify = expired.stream()
+                .filter(e -> e.ownerId() != null && e.endsAt().isAfter(notifyAfter))
+                .toList();
+        Map<Promotion.TargetType, Map<Long, String>> titles = resolveTitles(toNotify);
+
+        List<NotificationDraft> drafts = new ArrayList<>(toNotify.size());
+        for (Expired e : toNotify) {
+            String title = titles.getOrDefault(e.type(), Map.of()).get(e.targetId());
+            if (title == null) title = e.cachedTitle() != null ? e.cachedTitle() : "your " + e.type().name().toLowerCase();
+            drafts.add(new NotificationDraft(
+                    e.ownerId(),
+                    NotificationType.PROMOTION,
+                    RelatedType.valueOf(e.type().name()),
+                    e.id(),
+                    "Promotion ended",
+                    "Your promotion for " + title + " has ended"
+            ));
         }
+
+        // --- Insert + push via SSE (after commit) ---
+        notificationService.createBulk(drafts);
+        log.info("Expired {} promotions, notified {}", expired.size(), drafts.size());
     }
 
-    public void handleUnsoldPromotion(User owner, Promotion promotion) {
-        if (owner == null || promotion == null) return;
-
-        // --- 1️⃣ Only handle expired promotions ---
-        Instant endDate = promotion.getStartDate().plus(Duration.ofDays(promotion.getDurationDays()));
-        if (Instant.now().isBefore(endDate)) return; // still running
-
-        // --- 2️⃣ Only handle if not processed yet ---
-        if ("completed".equalsIgnoreCase(promotion.getStatus())) return;
-
-        // --- 3️⃣ Only Growth and Pro plans get rerun/promo credits ---
-        String plan = owner.getPlan() != null ? owner.getPlan().toLowerCase() : "";
-        int promoCreditsInt;
-        switch (plan) {
-            case "growth" -> promoCreditsInt = 10;
-            case "pro" -> promoCreditsInt = 25;
-            default -> {
-                // Free plan: mark promotion as completed but give no credits
-                promotion.setStatus("completed");
-                repo.save(promotion);
-                return;
-            }
-        }
+    /** Current titles of the promoted items, one IN query per target type. */
+    private Map<Promotion.TargetType, Map<Long, String>> resolveTitles(List<Expired> expired) {
+        Map<Promotion.TargetType, Set<Long>> ids = new EnumMap<>(Promotion.TargetType.class);
+        for (Expired e : expired) ids.computeIfAbsent(e.type(), t -> new HashSet<>()).add(e.targetId());
+
+        Map<Promotion.TargetType, Map<Long, String>> titles = new EnumMap<>(Promotion.TargetType.class);
+        ids.forEach((type, targetIds) -> {
+            List<Object[]> rows = switch (type) {
+                case BEAT -> beatRepository.findTitlesByIdIn(targetIds);
+                case PACK -> packRepository.findTitlesByIdIn(targetIds);
+                case KIT -> kitRepository.findTitlesByIdIn(targetIds);
+            };
+            Map<Long, String> byId = new HashMap<>();
+            for (Object[] row : rows) byId.put((Long) row[0], (String) row[1]);
+            titles.put(type, byId);
+        });
+        return titles;
+    }
 
-        BigDecimal promoCredits = BigDecimal.valueOf(promoCreditsInt);
+    // Every promotion the expiry job marked, ended after the lookback start, with whether its item
+    // sold while it ran. Each EXISTS probes the (item id, purchased_at) index of its type.
+    private static final String ENDED_BATCH_SQL = """
+            SELECT p.id, p.owner_id, p.target_type, p.target_id, p.tier, p.duration_days,
+                   CASE p.target_type
+                       WHEN 'BEAT' THEN EXISTS (SELECT 1 FROM purchase s WHERE s.beat_id = p.target_id
+                                                AND s.purchased_at BETWEEN p.start_date AND p.start_date + make_interval(days => p.duration_days))
+                       WHEN 'PACK' THEN EXISTS (SELECT 1 FROM purchase s WHERE s.pack_id = p.target_id
+                                                AND s.purchased_at BETWEEN p.start_date AND p.start_date + make_interval(days => p.duration_days))
+                       WHEN 'KIT'  THEN EXISTS (SELECT 1 FROM purchase s WHERE s.kit_id = p.target_id
+                                                AND s.purchased_at BETWEEN p.start_date AND p.start_date + make_interval(days => p.duration_days))
+                       ELSE true
+                   END AS sold
+            FROM promotion p
+            WHERE p.status = 'expired'
+              AND p.id > ?
+              AND p.start_date + make_interval(days => p.duration_days) > ?
+            ORDER BY p.id
+            LIMIT ?
+            FOR UPDATE OF p SKIP LOCKED
+            """;
+
+    // Expired promotions that ended before the lookback start are never rerun; they are completed
+    // in chunks so they leave idx_promotion_expired instead of being re-walked every hour
+    private static final String COMPLETE_STALE_SQL = """
+            UPDATE promotion
+            SET status = 'completed'
+            WHERE id IN (
+                SELECT id FROM promotion
+                WHERE status = 'expired'
+                  AND start_date + make_interval(days => duration_days) <= ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            """;
+
+    private record EndedPromotion(Long id, Long ownerId, Promotion.TargetType type, Long targetId,
+                                  String tier, int durationDays, boolean sold) {}
+
+    /** Outcome of one unsold-promotion batch; lastId is the keyset position for the next one. */
+    public record UnsoldBatch(int evaluated, int rerun, long lastId) {}
+
+    /** Completes up to limit expired promotions that ended before endedBefore, without a rerun. */
+    @Transactional
+    public int completeStaleExpired(Instant endedBefore, int limit) {
+        return jdbc.update(COMPLETE_STALE_SQL, Timestamp.from(endedBefore), limit);
+    }
 
-        // --- 4️⃣ Rerun the promotion ---
-        PromotionRequest rerunRequest = new PromotionRequest();
-        rerunRequest.setTargetType(promotion.getTargetType().name()); // String now
-        rerunRequest.setTargetId(promotion.getTargetId());
-        rerunRequest.setTier(promotion.getTier());
-        rerunRequest.setDays(promotion.getDurationDays()); // use original duration
-        rerunRequest.setPaymentMethod("SYSTEM");           // system-triggered
-        rerunRequest.setOrderId(null);                     // no associated order
+    /**
+     * Settles one batch of ended promotions in a single transaction: sold and unsold are decided
+     * by one query, unsold ones on Growth and Pro plans are rerun (one promote call per owner) and
+     * credited, each owner gets one notification, and the whole batch is marked completed.
+     */
+    @Transactional
+    public UnsoldBatch processEndedPromotions(long afterId, Instant endedAfter, int limit) {
+        List<EndedPromotion> ended = jdbc.query(ENDED_BATCH_SQL, (rs, i) -> new EndedPromotion(
+                rs.getLong("id"),
+                rs.getObject("owner_id", Long.class),
+                Promotion.TargetType.valueOf(rs.getString("target_type")),
+                rs.getLong("target_id"),
+                rs.getString("tier"),
+                rs.getInt("duration_days"),
+                rs.getBoolean("sold")
+        ), afterId, Timestamp.from(endedAfter), limit);
+        if (ended.isEmpty()) return new UnsoldBatch(0, 0, afterId);
+
+        Map<Long, List<EndedPromotion>> unsoldByOwner = new LinkedHashMap<>();
+        for (EndedPromotion e : ended) {
+            if (!e.sold() && e.ownerId() != null) {
+                unsoldByOwner.computeIfAbsent(e.ownerId(), id -> new ArrayList<>()).add(e);
+            }
+        }
 
-        promote(owner, List.of(rerunRequest)); // existing method to start a promotion
+        List<NotificationDraft> drafts = new ArrayList<>();
+        int rerun = 0;
+        for (User owner : userRepository.findAllById(unsoldByOwner.keySet())) {
+            // Only Growth and Pro plans get reruns and promo credits; Free plans are just completed
+            int creditPerPromotion = unsoldCredit(owner.getPlan());
+            if (creditPerPromotion == 0) continue;
+
+            List<EndedPromotion> unsold = unsoldByOwner.get(owner.getId());
+            List<PromotionRequest> reruns = new ArrayList<>(unsold.size());
+            for (EndedPromotion e : unsold) {
+                PromotionRequest rerunRequest = new PromotionRequest();
+                rerunRequest.setTargetType(e.type().name());
+                rerunRequest.setTargetId(e.targetId());
+                rerunRequest.setTier(e.tier());
+                rerunRequest.setDays(e.durationDays()); // use original duration
+                rerunRequest.setPaymentMethod("SYSTEM"); // system-triggered
+                reruns.add(rerunRequest);
+            }
+            promote(owner, reruns);
 
-        // --- 5️⃣ Add promo credits to the user ---
-        if (promoCredits.compareTo(BigDecimal.ZERO) > 0) {
+            int credited = creditPerPromotion * unsold.size();
             BigDecimal currentCredits = owner.getPromoCredits() != null ? owner.getPromoCredits() : BigDecimal.ZERO;
-            owner.setPromoCredits(currentCredits.add(promoCredits));
-            userRepository.save(owner); // persist updated credits
+            owner.setPromoCredits(currentCredits.add(BigDecimal.valueOf(credited)));
+            rerun += unsold.size();
+
+            EndedPromotion first = unsold.get(0);
+            String message = unsold.size() == 1
+                    ? "Your promotion for " + first.type().name().toLowerCase() + " #" + first.targetId()
+                        + " did not sell. We reran your promotion and credited $" + credited
+                        + " in promo credits to your account."
+                    : unsold.size() + " of your promotions did not sell. We reran them and credited $" + credited
+                        + " in promo credits to your account.";
+            drafts.add(new NotificationDraft(
+                    owner.getId(),
+                    NotificationType.PROMOTION,
+                    unsold.size() == 1 ? RelatedType.valueOf(first.type().name()) : RelatedType.SYSTEM,
+                    unsold.size() == 1 ? first.targetId() : null,
+                    "Unsold Promotion Rerun",
+                    message
+            ));
         }
 
-        // --- 6️⃣ Notify the user ---
-        String message = "Your promotion for " + promotion.getTargetType().name().toLowerCase() +
-                " #" + promotion.getTargetId() + " did not sell. " +
-                "We reran your promotion and credited $" + promoCreditsInt + " in promo credits to your account.";
-
-        Notification n = notificationService.create(
-                owner,
-                NotificationType.PROMOTION,
-                RelatedType.valueOf(promotion.getTargetType().name()), // BEAT, PACK, KIT
-                promotion.getTargetId(),
-                "Unsold Promotion Rerun",
-                message
-        );
-
-        notificationService.pushNotificationToUser(owner.getId(), n);
-
-        // --- 7️⃣ Mark promotion as processed ---
-        promotion.setStatus("completed");
-        repo.save(promotion);
+        Long[] ids = ended.stream().map(EndedPromotion::id).toArray(Long[]::new);
+        jdbc.update("UPDATE promotion SET status = 'completed' WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        notificationService.createBulk(drafts);
+
+        return new UnsoldBatch(ended.size(), rerun, ended.get(ended.size() - 1).id());
+    }
+
+    private static int unsoldCredit(String plan) {
+        return switch (plan != null ? plan.toLowerCase() : "") {
+            case "growth" -> 10;
+            case "pro" -> 25;
+            default -> 0;
+        };
     }
 
 
@@ -34,4 +34,22 @@ public class Order {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Checkout session the order was confirmed for; a retried confirm returns the same order
+    @Column(unique = true, length = 64)
+    private String checkoutSessionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private OrderStatus status;
+
+    private Integer itemCount;
+
+    // Set once the purchase notifications are written, so a re-run never sends them twice
+    private Boolean notified;
+
+    private Integer attempts;
+
+    @Column(length = 512)
+    private String failureReason;
+
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.drilldex.drillbackend.purchase;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    Optional<Order> findByOrderId(String orderId);
+
+    Optional<Order> findByCheckoutSessionIdAndUser_Id(String checkoutSessionId, Long userId);
+
+    boolean existsByCheckoutSessionId(String checkoutSessionId);
+
+    /** Moves an order to the given status if it is in one of the expected ones; 0 when it was not. */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = :to, o.updatedAt = :now
+        WHERE o.orderId = :orderId AND o.status IN :from
+    """)
+    int transition(@Param("orderId") String orderId,
+                   @Param("from") Collection<OrderStatus> from,
+                   @Param("to") OrderStatus to,
+                   @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = :status, o.failureReason = :reason, o.updatedAt = :now,
+                           o.attempts = COALESCE(o.attempts, 0) + 1
+        WHERE o.orderId = :orderId
+    """)
+    int markFailed(@Param("orderId") String orderId,
+                   @Param("status") OrderStatus status,
+                   @Param("reason") String reason,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.notified = true WHERE o.orderId = :orderId AND (o.notified IS NULL OR o.notified = false)")
+    int markNotified(@Param("orderId") String orderId);
+
+    /** Orders left unfinished (crash, restart) or failed with attempts to spare, oldest first. */
+    @Query("""
+        SELECT o.orderId FROM Order o
+        WHERE o.updatedAt < :cutoff
+          AND (o.status IN :unfinished OR (o.status = :failed AND COALESCE(o.attempts, 0) < :maxAttempts))
+        ORDER BY o.updatedAt
+    """)
+    List<String> findRetryable(@Param("cutoff") LocalDateTime cutoff,
+                               @Param("unfinished") Collection<OrderStatus> unfinished,
+                               @Param("failed") OrderStatus failed,
+                               @Param("maxAttempts") int maxAttempts,
+                               Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.drilldex.drillbackend.purchase;
+
+/**
+ * Checkout order lifecycle. Confirm writes the order and all its rows as PAID in one transaction;
+ * fulfilment then moves it PAID -> FULFILLING -> FULFILLED, or to FAILED (retried by the sweep).
+ */
+public enum OrderStatus {
+    PAID,
+    FULFILLING,
+    FULFILLED,
+    FAILED
+}
@@ -4,6 +4,7 @@ package com.drilldex.drillbackend.purchase;
 import com.drilldex.drillbackend.beat.Beat;
 import com.drilldex.drillbackend.beat.LicenseType;
 import com.drilldex.drillbackend.kit.Kit;
+import com.drilldex.drillbackend.licensing.LicenseStatus;
 import com.drilldex.drillbackend.pack.Pack;
 import com.drilldex.drillbackend.user.User;
 import jakarta.persistence.*;
@@ -58,6 +59,11 @@ public class Purchase {
     @Column(nullable = true, length = 512)
     private String licensePdfPath;
 
+    // PENDING while the PDF is rendered in the background; null for legacy rows
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = true, length = 16)
+    private LicenseStatus licenseStatus;
+
     // Only for PACK purchases; null otherwise
     @Column(nullable = true, length = 512)
     private String zipDownloadPath;
@@ -6,6 +6,7 @@ import com.drilldex.drillbackend.beat.BeatRepository;
 import com.drilldex.drillbackend.beat.LicenseType;
 import com.drilldex.drillbackend.kit.KitRepository;
 import com.drilldex.drillbackend.kit.KitService;
+import com.drilldex.drillbackend.licensing.LicenseRenderService;
 import com.drilldex.drillbackend.notification.NotificationService;
 import com.drilldex.drillbackend.pack.Pack;
 import com.drilldex.drillbackend.pack.PackRepository;
@@ -55,6 +56,7 @@ public class PurchaseController {
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepo;
     private final CurrentUserService currentUserService;
+    private final LicenseRenderService licenseRenderService;
 
     private final BeatRepository beatRepo;
     private final PackRepository packRepo;
@@ -78,7 +80,7 @@ public class PurchaseController {
         User buyer = principal.getUser();
         Purchase p = purchaseService.getPurchaseOwned(buyer, id);
 
-        File file = resolveLicenseFile(p.getLicensePdfPath());
+        File file = resolveLicenseFile(licenseRenderService.awaitLicense(p));
         if (!file.exists()) return ResponseEntity.notFound().build();
 
         FileSystemResource res = new FileSystemResource(file);
@@ -122,6 +124,7 @@ public class PurchaseController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed");
 
         try {
+            purchase.setLicensePdfPath(licenseRenderService.awaitLicense(purchase));
             AudioUtils.streamPackZipWithLicense(purchase, uploadRoot, response);
         } catch (ResponseStatusException e) {
             throw e;
@@ -268,6 +271,7 @@ public class PurchaseController {
 
         if (hasStems && requiresStems) {
             try {
+                purchase.setLicensePdfPath(licenseRenderService.awaitLicense(purchase));
                 AudioUtils.streamBeatZipWithLicense(purchase, uploadRoot, response);
                 return;
             } catch (Exception e) {
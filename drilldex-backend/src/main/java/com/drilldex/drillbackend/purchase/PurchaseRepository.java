@@ -1,12 +1,17 @@
 // src/main/java/com/drilldex/drillbackend/purchase/PurchaseRepository.java
 package com.drilldex.drillbackend.purchase;
 
+import com.drilldex.drillbackend.licensing.LicenseStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
     List<Purchase> findByBuyerId(Long buyerId);
@@ -50,5 +55,19 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
 
     List<Purchase> findAllByOrderId(String orderId);
 
+    /** An order's purchases with the items and their owners, as fulfilment reads them. */
+    @EntityGraph(attributePaths = {"beat", "beat.owner", "pack", "pack.owner", "kit"})
+    @Query("SELECT p FROM Purchase p WHERE p.orderId = :orderId ORDER BY p.id")
+    List<Purchase> findForFulfillment(@Param("orderId") String orderId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Purchase p SET p.licensePdfPath = :path, p.licenseStatus = :status WHERE p.id = :id")
+    int updateLicense(@Param("id") Long id, @Param("path") String path, @Param("status") LicenseStatus status);
+
+    // Reads straight from the DB, bypassing a possibly stale entity in the current session
+    @Query("SELECT p.licensePdfPath FROM Purchase p WHERE p.id = :id AND p.licenseStatus = :status")
+    Optional<String> findLicensePdfPathByStatus(@Param("id") Long id, @Param("status") LicenseStatus status);
+
 
 }
@@ -3,40 +3,27 @@ package com.drilldex.drillbackend.purchase;
 
 import com.drilldex.drillbackend.beat.*;
 import com.drilldex.drillbackend.kit.Kit;
-import com.drilldex.drillbackend.kit.KitRepository;
-import com.drilldex.drillbackend.licensing.LicensePdfGenerator;
-import com.drilldex.drillbackend.licensing.LicenseTerms;
-import com.drilldex.drillbackend.licensing.LicenseTermsConfig;
-import com.drilldex.drillbackend.notification.Notification;
-import com.drilldex.drillbackend.notification.NotificationService;
+import com.drilldex.drillbackend.licensing.LicenseStatus;
+import com.drilldex.drillbackend.notification.NotificationDraft;
 import com.drilldex.drillbackend.notification.NotificationType;
 import com.drilldex.drillbackend.notification.RelatedType;
 import com.drilldex.drillbackend.pack.Pack;
 import com.drilldex.drillbackend.pack.PackLicense;
-import com.drilldex.drillbackend.pack.PackRepository;
-import com.drilldex.drillbackend.promotions.Promotion;
-import com.drilldex.drillbackend.promotions.PromotionRequest;
-import com.drilldex.drillbackend.promotions.PromotionService;
-import com.drilldex.drillbackend.subscription.Subscription;
 import com.drilldex.drillbackend.user.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class PurchaseService {
 
-    private final BeatRepository beatRepository;
     private final PurchaseRepository purchaseRepository;
-    private final PackRepository packRepository;
-    private final KitRepository kitRepository;
-    private final NotificationService notificationService;
-    private final PromotionService promotionService;
 
     @Value("${app.payments.currency:USD}")
     private String defaultCurrency;
@@ -83,106 +70,40 @@ public class PurchaseService {
 //        return saved;
 //    }
 
-@Transactional
-public Purchase buyBeat(User buyer, Long beatId, LicenseType licenseType, String orderId) throws Exception {
-    Beat beat = beatRepository.findById(beatId)
-            .orElseThrow(() -> new IllegalArgumentException("Beat not found"));
-
-    BeatLicense selected = beat.getLicenses().stream()
-            .filter(l -> l.getType() == licenseType && l.isEnabled())
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Selected license not available for this beat"));
-
-    LicenseTerms terms = LicenseTermsConfig.getTermsFor(licenseType);
-    String pdfPath = LicensePdfGenerator.generateLicensePdf(buyer, beat, terms);
-
-    Purchase p = new Purchase();
-    p.setBuyer(buyer);
-    p.setBeat(beat);
-    p.setLicenseType(licenseType);
-    p.setPricePaid(selected.getPrice());
-    p.setCurrency(defaultCurrency);
-    p.setPurchasedAt(Instant.now());
-    p.setLicensePdfPath(pdfPath);
-    p.setOrderId(orderId); // <--- NEW
-
-    if ((licenseType == LicenseType.PREMIUM || licenseType == LicenseType.EXCLUSIVE)
-            && beat.getStemsFilePath() != null) {
-        p.setStemsPath(beat.getStemsFilePath());
-    }
-
-    Purchase saved = purchaseRepository.save(p);
-
-    Notification n = notificationService.create(
-            buyer,
-            NotificationType.PURCHASE,
-            RelatedType.BEAT,
-            saved.getId(),
-            "Purchase complete",
-            "You purchased " + beat.getTitle()
-    );
-
-    notificationService.pushNotificationToUser(buyer.getId(), n);
-
-    if ((licenseType == LicenseType.PREMIUM || licenseType == LicenseType.EXCLUSIVE)
-            && beat.getStemsFilePath() == null) {
-        Notification producerNotif = notificationService.create(
-                beat.getOwner(),
-                NotificationType.SYSTEM,
-                RelatedType.BEAT,
-                beat.getId(),
-                "Stems missing for premium/exclusive sale",
-                "A buyer purchased a premium/exclusive license for your beat '" +
-                        beat.getTitle() + "', but no stems were uploaded."
-        );
-        notificationService.pushNotificationToUser(beat.getOwner().getId(), producerNotif);
-
-        Notification buyerMissingNotif = notificationService.create(
-                buyer,
-                NotificationType.SYSTEM,
-                RelatedType.BEAT,
-                beat.getId(),
-                "Producer notified about missing stems",
-                "The producer has been notified that stems for '" + beat.getTitle() +
-                        "' are missing. They will be uploaded soon."
-        );
-        notificationService.pushNotificationToUser(buyer.getId(), buyerMissingNotif);
-    }
+    /** Validates the license and builds an unsaved beat purchase; its PDF is rendered after commit. */
+    public Purchase prepareBeatPurchase(User buyer, Beat beat, LicenseType licenseType, String orderId) {
+        BeatLicense selected = beat.getLicenses().stream()
+                .filter(l -> l.getType() == licenseType && l.isEnabled())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Selected license not available for this beat"));
 
-    return saved;
-}
+        Purchase p = new Purchase();
+        p.setBuyer(buyer);
+        p.setBeat(beat);
+        p.setLicenseType(licenseType);
+        p.setPricePaid(selected.getPrice());
+        p.setCurrency(defaultCurrency);
+        p.setPurchasedAt(Instant.now());
+        p.setLicenseStatus(LicenseStatus.PENDING); // PDF is rendered after commit
+        p.setOrderId(orderId);
 
-    public Purchase getPurchaseOwned(User buyer, Long purchaseId) {
-        Purchase p = purchaseRepository.findById(purchaseId)
-                .orElseThrow(() -> new IllegalArgumentException("Purchase not found"));
-        if (!p.getBuyer().getId().equals(buyer.getId())) {
-            throw new SecurityException("Not your purchase");
+        if (needsStems(licenseType) && beat.getStemsFilePath() != null) {
+            p.setStemsPath(beat.getStemsFilePath());
         }
         return p;
     }
 
-    // PurchaseService.java
-    @Transactional
-    public Purchase buyPack(User buyer, Long packId, LicenseType licenseType, String orderId) throws Exception {
-        Pack pack = packRepository.findById(packId)
-                .orElseThrow(() -> new IllegalArgumentException("Pack not found"));
-
+    /** Checks the pack is for sale and builds an unsaved purchase; its PDF is rendered after commit. */
+    public Purchase preparePackPurchase(User buyer, Pack pack, LicenseType licenseType, String orderId) {
         if (!Boolean.TRUE.equals(pack.isApproved())) {
             throw new IllegalStateException("Pack is not for sale");
         }
 
-        // --- Find selected license for the pack ---
         PackLicense selected = pack.getLicenses().stream()
                 .filter(l -> l.getType() == licenseType && l.isEnabled())
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Selected license not available for this pack"));
 
-        // --- Generate license PDF ---
-        LicenseTerms terms = LicenseTermsConfig.getTermsFor(licenseType);
-        String pdfPath = LicensePdfGenerator.generatePackLicensePdf(
-                buyer, pack, terms, licenseType, selected.getPrice()
-        );
-
         Purchase p = new Purchase();
         p.setBuyer(buyer);
         p.setPack(pack);
@@ -190,83 +111,21 @@ public Purchase buyBeat(User buyer, Long beatId, LicenseType licenseType, String
         p.setPricePaid(selected.getPrice()); // price comes from license
         p.setCurrency(defaultCurrency);
         p.setPurchasedAt(Instant.now());
-        p.setLicensePdfPath(pdfPath);
-        p.setOrderId(orderId);               // <-- store orderId
+        p.setLicenseStatus(LicenseStatus.PENDING); // license PDF is rendered after commit
+        p.setOrderId(orderId);
 
-        if ((licenseType == LicenseType.PREMIUM || licenseType == LicenseType.EXCLUSIVE)
-                && pack.getStemsFilePath() != null) {
+        if (needsStems(licenseType) && pack.getStemsFilePath() != null) {
             p.setStemsPath(pack.getStemsFilePath());
         }
-
-        Purchase saved = purchaseRepository.save(p);
-
-        // --- 🔔 Send notification to buyer ---
-        Notification n = notificationService.create(
-                buyer,
-                NotificationType.PURCHASE,
-                RelatedType.PACK,
-                saved.getId(),
-                "Purchase complete",
-                "You purchased " + pack.getTitle()
-        );
-
-        notificationService.pushNotificationToUser(buyer.getId(), n);
-
-        if ((licenseType == LicenseType.PREMIUM || licenseType == LicenseType.EXCLUSIVE)
-                && pack.getStemsFilePath() == null) {
-            Notification producerNotif = notificationService.create(
-                    pack.getOwner(),
-                    NotificationType.SYSTEM,
-                    RelatedType.PACK,
-                    pack.getId(),
-                    "Stems missing for premium/exclusive sale",
-                    "A buyer purchased a premium/exclusive license for your pack '" +
-                            pack.getTitle() + "', but no stems were uploaded."
-            );
-            notificationService.pushNotificationToUser(pack.getOwner().getId(), producerNotif);
-
-            Notification buyerMissingNotif = notificationService.create(
-                    buyer,
-                    NotificationType.SYSTEM,
-                    RelatedType.PACK,
-                    pack.getId(),
-                    "Producer notified about missing stems",
-                    "The producer has been notified that stems for '" + pack.getTitle() +
-                            "' are missing. They will be uploaded soon."
-            );
-            notificationService.pushNotificationToUser(buyer.getId(), buyerMissingNotif);
-        }
-
-        return saved;
+        return p;
     }
 
-
-    @Transactional
-    public Purchase buyKit(User buyer, Long kitId, String orderId) throws Exception {
-        System.out.println("=== buyKit called ===");
-        System.out.println("Buyer: " + (buyer != null ? buyer.getId() + " / " + buyer.getDisplayName() : "null"));
-        System.out.println("Kit ID: " + kitId);
-        System.out.println("Order ID: " + orderId);
-
-        Kit kit = kitRepository.findById(kitId)
-                .orElseThrow(() -> {
-                    System.out.println("Kit not found for id=" + kitId);
-                    return new IllegalArgumentException("Kit not found");
-                });
-
-        System.out.println("Kit retrieved: " + kit.getTitle() + " / status=" + kit.getStatus() + " / price=" + kit.getPrice());
-
-        // Availability check
-        boolean isPublished = "published".equalsIgnoreCase(kit.getStatus());
-        boolean hasPublishDate = kit.getPublishedAt() != null; // optional
-        System.out.println("isPublished=" + isPublished + ", hasPublishDate=" + hasPublishDate);
-
-        if (!isPublished /* || !hasPublishDate */) {
-            System.out.println("Kit is not for sale: " + kit.getTitle());
+    /** Checks the kit is published and builds an unsaved purchase. */
+    public Purchase prepareKitPurchase(User buyer, Kit kit, String orderId) {
+        if (!"published".equalsIgnoreCase(kit.getStatus())) {
             throw new IllegalStateException("Kit is not for sale");
         }
 
-        // Build Purchase
         Purchase p = new Purchase();
         p.setBuyer(buyer);
         p.setKit(kit);
@@ -274,42 +133,12 @@ public Purchase buyBeat(User buyer, Long beatId, LicenseType licenseType, String
         p.setCurrency(defaultCurrency);
         p.setPurchasedAt(Instant.now());
         p.setOrderId(orderId);
-
-        System.out.println("Saving purchase: buyer=" + buyer.getId() + ", kit=" + kit.getId() +
-                ", price=" + kit.getPrice() + ", currency=" + defaultCurrency);
-
-        Purchase saved = purchaseRepository.save(p);
-        System.out.println("Purchase saved with ID: " + saved.getId());
-
-        // Notification
-        Notification n = notificationService.create(
-                buyer,
-                NotificationType.PURCHASE,
-                RelatedType.KIT,
-                saved.getId(),
-                "Purchase complete",
-                "You purchased " + kit.getTitle()
-        );
-
-        System.out.println("Notification created with ID: " + n.getId());
-        notificationService.pushNotificationToUser(buyer.getId(), n);
-        System.out.println("Notification pushed to user: " + buyer.getId());
-
-        System.out.println("=== buyKit finished ===");
-        return saved;
+        return p;
     }
 
-    @Transactional
-    public Purchase buyPromotion(
-            User buyer,
-            String targetType,
-            Long targetId,
-            String tier,
-            int days,
-            BigDecimal pricePaid,
-            String orderId,
-            String paymentMethod
-    ) {
+    /** Builds an unsaved purchase record for a bought promotion. */
+    public Purchase preparePromotionPurchase(User buyer, String targetType, Long targetId, String tier, int days,
+                                             BigDecimal pricePaid, String orderId, String paymentMethod) {
         if (buyer == null) throw new IllegalArgumentException("Buyer cannot be null");
         if (targetId == null) throw new IllegalArgumentException("Promotion target ID cannot be null");
 
@@ -326,8 +155,59 @@ public Purchase buyBeat(User buyer, Long beatId, LicenseType licenseType, String
         purchase.setPromotionTier(tier);
         purchase.setPromotionDays(days);
         purchase.setPricePaid(pricePaid); // <-- use the price from CheckoutRequest
+        return purchase;
+    }
 
-        return purchaseRepository.save(purchase);
+    /**
+     * Notifications for a saved purchase: "Purchase complete" to the buyer, plus the
+     * missing-stems pair for premium/exclusive sales.
+     */
+    public List<NotificationDraft> purchaseNotifications(Purchase p) {
+        List<NotificationDraft> drafts = new ArrayList<>();
+        Long buyerId = p.getBuyer().getId();
+        if (p.getBeat() != null) {
+            Beat beat = p.getBeat();
+            drafts.add(new NotificationDraft(buyerId, NotificationType.PURCHASE, RelatedType.BEAT, p.getId(),
+                    "Purchase complete", "You purchased " + beat.getTitle()));
+            if (needsStems(p.getLicenseType()) && beat.getStemsFilePath() == null) {
+                addMissingStems(drafts, buyerId, beat.getOwner().getId(), RelatedType.BEAT, beat.getId(), "beat", beat.getTitle());
+            }
+        } else if (p.getPack() != null) {
+            Pack pack = p.getPack();
+            drafts.add(new NotificationDraft(buyerId, NotificationType.PURCHASE, RelatedType.PACK, p.getId(),
+                    "Purchase complete", "You purchased " + pack.getTitle()));
+            if (needsStems(p.getLicenseType()) && pack.getStemsFilePath() == null) {
+                addMissingStems(drafts, buyerId, pack.getOwner().getId(), RelatedType.PACK, pack.getId(), "pack", pack.getTitle());
+            }
+        } else if (p.getKit() != null) {
+            drafts.add(new NotificationDraft(buyerId, NotificationType.PURCHASE, RelatedType.KIT, p.getId(),
+                    "Purchase complete", "You purchased " + p.getKit().getTitle()));
+        }
+        return drafts;
+    }
+
+    private static void addMissingStems(List<NotificationDraft> drafts, Long buyerId, Long producerId,
+                                        RelatedType type, Long itemId, String noun, String title) {
+        drafts.add(new NotificationDraft(producerId, NotificationType.SYSTEM, type, itemId,
+                "Stems missing for premium/exclusive sale",
+                "A buyer purchased a premium/exclusive license for your " + noun + " '" + title
+                        + "', but no stems were uploaded."));
+        drafts.add(new NotificationDraft(buyerId, NotificationType.SYSTEM, type, itemId,
+                "Producer notified about missing stems",
+                "The producer has been notified that stems for '" + title + "' are missing. They will be uploaded soon."));
+    }
+
+    private static boolean needsStems(LicenseType licenseType) {
+        return licenseType == LicenseType.PREMIUM || licenseType == LicenseType.EXCLUSIVE;
+    }
+
+    public Purchase getPurchaseOwned(User buyer, Long purchaseId) {
+        Purchase p = purchaseRepository.findById(purchaseId)
+                .orElseThrow(() -> new IllegalArgumentException("Purchase not found"));
+        if (!p.getBuyer().getId().equals(buyer.getId())) {
+            throw new SecurityException("Not your purchase");
+        }
+        return p;
     }
 
     public Purchase buySubscription(User user, String planId, String billingCycle, BigDecimal price, String orderId, String paymentMethod) {
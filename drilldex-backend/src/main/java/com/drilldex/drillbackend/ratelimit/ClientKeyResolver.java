@@ -0,0 +1,37 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import com.drilldex.drillbackend.auth.CustomUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/** Identifies the caller for throttling: "u:{id}" when signed in (if allowed), else "ip:{address}". */
+@Component
+@RequiredArgsConstructor
+public class ClientKeyResolver {
+
+    private final RateLimitProperties properties;
+
+    public String resolve(HttpServletRequest request, RateLimitProperties.KeyType type) {
+        if (type == RateLimitProperties.KeyType.USER_OR_IP) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof CustomUserDetails cud && cud.getId() != null) {
+                return "u:" + cud.getId();
+            }
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
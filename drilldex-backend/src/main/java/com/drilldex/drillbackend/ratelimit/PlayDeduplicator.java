@@ -0,0 +1,55 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts a play of an item at most once per client per window. The window slides from the last
+ * counted play, so replaying a preview in a loop adds one play per window, not one per request.
+ *
+ * At most maxKeys (item, client) pairs are remembered. When the table is full a play from a pair
+ * not yet in it is not counted until the minute sweep frees room: under a key flood plays are
+ * under-counted rather than the table growing or being scanned per request.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayDeduplicator {
+
+    private final Map<String, Long> lastCounted = new ConcurrentHashMap<>();
+    private final RateLimitProperties properties;
+    private final ClientKeyResolver keyResolver;
+
+    /** True if this play should be counted; records it when it is. */
+    public boolean shouldCount(String itemType, Long itemId, HttpServletRequest request) {
+        RateLimitProperties.PlayDedup cfg = properties.getPlayDedup();
+        if (!cfg.isEnabled()) return true;
+
+        long now = System.nanoTime();
+        long window = cfg.getWindow().toNanos();
+        String key = itemType + ':' + itemId + '|' + keyResolver.resolve(request, RateLimitProperties.KeyType.USER_OR_IP);
+
+        if (lastCounted.size() >= properties.getMaxKeys() && !lastCounted.containsKey(key)) return false;
+        long[] counted = {0};
+        lastCounted.compute(key, (k, last) -> {
+            if (last != null && now - last < window) return last;
+            counted[0] = 1;
+            return now;
+        });
+        return counted[0] == 1;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void sweep() {
+        long cutoff = System.nanoTime() - properties.getPlayDedup().getWindow().toNanos();
+        lastCounted.values().removeIf(t -> t < cutoff);
+    }
+
+    int trackedKeys() {
+        return lastCounted.size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimitProperties} policies. Runs after the JWT filter so signed-in callers are
+ * limited per user; everyone else per IP. Rejected requests get 429 with Retry-After (seconds).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private final RateLimitProperties properties;
+    private final RateLimiter limiter;
+    private final ClientKeyResolver keyResolver;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (properties.isEnabled() && !"OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            for (Map.Entry<String, RateLimitProperties.Policy> e : properties.getPolicies().entrySet()) {
+                RateLimitProperties.Policy policy = e.getValue();
+                if (!matches(policy, request.getMethod(), path)) continue;
+
+                String key = keyResolver.resolve(request, policy.getKey());
+                long waitNanos = limiter.tryAcquire(e.getKey(), key, policy);
+                if (waitNanos > 0) {
+                    reject(response, waitNanos);
+                    log.debug("Rate limited {} on {} ({})", key, path, e.getKey());
+                    return;
+                }
+                break; // first matching policy only
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean matches(RateLimitProperties.Policy policy, String method, String path) {
+        if (policy.getMethod() != null && !policy.getMethod().isBlank()
+                && !policy.getMethod().equalsIgnoreCase(method)) {
+            return false;
+        }
+        for (String pattern : policy.getPaths()) {
+            if (matcher.match(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfterSeconds\":" + seconds + "}");
+    }
+}
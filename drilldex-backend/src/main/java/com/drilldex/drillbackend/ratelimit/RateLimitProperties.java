@@ -0,0 +1,63 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route rate limits, bound from app.ratelimit.*:
+ *
+ * <pre>
+ * app.ratelimit.policies.search.paths=/api/beats/search,/api/kits/search
+ * app.ratelimit.policies.search.capacity=30
+ * app.ratelimit.policies.search.period=10s
+ * app.ratelimit.policies.search.key=user-or-ip
+ * </pre>
+ *
+ * The first policy whose method and path patterns match a request applies.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Use the first X-Forwarded-For address as client IP; only behind a proxy that sets it. */
+    private boolean trustForwardedFor = false;
+
+    /** Upper bound on tracked clients per policy; idle ones are swept every minute. */
+    private int maxKeys = 100_000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    private PlayDedup playDedup = new PlayDedup();
+
+    @Data
+    public static class Policy {
+        /** HTTP method to match; empty matches all. */
+        private String method;
+        /** Ant-style path patterns. */
+        private List<String> paths = new ArrayList<>();
+        /** Burst size: requests allowed at once from a full bucket. */
+        private int capacity = 60;
+        /** Time to refill the whole bucket; capacity / period is the sustained rate. */
+        private Duration period = Duration.ofMinutes(1);
+        private KeyType key = KeyType.USER_OR_IP;
+    }
+
+    @Data
+    public static class PlayDedup {
+        private boolean enabled = true;
+        /** A repeat play of the same item by the same client within this window is not counted. */
+        private Duration window = Duration.ofSeconds(30);
+    }
+
+    public enum KeyType { IP, USER_OR_IP }
+}
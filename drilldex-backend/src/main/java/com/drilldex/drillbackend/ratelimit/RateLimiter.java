@@ -0,0 +1,67 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets in the GCRA form: instead of a token count and a refill timestamp,
+ * each bucket is one AtomicLong holding the time at which it will be full again (the
+ * "theoretical arrival time"). A request is allowed when that time is at most one burst ahead of
+ * now and moves it forward by one emission interval with a CAS. This behaves exactly like a
+ * token bucket of the given capacity refilled at capacity/period, without locks or refill work.
+ *
+ * At most maxKeys clients get a bucket of their own (give or take concurrent inserts). Once the
+ * table is full, new clients share one overflow bucket per policy until the minute sweep frees
+ * room, so a key flood costs neither memory nor a scan per request.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String OVERFLOW = "|*overflow*"; // no client key contains '*'
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final RateLimitProperties properties;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Takes one token from the bucket of (policy, key).
+     * Returns 0 when allowed, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquire(String policy, String key, RateLimitProperties.Policy p) {
+        long now = System.nanoTime();
+        long interval = Math.max(1, p.getPeriod().toNanos() / Math.max(1, p.getCapacity()));
+        long burst = interval * (Math.max(1, p.getCapacity()) - 1L);
+
+        String bucketKey = policy + '|' + key;
+        AtomicLong tat = buckets.get(bucketKey);
+        if (tat == null) {
+            if (buckets.size() >= properties.getMaxKeys()) bucketKey = policy + OVERFLOW;
+            tat = buckets.computeIfAbsent(bucketKey, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = tat.get();
+            long start = Math.max(current, now);
+            if (start - now > burst) return start - now - burst;
+            if (tat.compareAndSet(current, start + interval)) return 0;
+        }
+    }
+
+    /** Drops buckets that have refilled completely; they are identical to a new bucket. */
+    @Scheduled(fixedDelay = 60_000)
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> e.getValue().get() <= now);
+    }
+
+    int trackedKeys() {
+        return buckets.size();
+    }
+}
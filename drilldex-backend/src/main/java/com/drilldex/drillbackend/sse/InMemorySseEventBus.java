@@ -0,0 +1,34 @@
+package com.drilldex.drillbackend.sse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Single-node bus: messages go straight to the local handlers. */
+@Component
+@ConditionalOnProperty(name = "app.sse.bus", havingValue = "memory", matchIfMissing = true)
+public class InMemorySseEventBus implements SseEventBus {
+
+    private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String topic, Object message) {
+        for (Consumer<Object> h : handlers.getOrDefault(topic, List.of())) h.accept(message);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void subscribe(String topic, Class<T> type, Consumer<T> handler) {
+        handlers.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add((Consumer<Object>) handler);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+}
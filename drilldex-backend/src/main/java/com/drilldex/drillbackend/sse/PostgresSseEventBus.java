@@ -0,0 +1,268 @@
+package com.drilldex.drillbackend.sse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Cluster bus on Postgres LISTEN/NOTIFY, so no extra infrastructure is needed.
+ *
+ * Messages are delivered to the local handlers right away and handed to a bounded queue; one
+ * sender thread drains it and sends them to the other nodes with pg_notify over a connection of
+ * its own, a batch per transaction. The LISTEN and send connections are opened straight from the
+ * spring.datasource settings, outside the Hikari pool, so the bus never holds request capacity.
+ * Publishers (typically afterCommit callbacks) therefore never
+ * borrow a pool connection or wait on the database; when the queue is full the message is only
+ * delivered locally. Payloads above the NOTIFY limit (8000 bytes) are parked in sse_event and
+ * sent by id. Each node skips its own notifications by node id.
+ *
+ * Messages published while a node is reconnecting its LISTEN or send connection are lost for the
+ * other nodes; clients recover what they need on their next page load.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.sse.bus", havingValue = "postgres")
+public class PostgresSseEventBus implements SseEventBus {
+
+    private static final String CHANNEL = "drilldex_sse";
+    private static final int MAX_INLINE_BYTES = 7000;
+    private static final String REF_PREFIX = "#";
+    private static final int SEND_BATCH = 200;
+
+    private record Handler<T>(Class<T> type, Consumer<T> consumer) {}
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+    private final int pollMs;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Handler<?>>> handlers = new ConcurrentHashMap<>();
+
+    // Serialized envelopes waiting for the sender thread
+    private final BlockingQueue<String> outbox;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread listener;
+    private Thread sender;
+
+    public PostgresSseEventBus(DataSourceProperties dataSourceProperties,
+                               JdbcTemplate jdbc,
+                               ObjectMapper mapper,
+                               @Value("${app.sse.bus.poll-ms:500}") int pollMs,
+                               @Value("${app.sse.bus.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+        this.pollMs = Math.max(50, pollMs);
+        this.outbox = new ArrayBlockingQueue<>(Math.max(1, sendQueueCapacity));
+    }
+
+    @PostConstruct
+    void start() {
+        listener = new Thread(this::listenLoop, "sse-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+        sender = new Thread(this::sendLoop, "sse-bus-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /** Delivers locally and queues the message for the other nodes; never blocks. */
+    @Override
+    public void publish(String topic, Object message) {
+        for (Handler<?> h : handlers.getOrDefault(topic, List.of())) deliver(h, message);
+
+        try {
+            ObjectNode envelope = mapper.createObjectNode();
+            envelope.put("n", nodeId);
+            envelope.put("t", topic);
+            envelope.set("m", mapper.valueToTree(message));
+            if (!outbox.offer(mapper.writeValueAsString(envelope))) {
+                long n = dropped.incrementAndGet();
+                if (n == 1 || n % 1000 == 0) {
+                    log.warn("SSE bus send queue full; {} messages delivered on this node only so far", n);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not publish {} message to other nodes", topic, e);
+        }
+    }
+
+    @Override
+    public <T> void subscribe(String topic, Class<T> type, Consumer<T> handler) {
+        handlers.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(new Handler<>(type, handler));
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    /** Parked payloads are only needed until every node has picked them up. */
+    @Scheduled(fixedDelayString = "${app.sse.bus.cleanup-ms:60000}")
+    public void cleanup() {
+        try {
+            jdbc.update("DELETE FROM sse_event WHERE created_at < now() - interval '5 minutes'");
+        } catch (Exception e) {
+            log.debug("sse_event cleanup failed", e);
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection c = openDedicatedConnection()) {
+                c.setAutoCommit(true);
+                try (Statement st = c.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = c.unwrap(PGConnection.class);
+                log.info("SSE bus listening on {} as node {}", CHANNEL, nodeId);
+                backoffMs = 1000;
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(pollMs);
+                    if (notifications == null) continue;
+                    for (PGNotification n : notifications) onNotification(n.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("SSE bus connection lost, reconnecting in {} ms", backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    /** Drains the outbox over one dedicated connection, one transaction per batch. */
+    private void sendLoop() {
+        long backoffMs = 1000;
+        List<String> batch = new ArrayList<>(SEND_BATCH);
+        while (running) {
+            try (Connection c = openDedicatedConnection()) {
+                c.setAutoCommit(false);
+                try (PreparedStatement notify = c.prepareStatement("SELECT pg_notify(?, ?)");
+                     PreparedStatement park = c.prepareStatement("INSERT INTO sse_event (payload) VALUES (?) RETURNING id")) {
+                    backoffMs = 1000;
+                    while (running) {
+                        String first = outbox.poll(1, TimeUnit.SECONDS);
+                        if (first == null) continue;
+                        batch.add(first);
+                        outbox.drainTo(batch, SEND_BATCH - 1);
+                        try {
+                            for (String json : batch) send(notify, park, json);
+                            c.commit(); // NOTIFY is delivered on commit
+                        } finally {
+                            batch.clear();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("SSE bus send connection lost, reconnecting in {} ms", backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    /** A connection outside the pool: the listener and the sender each keep one open indefinitely. */
+    private Connection openDedicatedConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    private static void send(PreparedStatement notify, PreparedStatement park, String json) throws SQLException {
+        String text = json;
+        if (text.getBytes(StandardCharsets.UTF_8).length > MAX_INLINE_BYTES) {
+            park.setString(1, text);
+            try (ResultSet rs = park.executeQuery()) {
+                rs.next();
+                text = REF_PREFIX + rs.getLong(1);
+            }
+        }
+        notify.setString(1, CHANNEL);
+        notify.setString(2, text);
+        notify.executeQuery().close();
+    }
+
+    private void onNotification(String text) {
+        try {
+            if (text.startsWith(REF_PREFIX)) {
+                long id = Long.parseLong(text.substring(REF_PREFIX.length()));
+                text = jdbc.queryForObject("SELECT payload FROM sse_event WHERE id = ?", String.class, id);
+            }
+            JsonNode envelope = mapper.readTree(text);
+            if (nodeId.equals(envelope.path("n").asText())) return; // already delivered locally
+
+            String topic = envelope.path("t").asText();
+            for (Handler<?> h : handlers.getOrDefault(topic, List.of())) {
+                deliver(h, mapper.treeToValue(envelope.get("m"), h.type()));
+            }
+        } catch (Exception e) {
+            log.warn("Dropping unreadable SSE bus message", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliver(Handler<T> h, Object message) {
+        try {
+            h.consumer().accept((T) message);
+        } catch (RuntimeException e) {
+            log.warn("SSE bus handler failed", e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) listener.interrupt();
+        if (sender != null) sender.interrupt();
+    }
+}
@@ -0,0 +1,7 @@
+package com.drilldex.drillbackend.sse;
+
+/** Independent SSE streams a user can subscribe to; each has its own connections and replay buffer. */
+public enum SseChannel {
+    CHAT,
+    NOTIFICATION
+}
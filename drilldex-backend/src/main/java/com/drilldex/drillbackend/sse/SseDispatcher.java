@@ -0,0 +1,35 @@
+package com.drilldex.drillbackend.sse;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Sends SSE events through the bus; every node delivers the targets it holds streams for. */
+@Component
+public class SseDispatcher {
+
+    static final String TOPIC = "sse";
+
+    private final SseEventBus bus;
+
+    public SseDispatcher(SseEventBus bus, SseHub hub) {
+        this.bus = bus;
+        bus.subscribe(TOPIC, SseMessage.class, m -> {
+            for (SseMessage.Target t : m.targets()) hub.publish(m.channel(), t.userId(), m.event(), t.payload());
+        });
+    }
+
+    public void send(SseChannel channel, Long userId, String event, Object payload) {
+        if (userId == null) return;
+        bus.publish(TOPIC, SseMessage.to(channel, userId, event, payload));
+    }
+
+    public void send(SseChannel channel, String event, List<SseMessage.Target> targets) {
+        if (targets.isEmpty()) return;
+        bus.publish(TOPIC, new SseMessage(channel, event, targets));
+    }
+
+    public boolean isDistributed() {
+        return bus.isDistributed();
+    }
+}
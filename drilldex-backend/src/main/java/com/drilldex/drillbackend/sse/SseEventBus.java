@@ -0,0 +1,21 @@
+package com.drilldex.drillbackend.sse;
+
+import java.util.function.Consumer;
+
+/**
+ * Pub/sub between backend nodes. Every node subscribes to the topics it can serve locally
+ * (e.g. {@link SseDispatcher} delivers "sse" messages to its own connections), so a message
+ * published on any node reaches whichever node holds the user's streams.
+ *
+ * Handlers run on the publishing thread for the local node and on the bus thread for remote
+ * messages; they must not block.
+ */
+public interface SseEventBus {
+
+    void publish(String topic, Object message);
+
+    <T> void subscribe(String topic, Class<T> type, Consumer<T> handler);
+
+    /** True when other nodes may hold connections, so local connection checks are not enough. */
+    boolean isDistributed();
+}
@@ -0,0 +1,320 @@
+package com.drilldex.drillbackend.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared SSE hub behind the chat and notification broadcasters.
+ *
+ * - Publishers only enqueue: every connection has a bounded outbound queue that is drained by a
+ *   small writer pool, so a slow client never blocks the thread that saved the message.
+ *   A connection whose queue overflows is closed; the browser reconnects with Last-Event-ID.
+ * - Heartbeat comments keep idle streams alive through proxies.
+ * - The last events per (channel, user) are kept in a short ring buffer and replayed to a
+ *   reconnecting client that sends Last-Event-ID. Streams are kept for the replay window after
+ *   the last connection closes, so memory is bounded by recently connected users.
+ */
+@Component
+@Slf4j
+public class SseHub {
+
+    private record Key(SseChannel channel, Long userId) {}
+
+    /** One outbound event; id is null for init/heartbeat events that are not replayable. */
+    private record Event(Long id, String name, Object data, boolean comment) {
+        SseEmitter.SseEventBuilder toBuilder() {
+            if (comment) return SseEmitter.event().comment(String.valueOf(data));
+            SseEmitter.SseEventBuilder b = SseEmitter.event().name(name).data(data);
+            return id != null ? b.id(Long.toString(id)) : b;
+        }
+    }
+
+    private final Map<Key, UserStream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong(System.currentTimeMillis() * 1000); // restart-safe ordering
+
+    private final long timeoutMs;
+    private final int queueCapacity;
+    private final int replaySize;
+    private final long replayWindowMs;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeats;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Counter overflows;
+
+    public SseHub(MeterRegistry meterRegistry,
+                  @Value("${app.sse.timeout-minutes:30}") long timeoutMinutes,
+                  @Value("${app.sse.queue-capacity:256}") int queueCapacity,
+                  @Value("${app.sse.replay-size:100}") int replaySize,
+                  @Value("${app.sse.replay-window-seconds:120}") long replayWindowSeconds,
+                  @Value("${app.sse.heartbeat-seconds:15}") long heartbeatSeconds,
+                  @Value("${app.sse.writer-threads:4}") int writerThreads,
+                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.timeoutMs = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.replaySize = Math.max(0, replaySize);
+        this.replayWindowMs = Duration.ofSeconds(replayWindowSeconds).toMillis();
+
+        this.writers = newWriterPool(writerThreads, virtualThreads);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeats.scheduleAtFixedRate(this::heartbeatAndSweep, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        this.overflows = Counter.builder("sse.queue.overflows")
+                .description("Connections closed because their outbound queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("sse.connections", connectionCount);
+    }
+
+    /**
+     * Opens a stream for a user on a channel. Events newer than lastEventId still in the replay
+     * buffer are sent right after the init event, so userId must be the authenticated caller's.
+     */
+    public SseEmitter subscribe(SseChannel channel, Long userId, String lastEventId) {
+        Objects.requireNonNull(userId, "userId");
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Connection c = new Connection(channel, userId, emitter);
+
+        emitter.onCompletion(() -> close(c));
+        emitter.onTimeout(() -> close(c));
+        emitter.onError(e -> close(c));
+
+        // Initial event so client knows it's alive
+        c.offer(new Event(null, "init", "{\"ok\":true}", false));
+
+        Long after = parseEventId(lastEventId);
+        streams.compute(new Key(channel, userId), (k, s) -> {
+            UserStream stream = s != null ? s : new UserStream();
+            stream.attach(c, after);
+            return stream;
+        });
+        connectionCount.incrementAndGet();
+        schedule(c);
+        return emitter;
+    }
+
+    /** Queues an event for every connection of the user on this channel; never blocks on I/O. */
+    public void publish(SseChannel channel, Long userId, String eventName, Object payload) {
+        if (userId == null) return;
+        UserStream stream = streams.get(new Key(channel, userId));
+        if (stream == null) return; // not connected recently: nothing to deliver or replay
+
+        Event event = new Event(eventIds.incrementAndGet(), eventName, payload, false);
+        for (Connection c : stream.append(event)) {
+            if (c.offer(event)) {
+                schedule(c);
+            } else {
+                overflows.increment();
+                log.debug("SSE queue full for user {} on {}, closing connection", userId, channel);
+                c.fail();
+            }
+        }
+    }
+
+    /** Open connections on this node, all channels. */
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    /** Users with at least one open connection on this channel, on this node. */
+    public Set<Long> connectedUserIds(SseChannel channel) {
+        Set<Long> ids = new HashSet<>();
+        streams.forEach((k, s) -> {
+            if (k.channel() == channel && s.hasConnections()) ids.add(k.userId());
+        });
+        return ids;
+    }
+
+    /* ==============================
+       Delivery
+       ============================== */
+
+    private void schedule(Connection c) {
+        if (c.scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(c));
+            } catch (RejectedExecutionException e) {
+                c.scheduled.set(false); // shutting down
+            }
+        }
+    }
+
+    private void drain(Connection c) {
+        do {
+            Event e;
+            while ((e = c.queue.poll()) != null) {
+                if (c.closed.get()) {
+                    c.queue.clear();
+                    break;
+                }
+                try {
+                    c.emitter.send(e.toBuilder());
+                } catch (IOException | IllegalStateException ex) {
+                    // Client went away (or emitter already completed)
+                    c.fail();
+                }
+            }
+            c.scheduled.set(false);
+        } while (!c.queue.isEmpty() && !c.closed.get() && c.scheduled.compareAndSet(false, true));
+    }
+
+    private void close(Connection c) {
+        if (c.closed.getAndSet(true)) return;
+        connectionCount.decrementAndGet();
+        c.queue.clear();
+        UserStream stream = streams.get(new Key(c.channel, c.userId));
+        if (stream != null) stream.detach(c);
+    }
+
+    // Package-private so tests can capture what is written to a connection
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void heartbeatAndSweep() {
+        try {
+            long now = System.currentTimeMillis();
+            Event ping = new Event(null, null, "hb", true);
+            for (Map.Entry<Key, UserStream> entry : streams.entrySet()) {
+                UserStream stream = entry.getValue();
+                for (Connection c : stream.connections()) {
+                    // Only idle connections need a ping; a busy queue keeps the stream alive anyway
+                    if (c.queue.isEmpty() && c.offer(ping)) schedule(c);
+                }
+                streams.computeIfPresent(entry.getKey(), (k, s) -> s.isExpired(now, replayWindowMs) ? null : s);
+            }
+        } catch (RuntimeException e) {
+            log.warn("SSE heartbeat failed", e);
+        }
+    }
+
+    /**
+     * Platform writer pool, or one virtual thread per drain when virtual threads are enabled and
+     * the runtime supports them (JDK 21+; looked up reflectively since the build targets 17).
+     */
+    private static ExecutorService newWriterPool(int writerThreads, boolean virtualThreads) {
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    log.warn("Virtual threads unavailable, using {} SSE writer threads", writerThreads, e);
+                }
+            } else {
+                log.warn("spring.threads.virtual.enabled needs JDK 21+, running on {}; using platform threads",
+                        Runtime.version());
+            }
+        }
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+            Thread t = new Thread(r, "sse-writer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        writers.shutdown();
+        streams.values().forEach(s -> s.connections().forEach(c -> c.emitter.complete()));
+    }
+
+    /* ==============================
+       Per-user state
+       ============================== */
+
+    private final class Connection {
+        final SseChannel channel;
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(SseChannel channel, Long userId, SseEmitter emitter) {
+            this.channel = channel;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        boolean offer(Event e) {
+            return !closed.get() && queue.offer(e);
+        }
+
+        void fail() {
+            if (closed.get()) return;
+            close(this);
+            emitter.complete();
+        }
+    }
+
+    /** Connections and replay ring of one (channel, user); all access is synchronized on this. */
+    private final class UserStream {
+        private final List<Connection> connections = new ArrayList<>(2);
+        private final ArrayDeque<Event> ring = new ArrayDeque<>();
+        private long lastActivity = System.currentTimeMillis();
+
+        /** Adds a connection and queues the replay atomically w.r.t. publish, so nothing is missed or doubled. */
+        synchronized void attach(Connection c, Long afterEventId) {
+            if (afterEventId != null) {
+                for (Event e : ring) {
+                    if (e.id() > afterEventId) c.offer(e);
+                }
+            }
+            connections.add(c);
+            lastActivity = System.currentTimeMillis();
+        }
+
+        synchronized void detach(Connection c) {
+            connections.remove(c);
+            lastActivity = System.currentTimeMillis();
+        }
+
+        /** Records the event for replay and returns the connections it must go to. */
+        synchronized List<Connection> append(Event e) {
+            if (replaySize > 0) {
+                if (ring.size() == replaySize) ring.removeFirst();
+                ring.addLast(e);
+            }
+            lastActivity = System.currentTimeMillis();
+            return List.copyOf(connections);
+        }
+
+        synchronized List<Connection> connections() {
+            return List.copyOf(connections);
+        }
+
+        synchronized boolean hasConnections() {
+            return !connections.isEmpty();
+        }
+
+        synchronized boolean isExpired(long now, long windowMs) {
+            return connections.isEmpty() && now - lastActivity > windowMs;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.drilldex.drillbackend.sse;
+
+import java.util.List;
+
+/** One SSE event for one or more users; each target carries its own payload. */
+public record SseMessage(SseChannel channel, String event, List<Target> targets) {
+
+    public record Target(Long userId, Object payload) {}
+
+    public static SseMessage to(SseChannel channel, Long userId, String event, Object payload) {
+        return new SseMessage(channel, event, List.of(new Target(userId, payload)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.drilldex.drillbackend.sse;
+
+import com.drilldex.drillbackend.auth.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+
+/**
+ * Load-test hooks for SSE sizing (see SseLoadHarness under src/test). Disabled unless
+ * app.sse.probe.enabled=true; never enable it on a public node.
+ *
+ * Probes only touch synthetic user ids from app.sse.probe.first-user-id up, and their tokens carry
+ * a "probe" scope that the real chat and notification streams reject, so a probe can neither read
+ * nor write a real user's stream.
+ */
+@RestController
+@RequestMapping("/api/sse/probe")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.sse.probe.enabled", havingValue = "true")
+public class SseProbeController {
+
+    private static final int MAX_RECIPIENTS = 100_000;
+
+    private final SseHub hub;
+    private final JwtService jwtService;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.sse.probe.first-user-id:1000000000000}")
+    private long firstSyntheticUserId;
+
+    /** Publishes a "probe" notification event carrying the send time to each synthetic user in the range. */
+    @PostMapping("/publish")
+    public ResponseEntity<?> publish(@RequestParam long fromUserId, @RequestParam long toUserId) {
+        if (fromUserId < firstSyntheticUserId || toUserId < fromUserId || toUserId - fromUserId >= MAX_RECIPIENTS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid user range"));
+        }
+        int published = 0;
+        for (long id = fromUserId; id <= toUserId; id++) {
+            hub.publish(SseChannel.NOTIFICATION, id, "probe", Map.of("sentAt", System.currentTimeMillis()));
+            published++;
+        }
+        return ResponseEntity.ok(Map.of("published", published));
+    }
+
+    /** Probe token for a synthetic user id, so the harness can open streams without logging in. */
+    @GetMapping("/stream-token")
+    public ResponseEntity<?> streamToken(@RequestParam long userId) {
+        if (userId < firstSyntheticUserId) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Probe user ids start at " + firstSyntheticUserId));
+        }
+        return ResponseEntity.ok(Map.of("token", jwtService.generateProbeToken(userId)));
+    }
+
+    /** Notification-channel stream of a synthetic user; only accepts probe tokens. */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam String token,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = jwtService.parseProbeToken(token);
+        if (userId == null || userId < firstSyntheticUserId) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Probe token required");
+        }
+        return hub.subscribe(SseChannel.NOTIFICATION, userId, lastEventId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return Map.of(
+                "connections", hub.connectionCount(),
+                "heapUsed", memory.getHeapMemoryUsage().getUsed(),
+                "nonHeapUsed", memory.getNonHeapMemoryUsage().getUsed(),
+                "platformThreads", ManagementFactory.getThreadMXBean().getThreadCount(),
+                "virtualThreads", virtualThreads,
+                "runtime", Runtime.version().toString()
+        );
+    }
+}
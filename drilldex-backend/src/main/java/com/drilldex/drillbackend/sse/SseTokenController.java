@@ -0,0 +1,35 @@
+package com.drilldex.drillbackend.sse;
+
+import com.drilldex.drillbackend.auth.CustomUserDetails;
+import com.drilldex.drillbackend.auth.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+/**
+ * Issues the short-lived token that opens the caller's chat and notification streams.
+ * EventSource cannot send an Authorization header, so the streams take it as ?token= instead.
+ */
+@RestController
+@RequestMapping("/api/sse")
+@RequiredArgsConstructor
+public class SseTokenController {
+
+    private final JwtService jwtService;
+
+    @PostMapping("/token")
+    public Map<String, Object> token(@AuthenticationPrincipal CustomUserDetails principal) {
+        if (principal == null || principal.getId() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return Map.of(
+                "token", jwtService.generateStreamToken(principal.getId()),
+                "expiresInMs", jwtService.getStreamTokenExpirationMs());
+    }
+}
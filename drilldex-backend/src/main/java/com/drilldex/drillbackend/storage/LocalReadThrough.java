@@ -0,0 +1,30 @@
+// src/main/java/com/drilldex/drillbackend/storage/LocalReadThrough.java
+package com.drilldex.drillbackend.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Static hook so static helpers (AudioUtils, resource resolvers) can ask the active storage
+ * backend for a local copy of a key. Only set when the backend is not plain local disk.
+ */
+public final class LocalReadThrough {
+
+    private static volatile StorageService backend;
+
+    private LocalReadThrough() {}
+
+    static void register(StorageService service) {
+        backend = service;
+    }
+
+    static void unregister(StorageService service) {
+        if (backend == service) backend = null;
+    }
+
+    /** Local path for a key, fetched from the backend if needed; null when no backend or unknown key. */
+    public static Path resolve(String key) throws IOException {
+        StorageService s = backend;
+        return s != null ? s.resolveLocal(key) : null;
+    }
+}
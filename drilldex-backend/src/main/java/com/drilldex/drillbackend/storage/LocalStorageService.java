@@ -8,22 +8,41 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @ConditionalOnProperty(name = "app.storage.provider", havingValue = "local", matchIfMissing = true)
 public class LocalStorageService implements StorageService {
 
+    private static final int COPY_BUFFER = 1 << 20; // 1 MiB; uploads are mostly multi-MB audio
+
     private final Path rootDir;       // e.g. /var/app/uploads
     private final String webBase;     // e.g. /uploads
+    private final boolean sharded;    // layout v2: folder/ab/cd/<uuid>
+    private final Set<String> shardedFolders;
+    private final boolean fsync;
+    private final boolean preallocate;
 
     public LocalStorageService(
             @Value("${app.upload.root:uploads}") String uploadRoot,
-            @Value("${app.storage.local.web-base:/uploads}") String webBase
+            @Value("${app.storage.local.web-base:/uploads}") String webBase,
+            @Value("${app.storage.local.layout:v1}") String layout,
+            @Value("${app.storage.local.sharded-folders:audio,covers,previews,avatars,banners,packs/audio,packs/covers,packs/previews,kits/audio,kits/covers,kits/previews,kits/files}") Set<String> shardedFolders,
+            @Value("${app.storage.local.fsync:true}") boolean fsync,
+            @Value("${app.storage.local.preallocate:false}") boolean preallocate
     ) throws IOException {
         this.rootDir = Path.of(uploadRoot).toAbsolutePath().normalize();
         this.webBase = webBase.replaceAll("/+$","");
+        this.sharded = StorageLayout.V2.equalsIgnoreCase(layout);
+        this.shardedFolders = shardedFolders;
+        this.fsync = fsync;
+        this.preallocate = preallocate;
         Files.createDirectories(this.rootDir);
     }
 
@@ -38,12 +57,17 @@ public class LocalStorageService implements StorageService {
         String name = UUID.randomUUID() + (ext.isBlank() ? "" : "." + ext);
         String safeFolder = (folder == null || folder.isBlank()) ? "misc" : folder;
 
-        Path target = rootDir.resolve(safeFolder).resolve(name).normalize();
+        // Stems folders stay flat: their structure is copied into download zips as-is
+        String key = sharded && shardedFolders.contains(safeFolder)
+                ? StorageLayout.shardedKey(safeFolder, name)
+                : safeFolder + "/" + name;
+
+        Path target = rootDir.resolve(key).normalize();
         Files.createDirectories(target.getParent());
-        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        writeAtomically(in, size, target);
 
         // Return *storage key* like "audio/uuid.mp3" — your mappers can turn that into "/uploads/audio/..."
-        return safeFolder + "/" + name;
+        return key;
     }
 
     @Override
@@ -52,13 +76,93 @@ public class LocalStorageService implements StorageService {
 
         // Accept either "/uploads/audio/..." or "audio/..."
         String key = keyOrUrl.replaceFirst("^/?uploads/?", "");
-        Path p = rootDir.resolve(key).normalize();
+        Path p = StorageLayout.resolveExisting(rootDir, key);
         Files.deleteIfExists(p);
     }
 
+    /** Writes bytes under an exact key; used by tiered storage to mirror objects between roots. */
+    public void store(String key, InputStream in, long size) throws IOException {
+        Path target = rootDir.resolve(key).normalize();
+        if (!target.startsWith(rootDir)) throw new IOException("Invalid storage path");
+        Files.createDirectories(target.getParent());
+        writeAtomically(in, size, target);
+    }
+
+    @Override
+    public InputStream load(String key) throws IOException {
+        Path p = StorageLayout.resolveExisting(rootDir, key);
+        return p.startsWith(rootDir) && Files.isRegularFile(p) ? Files.newInputStream(p) : null;
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        Path p = StorageLayout.resolveExisting(rootDir, prefix);
+        if (!p.startsWith(rootDir) || !Files.exists(p)) return List.of();
+        if (Files.isRegularFile(p)) return List.of(rootDir.relativize(p).toString().replace('\\', '/'));
+
+        try (Stream<Path> walk = Files.walk(p)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().startsWith(".")) // in-flight ".part" files
+                    .map(f -> rootDir.relativize(f).toString().replace('\\', '/'))
+                    .toList();
+        }
+    }
+
+    @Override
+    public Path resolveLocal(String key) {
+        Path p = StorageLayout.resolveExisting(rootDir, key);
+        return p.startsWith(rootDir) && Files.exists(p) ? p : null;
+    }
+
+    /**
+     * Streams into a hidden temp file next to the target, optionally fsyncs it, then renames it
+     * into place, so readers never see a half-written file and a crash leaves only a ".part".
+     */
+    private void writeAtomically(InputStream in, long size, Path target) throws IOException {
+        Path tmp = target.resolveSibling("." + target.getFileName() + ".part");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                if (preallocate && size > 0) {
+                    // Java has no fallocate(); extending to the final length lets the FS plan extents up front
+                    ch.write(ByteBuffer.wrap(new byte[1]), size - 1);
+                }
+
+                byte[] buf = new byte[COPY_BUFFER];
+                long written = 0;
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    ByteBuffer bb = ByteBuffer.wrap(buf, 0, n);
+                    while (bb.hasRemaining()) written += ch.write(bb);
+                }
+                if (ch.size() > written) ch.truncate(written); // declared size was larger than the stream
+
+                if (fsync) ch.force(true);
+            }
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (fsync) syncDirectory(target.getParent());
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /** Persists the rename itself; not supported on every platform (e.g. Windows), so best effort. */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
     private static String ext(String name) {
         if (name == null) return "";
         int dot = name.lastIndexOf('.');
         return dot >= 0 ? name.substring(dot + 1).toLowerCase() : "";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+// src/main/java/com/drilldex/drillbackend/storage/ShardedPathResourceResolver.java
+package com.drilldex.drillbackend.storage;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+
+/**
+ * Serves /uploads/** for flat keys whose files now live in the sharded (v2) layout, and for
+ * objects that only exist in the cold tier of tiered storage.
+ */
+public class ShardedPathResourceResolver extends PathResourceResolver {
+
+    @Override
+    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+        Resource direct = super.getResource(resourcePath, location);
+        if (direct != null) return direct;
+
+        String sharded = StorageLayout.toSharded(resourcePath);
+        if (sharded != null) {
+            Resource moved = super.getResource(sharded, location);
+            if (moved != null) return moved;
+        }
+
+        // Tiered storage: pull the object back from the cold tier into the hot cache
+        return LocalReadThrough.resolve(resourcePath) != null ? super.getResource(resourcePath, location) : null;
+    }
+}
@@ -0,0 +1,286 @@
+// src/main/java/com/drilldex/drillbackend/storage/StorageGarbageCollector.java
+package com.drilldex.drillbackend.storage;
+
+import com.drilldex.drillbackend.util.AudioUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Reclaims files nobody references any more: previews/stems of deleted beats, stale zips in
+ * packZips/, kitZips/ and downloads/, license PDFs of deleted purchases, crashed ".part" uploads.
+ *
+ * 1. Streams every path-like column (path, *_path, *_paths, *_url) of the schema into a set of
+ *    referenced absolute paths. A reference to a directory (stems prefix) protects everything below it.
+ * 2. Walks the upload root and the generated-file roots in parallel. The walk is not rate-limited;
+ *    walk-threads is the only bound on its disk I/O, so keep it low on busy disks.
+ * 3. Files that are unreferenced and older than the grace period are reported (dry run) or
+ *    deleted at a bounded rate.
+ *
+ * If any reference query fails the run is aborted before anything is deleted.
+ */
+@Service
+@Slf4j
+public class StorageGarbageCollector {
+
+    private static final int SAMPLE_SIZE = 100;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final Path uploadRoot;
+    private final Path licensesDir;
+    private final List<Path> extraRoots;
+    private final boolean scheduledEnabled;
+    private final boolean defaultDryRun;
+    private final Duration grace;
+    private final int deletesPerSecond;
+    private final int walkThreads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public StorageGarbageCollector(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.upload.root:uploads}") String uploadRoot,
+            @Value("${app.licenses.dir:licenses}") String licensesDir,
+            @Value("${app.storage.gc.extra-roots:licenses,packZips,kitZips,downloads}") List<String> extraRoots,
+            @Value("${app.storage.gc.enabled:false}") boolean scheduledEnabled,
+            @Value("${app.storage.gc.dry-run:true}") boolean defaultDryRun,
+            @Value("${app.storage.gc.grace-hours:72}") long graceHours,
+            @Value("${app.storage.gc.deletes-per-second:50}") int deletesPerSecond,
+            @Value("${app.storage.gc.walk-threads:4}") int walkThreads
+    ) {
+        // Separate template so the large fetch size does not leak into other queries
+        this.jdbc = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbc.setFetchSize(1000);
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true); // Postgres only streams with a fetch size inside a transaction
+        this.uploadRoot = Path.of(uploadRoot).toAbsolutePath().normalize();
+        this.licensesDir = Path.of(licensesDir).toAbsolutePath().normalize();
+        this.extraRoots = extraRoots.stream().map(r -> Path.of(r).toAbsolutePath().normalize()).toList();
+        this.scheduledEnabled = scheduledEnabled;
+        this.defaultDryRun = defaultDryRun;
+        this.grace = Duration.ofHours(graceHours);
+        this.deletesPerSecond = Math.max(1, deletesPerSecond);
+        this.walkThreads = Math.max(1, walkThreads);
+    }
+
+    public record Report(boolean dryRun,
+                         Instant startedAt,
+                         long durationMs,
+                         long referencedPaths,
+                         long filesScanned,
+                         long candidates,
+                         long candidateBytes,
+                         long deleted,
+                         long deletedBytes,
+                         Map<String, Long> candidateBytesByRoot,
+                         List<String> sample) {}
+
+    private record Candidate(Path root, Path file, long size) {}
+
+    @Scheduled(cron = "${app.storage.gc.cron:0 30 4 * * SUN}")
+    public void scheduledRun() {
+        if (!scheduledEnabled) return;
+        Report r = run(defaultDryRun);
+        if (r != null) {
+            log.info("Storage GC ({}): {} candidates, {} bytes, {} deleted",
+                    r.dryRun() ? "dry run" : "live", r.candidates(), r.candidateBytes(), r.deleted());
+        }
+    }
+
+    /** Runs one collection; returns null if another run is in progress. */
+    public Report run(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) return null;
+        try {
+            return collect(dryRun);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Report collect(boolean dryRun) {
+        Instant started = Instant.now();
+        Instant cutoff = started.minus(grace);
+
+        Set<Path> referenced = loadReferences();
+
+        List<Path> roots = new ArrayList<>();
+        roots.add(uploadRoot);
+        for (Path r : extraRoots) if (!r.startsWith(uploadRoot)) roots.add(r);
+
+        LongAdder scanned = new LongAdder();
+        Queue<Candidate> candidates = new ConcurrentLinkedQueue<>();
+        walkAll(roots, referenced, cutoff, scanned, candidates);
+
+        long candidateBytes = 0, deleted = 0, deletedBytes = 0;
+        Map<String, Long> byRoot = new TreeMap<>();
+        List<String> sample = new ArrayList<>();
+        long pauseMs = Math.max(1, 1000L / deletesPerSecond);
+
+        for (Candidate c : candidates) {
+            candidateBytes += c.size();
+            byRoot.merge(c.root().getFileName().toString(), c.size(), Long::sum);
+            if (sample.size() < SAMPLE_SIZE) sample.add(c.root().relativize(c.file()).toString().replace('\\', '/'));
+            if (dryRun) continue;
+
+            try {
+                if (Files.deleteIfExists(c.file())) {
+                    deleted++;
+                    deletedBytes += c.size();
+                }
+                Thread.sleep(pauseMs);
+            } catch (IOException e) {
+                log.warn("Storage GC could not delete {}", c.file(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return new Report(dryRun, started, Duration.between(started, Instant.now()).toMillis(),
+                referenced.size(), scanned.sum(), candidates.size(), candidateBytes,
+                deleted, deletedBytes, byRoot, sample);
+    }
+
+    /* ==============================
+       Referenced paths
+       ============================== */
+
+    // Package-private so tests can supply the references without a schema
+    Set<Path> loadReferences() {
+        List<Map<String, Object>> columns = jdbc.queryForList("""
+                SELECT table_name, column_name
+                FROM information_schema.columns
+                WHERE table_schema = current_schema()
+                  AND data_type IN ('character varying', 'text')
+                  AND (column_name = 'path'
+                       OR column_name LIKE '%!_path' ESCAPE '!'
+                       OR column_name LIKE '%!_paths' ESCAPE '!'
+                       OR column_name LIKE '%!_url' ESCAPE '!')
+                """);
+
+        Set<Path> refs = ConcurrentHashMap.newKeySet();
+        readTx.executeWithoutResult(tx -> {
+            for (Map<String, Object> col : columns) {
+                String table = quote((String) col.get("table_name"));
+                String column = quote((String) col.get("column_name"));
+                jdbc.query("SELECT " + column + " FROM " + table + " WHERE " + column + " IS NOT NULL",
+                        rs -> { addReference(refs, rs.getString(1)); });
+            }
+        });
+        log.debug("Storage GC loaded {} referenced paths from {} columns", refs.size(), columns.size());
+        return refs;
+    }
+
+    void addReference(Set<Path> refs, String raw) {
+        if (raw == null || raw.isBlank()) return;
+        String v = raw.trim().replace('\\', '/');
+
+        // Working-dir relative or absolute (licenses/..., packZips/...)
+        try {
+            refs.add(Path.of(v).toAbsolutePath().normalize());
+        } catch (InvalidPathException ignored) {}
+
+        if (v.startsWith("licenses/")) {
+            refs.add(licensesDir.resolve(v.substring("licenses/".length())).normalize());
+        }
+
+        // Storage keys and /uploads/... URLs, including their sharded location
+        String key = AudioUtils.normalizeStorageKey(v);
+        if (key == null) return;
+        try {
+            refs.add(uploadRoot.resolve(key).normalize());
+            String sharded = StorageLayout.toSharded(key);
+            if (sharded != null) refs.add(uploadRoot.resolve(sharded).normalize());
+        } catch (InvalidPathException ignored) {}
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /* ==============================
+       Parallel walk
+       ============================== */
+
+    private void walkAll(List<Path> roots, Set<Path> referenced, Instant cutoff,
+                         LongAdder scanned, Queue<Candidate> out) {
+        ExecutorService pool = Executors.newFixedThreadPool(walkThreads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Path root : roots) {
+                if (!Files.isDirectory(root)) continue;
+                // One task per top-level subtree; files directly in the root are walked with depth 1
+                try (Stream<Path> children = Files.list(root)) {
+                    for (Path child : (Iterable<Path>) children::iterator) {
+                        if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                            tasks.add(pool.submit(() -> walk(root, child, Integer.MAX_VALUE, referenced, cutoff, scanned, out)));
+                        }
+                    }
+                }
+                tasks.add(pool.submit(() -> walk(root, root, 1, referenced, cutoff, scanned, out)));
+            }
+            for (Future<?> f : tasks) f.get();
+        } catch (IOException | ExecutionException e) {
+            throw new IllegalStateException("Storage GC walk failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Storage GC interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Void walk(Path root, Path start, int maxDepth, Set<Path> referenced, Instant cutoff,
+                      LongAdder scanned, Queue<Candidate> out) throws IOException {
+        Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                // A referenced directory (stems prefix) protects its whole subtree
+                return !dir.equals(root) && referenced.contains(dir)
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                scanned.increment();
+                if (attrs.lastModifiedTime().toInstant().isBefore(cutoff)
+                        && !isReferenced(file, root, referenced)) {
+                    out.add(new Candidate(root, file, attrs.size()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                log.debug("Storage GC skipped unreadable {}", file, exc);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return null;
+    }
+
+    private static boolean isReferenced(Path file, Path root, Set<Path> referenced) {
+        for (Path p = file; p != null && p.startsWith(root) && !p.equals(root); p = p.getParent()) {
+            if (referenced.contains(p)) return true;
+        }
+        return false;
+    }
+}
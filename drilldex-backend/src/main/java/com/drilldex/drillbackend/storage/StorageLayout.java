@@ -0,0 +1,81 @@
+// src/main/java/com/drilldex/drillbackend/storage/StorageLayout.java
+package com.drilldex.drillbackend.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk layout of local storage keys.
+ *
+ * v1 (flat):    {@code packs/audio/<uuid>.wav}
+ * v2 (sharded): {@code packs/audio/ab/cd/<uuid>.wav}, where "abcd" are the first two bytes of
+ *               SHA-1(leaf name), so no directory grows past a few thousand entries.
+ *
+ * The shard is part of the returned key, so v2 keys resolve like any other path. Flat keys whose
+ * file has been moved by {@link StorageLayoutMigrator} resolve through {@link #resolveExisting}.
+ */
+public final class StorageLayout {
+
+    public static final String V1 = "v1";
+    public static final String V2 = "v2";
+
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private StorageLayout() {}
+
+    /** "ab/cd" for a leaf file name. */
+    public static String shardOf(String leaf) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-1").digest(leaf.getBytes(StandardCharsets.UTF_8));
+            return new String(new char[]{
+                    HEX[(d[0] >> 4) & 0xF], HEX[d[0] & 0xF], '/',
+                    HEX[(d[1] >> 4) & 0xF], HEX[d[1] & 0xF]});
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-1 is mandatory in every JRE
+        }
+    }
+
+    /** "folder/ab/cd/leaf". */
+    public static String shardedKey(String folder, String leaf) {
+        return folder + "/" + shardOf(leaf) + "/" + leaf;
+    }
+
+    /** True if the key already has the v2 shape for its leaf. */
+    public static boolean isSharded(String key) {
+        String[] parts = key.split("/");
+        if (parts.length < 3) return false;
+        String a = parts[parts.length - 3], b = parts[parts.length - 2];
+        return SHARD.matcher(a).matches() && SHARD.matcher(b).matches()
+                && shardOf(parts[parts.length - 1]).equals(a + "/" + b);
+    }
+
+    /** The v2 location of a flat key ("folder/leaf" → "folder/ab/cd/leaf"), or null if not applicable. */
+    public static String toSharded(String flatKey) {
+        if (flatKey == null || isSharded(flatKey)) return null;
+        int slash = flatKey.lastIndexOf('/');
+        if (slash <= 0 || slash == flatKey.length() - 1) return null;
+        return shardedKey(flatKey.substring(0, slash), flatKey.substring(slash + 1));
+    }
+
+    /**
+     * Resolves a key under root, falling back to the sharded location when the flat file is gone.
+     * Returns the direct path if neither exists, so callers keep their own "not found" handling.
+     */
+    public static Path resolveExisting(Path root, String key) {
+        Path base = root.toAbsolutePath().normalize();
+        Path direct = base.resolve(key).normalize();
+        if (Files.exists(direct)) return direct;
+
+        String alt = toSharded(key.replace('\\', '/'));
+        if (alt != null) {
+            Path sharded = base.resolve(alt).normalize();
+            if (sharded.startsWith(base) && Files.exists(sharded)) return sharded;
+        }
+        return direct;
+    }
+}
@@ -0,0 +1,96 @@
+// src/main/java/com/drilldex/drillbackend/storage/StorageLayoutMigrator.java
+package com.drilldex.drillbackend.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Moves existing flat files (folder/&lt;uuid&gt;.ext) into the sharded v2 layout in the background.
+ *
+ * DB keys are left untouched: flat keys keep resolving through {@link StorageLayout#resolveExisting}
+ * and {@link ShardedPathResourceResolver}. Only UUID-named files written by LocalStorageService are
+ * moved, one folder level deep, throttled so it does not compete with uploads for disk I/O.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.storage.local.migrate.enabled", havingValue = "true")
+public class StorageLayoutMigrator {
+
+    private static final Pattern UUID_NAME =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(\\.[A-Za-z0-9]+)?");
+
+    private final Path rootDir;
+    private final Set<String> shardedFolders;
+    private final int filesPerSecond;
+
+    public StorageLayoutMigrator(
+            @Value("${app.upload.root:uploads}") String uploadRoot,
+            @Value("${app.storage.local.sharded-folders:audio,covers,previews,avatars,banners,packs/audio,packs/covers,packs/previews,kits/audio,kits/covers,kits/previews,kits/files}") Set<String> shardedFolders,
+            @Value("${app.storage.local.migrate.files-per-second:200}") int filesPerSecond
+    ) {
+        this.rootDir = Path.of(uploadRoot).toAbsolutePath().normalize();
+        this.shardedFolders = shardedFolders;
+        this.filesPerSecond = Math.max(1, filesPerSecond);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread t = new Thread(this::migrateAll, "storage-layout-migrator");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    void migrateAll() {
+        long moved = 0;
+        long pauseNanos = 1_000_000_000L / filesPerSecond;
+        for (String folder : shardedFolders) {
+            Path dir = rootDir.resolve(folder).normalize();
+            if (!dir.startsWith(rootDir) || !Files.isDirectory(dir)) continue;
+
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path p : (Iterable<Path>) files::iterator) {
+                    String leaf = p.getFileName().toString();
+                    if (!UUID_NAME.matcher(leaf).matches() || !Files.isRegularFile(p)) continue;
+
+                    if (move(p, rootDir.resolve(StorageLayout.shardedKey(folder, leaf)))) moved++;
+                    Thread.sleep(pauseNanos / 1_000_000, (int) (pauseNanos % 1_000_000));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Storage layout migration interrupted after {} files", moved);
+                return;
+            } catch (IOException e) {
+                log.warn("Storage layout migration failed for {}", dir, e);
+            }
+        }
+        log.info("Storage layout migration finished, moved {} files", moved);
+    }
+
+    private static boolean move(Path from, Path to) {
+        try {
+            Files.createDirectories(to.getParent());
+            try {
+                Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(from, to);
+            }
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            log.warn("Skipping {}: {} already exists", from, to);
+        } catch (IOException e) {
+            log.warn("Could not move {} to {}", from, to, e);
+        }
+        return false;
+    }
+}
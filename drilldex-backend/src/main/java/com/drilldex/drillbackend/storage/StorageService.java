@@ -5,6 +5,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
 
 public interface StorageService {
     /** Save bytes under a logical folder (e.g. "audio", "covers", "kits") and return a *storage key* or a public URL. */
@@ -15,4 +17,15 @@ public interface StorageService {
 
     /** Delete by key or URL (impl handles both). */
     default void delete(String keyOrUrl) throws IOException {}
-}
\ No newline at end of file
+
+    /* ---- Optional key-level access, used when one backend mirrors another (tiered storage) ---- */
+
+    /** Open a stored object for reading, or null if it does not exist. */
+    default InputStream load(String key) throws IOException { return null; }
+
+    /** Keys of all objects under a prefix (a single key returns itself); empty if unsupported. */
+    default List<String> list(String prefix) throws IOException { return List.of(); }
+
+    /** A local filesystem path for a key, fetching it first if needed; null if not available locally. */
+    default Path resolveLocal(String key) throws IOException { return null; }
+}
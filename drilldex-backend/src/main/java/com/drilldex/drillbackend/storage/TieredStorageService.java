@@ -0,0 +1,378 @@
+// src/main/java/com/drilldex/drillbackend/storage/TieredStorageService.java
+package com.drilldex.drillbackend.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Local hot cache in front of a cold StorageService.
+ *
+ * - Writes land on the hot tier (the regular upload root) and are copied to the cold tier
+ *   asynchronously (write-behind). Until that copy succeeds the entry is dirty and never evicted.
+ * - The hot tier is bounded by bytes; the least recently used clean entries are evicted.
+ *   Pinned folders (previews, covers) always stay hot.
+ * - Reads go through {@link #resolveLocal}: a hot hit returns the local path, a miss pulls the
+ *   object back from the cold tier (concurrent misses for one key share a single fetch).
+ *   Every path handed out leases its entry for {@code app.storage.tiered.serve-lease-ms}, so it
+ *   is not evicted between being resolved and being opened by the caller.
+ *
+ * Hot entries are tracked by their on-disk key, which for flat keys moved by the layout
+ * migrator is the sharded one; lookups go through {@link StorageLayout#resolveExisting}.
+ *
+ * The cold tier is a second filesystem root standing in for object storage. Only keys under
+ * {@code app.storage.tiered.folders} are tiered; anything else written into the upload root
+ * by other code is left alone.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.storage.provider", havingValue = "tiered")
+public class TieredStorageService implements StorageService {
+
+    private final LocalStorageService hot;
+    private final LocalStorageService cold;
+    private final Path hotRoot;
+    private final long capacityBytes;
+    private final List<String> tieredFolders;
+    private final List<String> pinnedFolders;
+
+    // Access-ordered LRU of hot entries keyed by on-disk key; guarded by "this",
+    // which is also held while victims are unlinked
+    private final LinkedHashMap<String, CacheEntry> lru = new LinkedHashMap<>(1024, 0.75f, true);
+    private volatile long usedBytes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlightFetches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writeBehindExecutor;
+    private final long retryDelayMs;
+    private final long serveLeaseMs;
+
+    private final MeterRegistry meterRegistry;
+    private Counter hits, misses, evictions, writeBehindFailures;
+
+    private static final class CacheEntry {
+        final long size;
+        boolean dirty;
+        long leasedUntil; // not evictable before this (System.currentTimeMillis)
+
+        CacheEntry(long size, boolean dirty) {
+            this.size = size;
+            this.dirty = dirty;
+        }
+    }
+
+    public TieredStorageService(
+            @Value("${app.upload.root:uploads}") String uploadRoot,
+            @Value("${app.storage.local.web-base:/uploads}") String webBase,
+            @Value("${app.storage.local.layout:v1}") String layout,
+            @Value("${app.storage.local.sharded-folders:audio,covers,previews,avatars,banners,packs/audio,packs/covers,packs/previews,kits/audio,kits/covers,kits/previews,kits/files}") Set<String> shardedFolders,
+            @Value("${app.storage.tiered.cold-root:cold-storage}") String coldRoot,
+            @Value("${app.storage.tiered.hot-capacity-mb:10240}") long hotCapacityMb,
+            @Value("${app.storage.tiered.folders:audio,previews,stems,packs/audio,packs/previews,packs/stems,kits/audio,kits/previews,kits/files}") List<String> tieredFolders,
+            @Value("${app.storage.tiered.pinned-folders:previews,packs/previews,kits/previews}") List<String> pinnedFolders,
+            @Value("${app.storage.tiered.write-behind-threads:2}") int writeBehindThreads,
+            @Value("${app.storage.tiered.retry-delay-ms:30000}") long retryDelayMs,
+            @Value("${app.storage.tiered.serve-lease-ms:60000}") long serveLeaseMs,
+            MeterRegistry meterRegistry
+    ) throws IOException {
+        this.hot = new LocalStorageService(uploadRoot, webBase, layout, shardedFolders, true, false);
+        // The cold tier only mirrors hot keys, so its own layout/fsync settings do not matter much
+        this.cold = new LocalStorageService(coldRoot, webBase, StorageLayout.V1, Set.of(), true, false);
+        this.hotRoot = Path.of(uploadRoot).toAbsolutePath().normalize();
+        this.capacityBytes = hotCapacityMb * 1024 * 1024;
+        this.tieredFolders = tieredFolders.stream().map(f -> f.endsWith("/") ? f : f + "/").toList();
+        this.pinnedFolders = pinnedFolders.stream().map(f -> f.endsWith("/") ? f : f + "/").toList();
+        this.retryDelayMs = retryDelayMs;
+        this.serveLeaseMs = serveLeaseMs;
+        this.writeBehindExecutor = Executors.newScheduledThreadPool(writeBehindThreads, r -> {
+            Thread t = new Thread(r, "storage-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("storage.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("storage.cache.requests").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("storage.cache.evictions").register(meterRegistry);
+        writeBehindFailures = Counter.builder("storage.cache.write_behind.failures").register(meterRegistry);
+        Gauge.builder("storage.cache.bytes", this, s -> s.usedBytes).register(meterRegistry);
+        Gauge.builder("storage.cache.capacity.bytes", this, s -> s.capacityBytes).register(meterRegistry);
+        Gauge.builder("storage.cache.dirty", this, TieredStorageService::dirtyCount).register(meterRegistry);
+
+        LocalReadThrough.register(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        LocalReadThrough.unregister(this);
+        writeBehindExecutor.shutdown();
+    }
+
+    /* ==============================
+       StorageService
+       ============================== */
+
+    @Override
+    public String save(MultipartFile file, String folder) throws IOException {
+        return save(file.getInputStream(), file.getSize(), file.getOriginalFilename(), folder, file.getContentType());
+    }
+
+    @Override
+    public String save(InputStream in, long size, String originalFilename, String folder, String contentType) throws IOException {
+        String key = hot.save(in, size, originalFilename, folder, contentType);
+        if (isTiered(key)) {
+            track(key, Files.size(hotRoot.resolve(key)), true);
+            scheduleWriteBehind(key, 0);
+        }
+        return key;
+    }
+
+    @Override
+    public InputStream load(String key) throws IOException {
+        Path p = resolveLocal(key);
+        return p != null && Files.isRegularFile(p) ? Files.newInputStream(p) : hot.load(key);
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        Set<String> keys = new LinkedHashSet<>(hot.list(prefix));
+        keys.addAll(cold.list(prefix));
+        return List.copyOf(keys);
+    }
+
+    @Override
+    public void delete(String keyOrUrl) throws IOException {
+        if (keyOrUrl == null || keyOrUrl.isBlank()) return;
+        String key = keyOrUrl.replaceFirst("^/?uploads/?", "");
+        untrack(diskKey(hotPath(key)));
+        hot.delete(key);
+        cold.delete(key);
+    }
+
+    /**
+     * Local path for a key: a hot hit, or a read-through from the cold tier.
+     * Directory prefixes (stems) are completed file by file, since parts may have been evicted.
+     * Returns null for keys outside the tiered folders or unknown to both tiers.
+     */
+    @Override
+    public Path resolveLocal(String key) throws IOException {
+        if (key == null || !isTiered(key)) return null;
+
+        Path hotPath = hotPath(key);
+        if (leaseIfPresent(hotPath)) {
+            hits.increment();
+            return hotPath;
+        }
+
+        boolean fetched = false;
+        for (String k : cold.list(key)) {
+            if (!leaseIfPresent(hotPath(k))) {
+                fetch(k);
+                fetched = true;
+            }
+        }
+        (fetched ? misses : hits).increment();
+
+        Path resolved = hotPath(key);
+        return Files.exists(resolved) ? resolved : null;
+    }
+
+    /**
+     * True if the file is in the hot tier and now leased against eviction. Eviction unlinks under
+     * the lock, so a file still present after a failed lease is untracked, not half-evicted.
+     */
+    private boolean leaseIfPresent(Path p) {
+        if (!Files.isRegularFile(p)) return false;
+        return lease(diskKey(p)) || Files.isRegularFile(p);
+    }
+
+    private Path hotPath(String key) {
+        return StorageLayout.resolveExisting(hotRoot, key);
+    }
+
+    private String diskKey(Path p) {
+        return hotRoot.relativize(p).toString().replace('\\', '/');
+    }
+
+    /* ==============================
+       Read-through
+       ============================== */
+
+    private void fetch(String key) throws IOException {
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlightFetches.putIfAbsent(key, mine);
+        if (existing != null) {
+            awaitFetch(existing);
+            return;
+        }
+
+        try (InputStream in = cold.load(key)) {
+            if (in != null) {
+                hot.store(key, in, -1);
+                track(key, Files.size(hotRoot.resolve(key)), false); // tracked leased: about to be served
+            }
+            mine.complete(null);
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightFetches.remove(key, mine);
+        }
+    }
+
+    private static void awaitFetch(CompletableFuture<Void> f) throws IOException {
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for cold storage fetch", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Cold storage fetch failed", e.getCause());
+        }
+    }
+
+    /* ==============================
+       Write-behind
+       ============================== */
+
+    private void scheduleWriteBehind(String key, long delayMs) {
+        writeBehindExecutor.schedule(() -> writeBehind(key), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeBehind(String key) {
+        Path p = hotPath(key);
+        if (!Files.isRegularFile(p)) {
+            untrack(key); // deleted before we got to it
+            return;
+        }
+        try (InputStream in = Files.newInputStream(p)) {
+            cold.store(key, in, Files.size(p));
+            markClean(key);
+        } catch (IOException e) {
+            writeBehindFailures.increment();
+            log.warn("Write-behind of {} to cold storage failed, retrying in {} ms", key, retryDelayMs, e);
+            scheduleWriteBehind(key, retryDelayMs);
+        }
+    }
+
+    /**
+     * Registers files already in the hot tier at startup: files the cold tier has are clean,
+     * the rest are queued for write-behind before they become evictable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexHotTier() {
+        Thread t = new Thread(() -> {
+            long queued = 0;
+            for (String folder : tieredFolders) {
+                Path dir = hotRoot.resolve(folder).normalize();
+                if (!Files.isDirectory(dir)) continue;
+                try (Stream<Path> walk = Files.walk(dir)) {
+                    for (Path p : (Iterable<Path>) walk::iterator) {
+                        if (!Files.isRegularFile(p) || p.getFileName().toString().startsWith(".")) continue;
+                        String key = hotRoot.relativize(p).toString().replace('\\', '/');
+                        boolean inCold = cold.resolveLocal(key) != null;
+                        track(key, Files.size(p), !inCold);
+                        if (!inCold) {
+                            scheduleWriteBehind(key, 0);
+                            queued++;
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not index hot tier folder {}", dir, e);
+                }
+            }
+            log.info("Hot tier indexed: {} bytes tracked, {} files queued for cold storage", usedBytes, queued);
+        }, "storage-hot-index");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /* ==============================
+       LRU bookkeeping
+       ============================== */
+
+    private boolean isTiered(String key) {
+        for (String f : tieredFolders) if (key.startsWith(f)) return true;
+        return false;
+    }
+
+    private boolean isPinned(String key) {
+        for (String f : pinnedFolders) if (key.startsWith(f)) return true;
+        return false;
+    }
+
+    private synchronized void track(String key, long size, boolean dirty) {
+        CacheEntry entry = new CacheEntry(size, dirty);
+        entry.leasedUntil = System.currentTimeMillis() + serveLeaseMs;
+        CacheEntry prev = lru.put(key, entry);
+        usedBytes += size - (prev != null ? prev.size : 0);
+        evictOverCapacity();
+    }
+
+    /** Marks an entry most recently used and leases it for serving; false if it is not tracked. */
+    private synchronized boolean lease(String key) {
+        CacheEntry e = lru.get(key);
+        if (e == null) return false;
+        e.leasedUntil = System.currentTimeMillis() + serveLeaseMs;
+        return true;
+    }
+
+    private synchronized void markClean(String key) {
+        CacheEntry e = lru.get(key);
+        if (e != null) e.dirty = false;
+    }
+
+    private synchronized void untrack(String key) {
+        CacheEntry e = lru.remove(key);
+        if (e != null) usedBytes -= e.size;
+    }
+
+    private synchronized int dirtyCount() {
+        int n = 0;
+        for (CacheEntry e : lru.values()) if (e.dirty) n++;
+        return n;
+    }
+
+    /**
+     * Evicts least recently used clean, unpinned, unleased entries until we are under capacity.
+     * Caller holds the lock: unlinking while holding it is what keeps {@link #lease} from handing
+     * out a path that is about to disappear. An unlink is a metadata-only operation.
+     */
+    private void evictOverCapacity() {
+        if (usedBytes <= capacityBytes) return;
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, CacheEntry>> it = lru.entrySet().iterator();
+        while (usedBytes > capacityBytes && it.hasNext()) {
+            Map.Entry<String, CacheEntry> e = it.next();
+            CacheEntry entry = e.getValue();
+            if (entry.dirty || entry.leasedUntil > now || isPinned(e.getKey())) continue;
+            try {
+                if (Files.deleteIfExists(hotRoot.resolve(e.getKey()))) evictions.increment();
+            } catch (IOException ex) {
+                log.warn("Could not evict {} from hot tier", e.getKey(), ex);
+                continue; // still on disk, so still counted
+            }
+            it.remove();
+            usedBytes -= entry.size;
+        }
+    }
+}
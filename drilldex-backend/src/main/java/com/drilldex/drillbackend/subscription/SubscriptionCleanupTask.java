@@ -1,60 +1,158 @@
 package com.drilldex.drillbackend.subscription;
 
-import com.drilldex.drillbackend.notification.Notification;
+import com.drilldex.drillbackend.jobs.JobContext;
+import com.drilldex.drillbackend.jobs.JobRunner;
+import com.drilldex.drillbackend.notification.NotificationDraft;
 import com.drilldex.drillbackend.notification.NotificationService;
 import com.drilldex.drillbackend.notification.NotificationType;
 import com.drilldex.drillbackend.notification.RelatedType;
-import com.drilldex.drillbackend.user.User;
-import com.drilldex.drillbackend.user.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Downgrades paid plans whose trial and paid period have both ended (or that are paused) to free.
+ *
+ * Walks only users on a paid plan, in id order, one chunk per transaction: each chunk is locked,
+ * downgraded and notified with one UPDATE ... RETURNING and one bulk insert, so memory stays
+ * bounded by the chunk size whatever the number of users. The condition mirrors
+ * {@link com.drilldex.drillbackend.user.User#isSubscriptionActive()}.
+ *
+ * Runs on one node through {@link JobRunner}; the last id of each chunk is the checkpoint, so a
+ * run cut short resumes where it stopped.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class SubscriptionCleanupTask {
 
-    private final UserRepository userRepository;
+    // The paid-plan predicate matches idx_users_paid_plan
+    private static final String DOWNGRADE_SQL = """
+            WITH due AS (
+                SELECT id, plan FROM users
+                WHERE id > ?
+                  AND plan IS NOT NULL AND lower(plan) <> 'free'
+                  AND (paused
+                       OR ((trial_ends_at IS NULL OR trial_ends_at <= ?)
+                           AND (current_period_end IS NULL OR current_period_end <= ?)))
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE users u
+            SET plan = 'free', plan_billing_cycle = NULL, trial_days_left = 0, subscription_start = NULL
+            FROM due
+            WHERE u.id = due.id
+            RETURNING u.id, due.plan
+            """;
+
+    private static final Duration LEASE = Duration.ofMinutes(30);
+
+    private record Downgraded(Long userId, String oldPlan) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
     private final NotificationService notificationService;
+    private final JobRunner jobRunner;
+    private final int chunkSize;
+
+    private final Timer runTimer;
+    private final Counter downgradedCounter;
+    private final AtomicLong runProgress = new AtomicLong();
+
+    public SubscriptionCleanupTask(JdbcTemplate jdbc,
+                                   PlatformTransactionManager transactionManager,
+                                   NotificationService notificationService,
+                                   JobRunner jobRunner,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.subscriptions.expiry.chunk-size:1000}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.notificationService = notificationService;
+        this.jobRunner = jobRunner;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.runTimer = Timer.builder("subscriptions.expiry.run")
+                .description("Duration of the subscription expiry job")
+                .register(meterRegistry);
+        this.downgradedCounter = Counter.builder("subscriptions.expiry.downgraded")
+                .description("Users downgraded to the free plan by the expiry job")
+                .register(meterRegistry);
+        meterRegistry.gauge("subscriptions.expiry.run_progress", runProgress);
+    }
 
     @Scheduled(cron = "0 0 3 * * *") // Every day at 3 AM
     public void expireInactiveSubscriptions() {
-        List<User> users = userRepository.findAll();
-
-        for (User user : users) {
-            if (user.getPlan() == null || user.getPlan().equalsIgnoreCase("free")) continue;
-
-            boolean isActive = user.isSubscriptionActive();
-
-            if (!isActive) {
-                log.info("⏳ Downgrading expired subscription for user: {}", user.getEmail());
-
-                String oldPlan = user.getPlan();
-
-                // Downgrade
-                user.setPlan("free");
-                user.setPlanBillingCycle(null);
-                user.setTrialDaysLeft(0);
-                user.setSubscriptionStart(null);
-
-                // 🔔 Create and push notification via SSE
-                Notification n = notificationService.create(
-                        user,
-                        NotificationType.SYSTEM,
-                        RelatedType.SUBSCRIPTION,
-                        null,
-                        "Subscription expired",
-                        "Your subscription to " + oldPlan + " has ended. You are now on the Free plan."
-                );
-                notificationService.pushNotificationToUser(user.getId(), n);
-            }
+        jobRunner.run("subscription-expiry", LEASE, this::expire);
+    }
+
+    private void expire(JobContext ctx) {
+        long started = System.nanoTime();
+        runProgress.set(0);
+        try {
+            long total = expireAll(Instant.now(), ctx);
+            log.info("Subscription expiry: downgraded {} users in {} ms",
+                    total, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.error("Subscription expiry stopped after {} users", runProgress.get());
+            throw e;
+        } finally {
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
+    }
 
-        userRepository.saveAll(users);
+    /** Downgrades every due user chunk by chunk, checkpointing each; returns the number downgraded. */
+    public long expireAll(Instant now, JobContext ctx) {
+        Timestamp at = Timestamp.from(now);
+        long lastId = ctx.resumeFromId(0);
+        long total = 0;
+        while (true) {
+            long after = lastId;
+            List<Downgraded> chunk = tx.execute(status -> {
+                List<Downgraded> rows = jdbc.query(DOWNGRADE_SQL,
+                        (rs, i) -> new Downgraded(rs.getLong(1), rs.getString(2)),
+                        after, at, at, chunkSize);
+                notificationService.createBulk(toNotifications(rows));
+                return rows;
+            });
+            if (chunk == null || chunk.isEmpty()) break;
+
+            for (Downgraded d : chunk) lastId = Math.max(lastId, d.userId());
+            total += chunk.size();
+            downgradedCounter.increment(chunk.size());
+            runProgress.set(total);
+            ctx.checkpoint(lastId);
+            log.debug("Subscription expiry: {} users downgraded so far (last id {})", total, lastId);
+            if (chunk.size() < chunkSize) break;
+        }
+        return total;
+    }
+
+    private static List<NotificationDraft> toNotifications(List<Downgraded> rows) {
+        List<NotificationDraft> drafts = new ArrayList<>(rows.size());
+        for (Downgraded d : rows) {
+            drafts.add(new NotificationDraft(
+                    d.userId(),
+                    NotificationType.SYSTEM,
+                    RelatedType.SUBSCRIPTION,
+                    null,
+                    "Subscription expired",
+                    "Your subscription to " + d.oldPlan() + " has ended. You are now on the Free plan."
+            ));
+        }
+        return drafts;
     }
 }
@@ -8,21 +8,31 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.UUID;
 
+/**
+ * A refresh token, stored as the SHA-256 of the value handed to the client. Every refresh
+ * replaces the token with a new one in the same family; the used token is kept (rotatedAt set)
+ * until it expires so a replay can be recognised.
+ */
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "ux_refresh_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_expiry", columnList = "expiry_date")
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash; // hex SHA-256; the raw token is never stored
+
+    @Column(name = "family_id", length = 36)
+    private String familyId; // shared by every token descending from one login
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -31,4 +41,10 @@ public class RefreshToken {
 
     private Instant expiryDate;
 
+    private Instant createdAt = Instant.now();
+
+    private Instant rotatedAt; // set once the token has been exchanged for its successor; never moved
+
+    private Instant reissuedAt; // the one extra exchange allowed inside the reuse grace period
+
 }
@@ -3,46 +3,119 @@ package com.drilldex.drillbackend.token;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
 
     @Value("${security.jwt.refresh-token.expiration-ms}")
     private long refreshTokenExpirationMs;
 
-    @Transactional
-    public RefreshToken createRefreshToken(User user) {
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plus(refreshTokenExpirationMs, ChronoUnit.MILLIS));
-        return refreshTokenRepository.save(refreshToken);
+    // Two tabs refreshing with the same token at once is not an attack
+    @Value("${security.jwt.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    /** CONCURRENT: a replay inside the grace period after its one reissue was already handed out. */
+    public enum Outcome { ROTATED, INVALID, EXPIRED, REUSED, CONCURRENT }
+
+    /** Result of a refresh; user and refreshToken are only set when ROTATED. */
+    public record Refresh(Outcome outcome, User user, String refreshToken) {
+        static Refresh failed(Outcome outcome) {
+            return new Refresh(outcome, null, null);
+        }
     }
 
-    public void deleteByToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+    /** Starts a new token family (login, registration); returns the raw token for the client. */
+    @Transactional
+    public String createRefreshToken(User user) {
+        return issue(user, UUID.randomUUID().toString());
     }
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    /**
+     * Exchanges a refresh token for a new one in the same family. Presenting a token that was
+     * already exchanged outside the grace period revokes the whole family. Inside the grace
+     * period (counted from the first exchange) one more token is issued for the concurrent
+     * caller; any further replay gets no token.
+     */
+    @Transactional
+    public Refresh rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) return Refresh.failed(Outcome.INVALID);
+
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken)).orElse(null);
+        if (current == null) return Refresh.failed(Outcome.INVALID);
+
+        Instant now = Instant.now();
+        if (current.getExpiryDate().isBefore(now)) {
+            refreshTokenRepository.delete(current);
+            return Refresh.failed(Outcome.EXPIRED);
+        }
+
+        if (current.getRotatedAt() != null) {
+            if (current.getRotatedAt().isBefore(now.minus(Duration.ofSeconds(reuseGraceSeconds)))) {
+                int revoked = refreshTokenRepository.deleteFamily(current.getFamilyId());
+                log.warn("Refresh token reuse for user {}; revoked {} tokens of the family", current.getUser().getId(), revoked);
+                return Refresh.failed(Outcome.REUSED);
+            }
+            if (current.getReissuedAt() != null) return Refresh.failed(Outcome.CONCURRENT);
+            current.setReissuedAt(now);
+        } else {
+            current.setRotatedAt(now); // set once; the grace period never restarts
+        }
+
+        User user = current.getUser();
+        String next = issue(user, current.getFamilyId());
+        return new Refresh(Outcome.ROTATED, user, next);
     }
 
-    public boolean isExpired(RefreshToken token) {
-        return token.getExpiryDate().isBefore(Instant.now());
+    /** Logout: revokes the token's whole family, so no token from this login can be exchanged again. */
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) return;
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(t -> refreshTokenRepository.deleteFamily(t.getFamilyId()));
     }
 
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setTokenHash(hash(raw));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiryDate(Instant.now().plus(refreshTokenExpirationMs, ChronoUnit.MILLIS));
+        refreshTokenRepository.save(refreshToken);
+        return raw;
+    }
 
+    static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
 }
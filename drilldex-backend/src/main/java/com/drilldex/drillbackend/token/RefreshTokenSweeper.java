@@ -0,0 +1,64 @@
+package com.drilldex.drillbackend.token;
+
+import com.drilldex.drillbackend.jobs.JobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Deletes expired refresh tokens in chunks, so a large backlog never turns into one long
+ * transaction holding locks on the table. Each chunk is its own autocommitted DELETE on the
+ * expiry index. Runs on one node at a time through {@link JobRunner}.
+ */
+@Component
+@Slf4j
+public class RefreshTokenSweeper {
+
+    private static final String DELETE_CHUNK_SQL = """
+            DELETE FROM refresh_token
+            WHERE id IN (SELECT id FROM refresh_token WHERE expiry_date < now() LIMIT ?)
+            """;
+
+    private static final Duration LEASE = Duration.ofMinutes(15);
+
+    private final JdbcTemplate jdbc;
+    private final JobRunner jobRunner;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    public RefreshTokenSweeper(JdbcTemplate jdbc,
+                               JobRunner jobRunner,
+                               @Value("${security.jwt.refresh-token.sweep.chunk-size:5000}") int chunkSize,
+                               @Value("${security.jwt.refresh-token.sweep.pause-ms:50}") long pauseMs) {
+        this.jdbc = jdbc;
+        this.jobRunner = jobRunner;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+    }
+
+    @Scheduled(cron = "${security.jwt.refresh-token.sweep.cron:0 15 * * * *}")
+    public void sweep() {
+        jobRunner.run("refresh-token-sweep", LEASE, ctx -> sweepExpired());
+    }
+
+    private void sweepExpired() {
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbc.update(DELETE_CHUNK_SQL, chunkSize);
+                total += deleted;
+                if (deleted == chunkSize && pauseMs > 0) Thread.sleep(pauseMs); // let other writers in
+            } while (deleted == chunkSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Refresh token sweep failed after {} rows", total, e);
+        }
+        if (total > 0) log.info("Deleted {} expired refresh tokens", total);
+    }
+}
@@ -1,15 +1,26 @@
 package com.drilldex.drillbackend.user;// src/main/java/com/drilldex/drillbackend/security/CurrentUserService.java
 
+import com.drilldex.drillbackend.auth.CustomUserDetails;
 import com.drilldex.drillbackend.user.User;
 import com.drilldex.drillbackend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+/**
+ * Resolves the authenticated user at most once per request: the result is kept as a request
+ * attribute, so per-row callers (DTO mappers) and services share one lookup. Hot paths that only
+ * need the id should use {@link #getCurrentUserIdOrNull()}, which never queries.
+ */
 @Component
 @RequiredArgsConstructor
 public class CurrentUserService {
+    private static final String USER_ATTR = CurrentUserService.class.getName() + ".user";
+    private static final Object NO_USER = new Object();
+
     private final UserRepository userRepository;
 
     public User getCurrentUserOrThrow() {
@@ -17,9 +28,11 @@ public class CurrentUserService {
         if (auth == null || auth.getName() == null) {
             throw new RuntimeException("Unauthenticated");
         }
-        // Assuming username == email (most setups do this)
-        return userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
+        User user = memoized(auth);
+        if (user == null) {
+            throw new RuntimeException("Current user not found");
+        }
+        return user;
     }
 
     public User getCurrentUserOrNull() {
@@ -27,6 +40,34 @@ public class CurrentUserService {
         if (auth == null || auth.getName() == null || !auth.isAuthenticated()) {
             return null;
         }
+        return memoized(auth);
+    }
+
+    /** Id of the authenticated user from the principal, without loading the entity. */
+    public Long getCurrentUserIdOrNull() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) return null;
+        if (auth.getPrincipal() instanceof CustomUserDetails cud) return cud.getId();
+        User user = getCurrentUserOrNull();
+        return user != null ? user.getId() : null;
+    }
+
+    private User memoized(Authentication auth) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) return load(auth); // scheduled jobs, async work
+
+        Object cached = request.getAttribute(USER_ATTR, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null) return cached == NO_USER ? null : (User) cached;
+
+        User user = load(auth);
+        request.setAttribute(USER_ATTR, user != null ? user : NO_USER, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private User load(Authentication auth) {
+        // The JWT principal loads its entity lazily, once
+        if (auth.getPrincipal() instanceof CustomUserDetails cud) return cud.getUser();
+        // Assuming username == email (most setups do this)
         return userRepository.findByEmail(auth.getName()).orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.drilldex.drillbackend.user;
 
+import com.drilldex.drillbackend.auth.AuthStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,12 +9,17 @@ import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    /** Id and ban flag only, for the per-request auth check. */
+    @Query("SELECT new com.drilldex.drillbackend.auth.AuthStatus(u.id, u.banned) FROM User u WHERE u.email = :email")
+    Optional<AuthStatus> findAuthStatusByEmail(@Param("email") String email);
     boolean existsByEmail(String email);
     boolean existsByDisplayNameIgnoreCase(String displayName);
 
@@ -53,6 +59,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT f FROM User u JOIN u.followers f WHERE u.id = :userId")
     List<User> findFollowersByUserId(@Param("userId") Long userId);
 
+    /** Which of the given user ids follow userId; used to push only to connected followers. */
+    @Query(value = "SELECT uf.follower_id FROM user_followers uf WHERE uf.user_id = :userId AND uf.follower_id IN (:candidateIds)",
+            nativeQuery = true)
+    List<Long> findFollowerIdsAmong(@Param("userId") Long userId, @Param("candidateIds") Collection<Long> candidateIds);
+
+    /** Ids of users who are not banned, for keyset-paged bulk work (announcements). */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.banned = false ORDER BY u.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     List<User> findTop10ByDisplayNameIgnoreCaseContainingOrEmailIgnoreCaseContaining(String namePart, String emailPart);
 
 
@@ -5,6 +5,8 @@ import com.drilldex.drillbackend.beat.Beat;
 import com.drilldex.drillbackend.kit.Kit;
 import com.drilldex.drillbackend.pack.Pack;
 import com.drilldex.drillbackend.purchase.Purchase;
+import com.drilldex.drillbackend.storage.LocalReadThrough;
+import com.drilldex.drillbackend.storage.StorageLayout;
 import com.mpatric.mp3agic.Mp3File;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -526,7 +528,12 @@ public class AudioUtils {
         if (!resolved.startsWith(root)) {
             throw new IOException("Invalid storage path");
         }
-        return resolved;
+        // Tiered storage: hot-cache hit or read-through from the cold tier
+        Path local = LocalReadThrough.resolve(key);
+        if (local != null) return local;
+
+        // Flat keys whose files were moved to the sharded layout
+        return StorageLayout.resolveExisting(root, key);
     }
 
     private static String fileExt(String filename) {
@@ -20,3 +20,136 @@ INSERT INTO users (
 ) VALUES
 ('Demo Artist', 'artist@drilldex.local', 'ARTIST', 0, 0, 0, false, false),
 ('Demo User',   'user@drilldex.local',   'USER',   0, 0, 0, false, false);
+
+-- Follower feed (fan-out on read) looks user_followers up by follower_id
+CREATE INDEX IF NOT EXISTS idx_user_followers_follower ON user_followers (follower_id, user_id);
+
+-- SSE bus (app.sse.bus=postgres): payloads too large for NOTIFY are parked here briefly
+CREATE TABLE IF NOT EXISTS sse_event (
+    id BIGSERIAL PRIMARY KEY,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Chat: canonical conversation id for rows written before the column existed, and for rows whose
+-- id was taken from the request body instead of the participants (no-op afterwards)
+UPDATE chat_messages
+SET conversation_id = LEAST(sender_id, receiver_id) || '_' || GREATEST(sender_id, receiver_id)
+WHERE sender_id IS NOT NULL AND receiver_id IS NOT NULL
+  AND conversation_id IS DISTINCT FROM LEAST(sender_id, receiver_id) || '_' || GREATEST(sender_id, receiver_id);
+
+-- Chat: build the chat_thread read model from existing messages, once (only while it is empty)
+INSERT INTO chat_thread (conversation_id, user_low_id, user_high_id, low_name, high_name,
+                         last_message_id, last_sender_id, last_content, last_timestamp,
+                         unread_low, unread_high)
+SELECT DISTINCT ON (m.conversation_id)
+       m.conversation_id,
+       LEAST(m.sender_id, m.receiver_id),
+       GREATEST(m.sender_id, m.receiver_id),
+       (SELECT COALESCE(NULLIF(u.display_name, ''), u.email) FROM users u WHERE u.id = LEAST(m.sender_id, m.receiver_id)),
+       (SELECT COALESCE(NULLIF(u.display_name, ''), u.email) FROM users u WHERE u.id = GREATEST(m.sender_id, m.receiver_id)),
+       m.id, m.sender_id, LEFT(m.content, 500), m.timestamp,
+       0, 0
+FROM chat_messages m
+WHERE m.conversation_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM chat_thread)
+ORDER BY m.conversation_id, m.id DESC
+ON CONFLICT (conversation_id) DO NOTHING;
+
+-- Notifications: per-user unread counter behind the bell badge (UnreadCounterService)
+CREATE TABLE IF NOT EXISTS notification_unread_counter (
+    user_id BIGINT PRIMARY KEY,
+    unread BIGINT NOT NULL DEFAULT 0
+);
+
+-- Seed the counters from existing notifications, once (only while the table is empty)
+INSERT INTO notification_unread_counter (user_id, unread)
+SELECT recipient_id, count(*)
+FROM notification
+WHERE read = false AND recipient_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM notification_unread_counter)
+GROUP BY recipient_id
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Chat notification coalescing upserts the unread CHAT notification per (recipient, sender).
+-- Older unread duplicates from before the key existed are folded away (marked read) first.
+WITH folded AS (
+    UPDATE notification n SET read = true, read_at = now()
+    WHERE n.type = 'CHAT' AND n.read = false AND n.actor_id IS NOT NULL
+      AND EXISTS (SELECT 1 FROM notification m
+                  WHERE m.type = 'CHAT' AND m.read = false AND m.recipient_id = n.recipient_id
+                    AND m.actor_id = n.actor_id AND m.id > n.id)
+    RETURNING n.recipient_id
+)
+UPDATE notification_unread_counter c SET unread = GREATEST(0, c.unread - f.cnt)
+FROM (SELECT recipient_id, count(*) AS cnt FROM folded GROUP BY recipient_id) f
+WHERE c.user_id = f.recipient_id;
+DROP INDEX IF EXISTS idx_notification_chat_unread;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_notification_chat_unread_key
+    ON notification (recipient_id, actor_id) WHERE type = 'CHAT' AND read = false;
+
+-- Unread list and the counter's one-time COUNT seed
+CREATE INDEX IF NOT EXISTS idx_notification_unread
+    ON notification (recipient_id, created_at DESC) WHERE read = false;
+
+-- Notifications: archive for rows past retention (NotificationRetentionTask)
+CREATE TABLE IF NOT EXISTS notification_archive (
+    id BIGINT PRIMARY KEY,
+    recipient_id BIGINT,
+    type VARCHAR(255),
+    related_type VARCHAR(255),
+    reference_id BIGINT,
+    actor_id BIGINT,
+    aggregate_count INTEGER,
+    title VARCHAR(128),
+    message VARCHAR(1024),
+    read BOOLEAN,
+    read_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ,
+    archived_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_notification_archive_recipient
+    ON notification_archive (recipient_id, created_at DESC);
+
+-- Retention scans by age
+CREATE INDEX IF NOT EXISTS idx_notification_created_at ON notification (created_at);
+
+-- Refresh tokens: hash tokens stored in clear by earlier versions (each becomes its own family),
+-- then drop the raw column. On a fresh schema the UPDATE fails harmlessly.
+UPDATE refresh_token
+SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex'),
+    family_id = md5(id::text || random()::text)
+WHERE token_hash IS NULL AND token IS NOT NULL;
+ALTER TABLE refresh_token DROP COLUMN IF EXISTS token;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_token_hash ON refresh_token (token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry ON refresh_token (expiry_date);
+
+-- Promotions: rows written without a status are running ones; the expiry job only scans
+-- running rows through the partial index
+UPDATE promotion SET status = 'active' WHERE status IS NULL;
+CREATE INDEX IF NOT EXISTS idx_promotion_running ON promotion (start_date) WHERE status = 'active';
+
+-- Subscription expiry walks only users on a paid plan
+CREATE INDEX IF NOT EXISTS idx_users_paid_plan ON users (id) WHERE plan IS NOT NULL AND lower(plan) <> 'free';
+
+-- Leases for scheduled jobs (JobRunner): one row per job, held by one node until locked_until
+CREATE TABLE IF NOT EXISTS job_lock (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_by VARCHAR(255),
+    locked_until TIMESTAMPTZ NOT NULL,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ,
+    last_status VARCHAR(16),
+    checkpoint VARCHAR(255)
+);
+
+-- Unsold-promotion pass: ended promotions awaiting settlement, and item sales by time
+CREATE INDEX IF NOT EXISTS idx_promotion_expired ON promotion (id) WHERE status = 'expired';
+CREATE INDEX IF NOT EXISTS idx_purchase_beat_time ON purchase (beat_id, purchased_at);
+CREATE INDEX IF NOT EXISTS idx_purchase_pack_time ON purchase (pack_id, purchased_at);
+CREATE INDEX IF NOT EXISTS idx_purchase_kit_time ON purchase (kit_id, purchased_at);
+
+-- Checkout orders: orders placed before the status column existed were fulfilled inline
+UPDATE orders SET status = 'FULFILLED', notified = true, attempts = 0 WHERE status IS NULL;
+CREATE INDEX IF NOT EXISTS idx_orders_status_updated ON orders (status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_purchase_order_id ON purchase (order_id);
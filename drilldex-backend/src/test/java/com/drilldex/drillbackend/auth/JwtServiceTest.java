@@ -0,0 +1,57 @@
+package com.drilldex.drillbackend.auth;
+
+import com.drilldex.drillbackend.user.Role;
+import com.drilldex.drillbackend.user.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 60_000);
+
+    @Test
+    void streamTokenCarriesTheUserId() {
+        String token = jwtService.generateStreamToken(42L);
+
+        assertEquals(42L, jwtService.parseStreamToken(token));
+    }
+
+    @Test
+    void streamTokenIsNotAnAccessToken() {
+        // The auth filter authenticates by subject; a stream token must not have one
+        assertNull(jwtService.parse(jwtService.generateStreamToken(42L)).getSubject());
+    }
+
+    @Test
+    void accessTokenIsNotAStreamToken() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("fan@drilldex.io");
+        user.setRole(Role.USER);
+
+        assertNull(jwtService.parseStreamToken(jwtService.generateToken(user)));
+    }
+
+    @Test
+    void rejectsForgedExpiredAndMissingStreamTokens() {
+        JwtService otherKey = new JwtService(SECRET.replace('t', 'x'), 60_000, 60_000);
+        JwtService expired = new JwtService(SECRET, 60_000, -60_000);
+
+        assertNull(jwtService.parseStreamToken(otherKey.generateStreamToken(42L)));
+        assertNull(jwtService.parseStreamToken(expired.generateStreamToken(42L)));
+        assertNull(jwtService.parseStreamToken(null));
+        assertNull(jwtService.parseStreamToken("not-a-token"));
+    }
+
+    @Test
+    void probeAndStreamTokensAreNotInterchangeable() {
+        String probe = jwtService.generateProbeToken(1_000_000L);
+
+        assertEquals(1_000_000L, jwtService.parseProbeToken(probe));
+        assertNull(jwtService.parseStreamToken(probe));
+        assertNull(jwtService.parseProbeToken(jwtService.generateStreamToken(42L)));
+    }
+}
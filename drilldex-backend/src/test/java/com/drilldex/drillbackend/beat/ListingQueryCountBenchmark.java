@@ -0,0 +1,100 @@
+package com.drilldex.drillbackend.beat;
+
+import com.drilldex.drillbackend.auth.JwtService;
+import com.drilldex.drillbackend.user.Role;
+import com.drilldex.drillbackend.user.User;
+import com.drilldex.drillbackend.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prepared statements and User loads per request on the main listing endpoints, as a guest and
+ * as a signed-in user. The signed-in request carries a real access token, so it goes through
+ * JwtAuthenticationFilter like production traffic. Compare the table before and after a change
+ * to the request path; the assertions pin the budget signing in may add.
+ *
+ * Not picked up by surefire's default includes; run it explicitly:
+ *   mvn test -Dtest=ListingQueryCountBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ListingQueryCountBenchmark {
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/beats/filter",
+            "/api/beats/approved",
+            "/api/beats/featured",
+            "/api/beats/new",
+            "/api/kits/approved",
+            "/api/kits/new"
+    );
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JwtService jwtService;
+
+    private Statistics stats;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.findByEmail("querycount@drilldex.io").orElseGet(() -> {
+            User u = new User();
+            u.setEmail("querycount@drilldex.io");
+            u.setDisplayName("Query Count");
+            u.setPassword("secret");
+            u.setRole(Role.ARTIST);
+            return userRepository.save(u);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.delete(user);
+    }
+
+    @Test
+    void reportQueriesPerRequest() throws Exception {
+        String bearer = "Bearer " + jwtService.generateToken(user);
+        System.out.printf("%-24s %14s %14s %14s %14s%n", "endpoint", "guest stmts", "guest users", "user stmts", "user users");
+        for (String endpoint : ENDPOINTS) {
+            long[] guest = measure(get(endpoint));
+            long[] signedIn = measure(get(endpoint).header(HttpHeaders.AUTHORIZATION, bearer));
+            System.out.printf("%-24s %14d %14d %14d %14d%n", endpoint, guest[0], guest[1], signedIn[0], signedIn[1]);
+
+            // Auth is served from the token and the cached status: no User load of its own, and
+            // at most one extra statement (the page's liked-ids lookup)
+            assertEquals(guest[1], signedIn[1], endpoint + ": signing in loaded User rows");
+            assertTrue(signedIn[0] <= guest[0] + 1,
+                    endpoint + ": " + signedIn[0] + " statements signed in vs " + guest[0] + " as a guest");
+        }
+    }
+
+    /** Prepared statements and User entity loads/fetches for one request (after a warm-up call). */
+    private long[] measure(MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().isOk());
+        stats.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        var users = stats.getEntityStatistics(User.class.getName());
+        return new long[]{stats.getPrepareStatementCount(), users.getLoadCount() + users.getFetchCount()};
+    }
+}
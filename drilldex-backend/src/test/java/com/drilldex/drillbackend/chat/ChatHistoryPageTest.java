@@ -0,0 +1,84 @@
+package com.drilldex.drillbackend.chat;
+
+import com.drilldex.drillbackend.auth.ClaimsUserDetails;
+import com.drilldex.drillbackend.chat.dto.ChatHistoryPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatHistoryPageTest {
+
+    private ChatMessageRepository messages;
+    private ChatStorageService storage;
+    private ChatController controller;
+
+    @BeforeEach
+    void setUp() {
+        messages = mock(ChatMessageRepository.class);
+        storage = new ChatStorageService(messages, mock(ChatThreadRepository.class), mock(SseChatBroadcaster.class));
+        controller = new ChatController(storage, mock(SseChatBroadcaster.class), mock(ChatNotificationCoalescer.class));
+    }
+
+    @Test
+    void anonymousCallerIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.getChatHistoryPage(null, 1L, 2L, null, null, 50));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        verifyNoInteractions(messages);
+    }
+
+    @Test
+    void outsiderCannotReadSomeoneElsesConversation() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.getChatHistoryPage(user(3L), 1L, 2L, null, null, 50));
+
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+        verifyNoInteractions(messages);
+    }
+
+    @Test
+    void participantReadsTheirConversation() {
+        when(messages.findLatest(eq("1_2"), any())).thenReturn(List.of(message(10L, "1_2")));
+
+        ChatHistoryPage page = controller.getChatHistoryPage(user(2L), 1L, 2L, null, null, 50);
+
+        assertEquals(1, page.getMessages().size());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void cursorFromAnotherConversationIsABadRequest() {
+        when(messages.findById(99L)).thenReturn(Optional.of(message(99L, "3_4")));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.getChatHistoryPage(user(1L), 1L, 2L, 99L, null, 50));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verify(messages, never()).findBefore(any(), any(), any(), any());
+    }
+
+    private static ClaimsUserDetails user(Long id) {
+        return new ClaimsUserDetails(id, "user" + id + "@drilldex.io", "USER", uid -> null);
+    }
+
+    private static ChatMessage message(Long id, String conversationId) {
+        ChatMessage m = new ChatMessage();
+        m.setId(id);
+        m.setSenderId(1L);
+        m.setReceiverId(2L);
+        m.setContent("hi");
+        m.setTimestamp(Instant.now());
+        m.setConversationId(conversationId);
+        return m;
+    }
+}
@@ -0,0 +1,31 @@
+package com.drilldex.drillbackend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMessageTest {
+
+    @Test
+    void conversationIdInTheRequestBodyIsIgnored() throws Exception {
+        ChatMessage msg = new ObjectMapper().readValue(
+                "{\"senderId\":1,\"receiverId\":2,\"conversationId\":\"5_7\",\"content\":\"hi\"}",
+                ChatMessage.class);
+
+        assertNull(msg.getConversationId());
+    }
+
+    @Test
+    void conversationIdIsAlwaysDerivedFromTheParticipants() {
+        ChatMessage msg = ChatMessage.builder()
+                .senderId(2L)
+                .receiverId(1L)
+                .conversationId("5_7")
+                .build();
+
+        msg.assignConversationId();
+
+        assertEquals("1_2", msg.getConversationId());
+    }
+}
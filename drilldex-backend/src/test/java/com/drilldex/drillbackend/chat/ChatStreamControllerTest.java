@@ -0,0 +1,63 @@
+package com.drilldex.drillbackend.chat;
+
+import com.drilldex.drillbackend.auth.ClaimsUserDetails;
+import com.drilldex.drillbackend.auth.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ChatStreamControllerTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private SseChatBroadcaster broadcaster;
+    private JwtService jwtService;
+    private ChatStreamController controller;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = mock(SseChatBroadcaster.class);
+        jwtService = new JwtService(SECRET, 60_000, 60_000);
+        controller = new ChatStreamController(broadcaster, jwtService);
+    }
+
+    @Test
+    void anonymousStreamIsRejectedBeforeAnyReplay() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.stream(null, null, "0"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        verify(broadcaster, never()).subscribe(any(), any());
+    }
+
+    @Test
+    void invalidTokenIsRejected() {
+        String forged = new JwtService(SECRET.replace('t', 'x'), 60_000, 60_000).generateStreamToken(7L);
+
+        assertThrows(ResponseStatusException.class, () -> controller.stream(null, forged, "0"));
+        verify(broadcaster, never()).subscribe(anyLong(), any());
+    }
+
+    @Test
+    void streamBelongsToTheTokenHolder() {
+        controller.stream(null, jwtService.generateStreamToken(7L), "0");
+
+        verify(broadcaster).subscribe(7L, "0");
+    }
+
+    @Test
+    void authenticatedCallerGetsTheirOwnStream() {
+        ClaimsUserDetails principal = new ClaimsUserDetails(9L, "me@drilldex.io", "USER", id -> null);
+
+        // A token for someone else does not override the authenticated principal
+        controller.stream(principal, jwtService.generateStreamToken(7L), null);
+
+        verify(broadcaster).subscribe(9L, null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.drilldex.drillbackend.checkout;
+
+import com.drilldex.drillbackend.jobs.JobRunner;
+import com.drilldex.drillbackend.licensing.LicenseRenderService;
+import com.drilldex.drillbackend.licensing.LicenseStatus;
+import com.drilldex.drillbackend.notification.NotificationService;
+import com.drilldex.drillbackend.notification.SseNotificationBroadcaster;
+import com.drilldex.drillbackend.promotions.PromotionService;
+import com.drilldex.drillbackend.purchase.Order;
+import com.drilldex.drillbackend.purchase.OrderRepository;
+import com.drilldex.drillbackend.purchase.OrderStatus;
+import com.drilldex.drillbackend.purchase.Purchase;
+import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.purchase.PurchaseService;
+import com.drilldex.drillbackend.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderFulfillmentServiceTest {
+
+    private static final String ORDER = "order-1";
+
+    private OrderRepository orderRepository;
+    private PurchaseRepository purchaseRepository;
+    private PromotionService promotionService;
+    private LicenseRenderService licenseRenderService;
+    private NotificationService notificationService;
+    private JobRunner jobRunner;
+    private OrderFulfillmentService fulfillment;
+    private List<Purchase> purchases;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        purchaseRepository = mock(PurchaseRepository.class);
+        promotionService = mock(PromotionService.class);
+        licenseRenderService = mock(LicenseRenderService.class);
+        notificationService = mock(NotificationService.class);
+        jobRunner = mock(JobRunner.class);
+        fulfillment = new OrderFulfillmentService(
+                orderRepository,
+                purchaseRepository,
+                mock(PurchaseService.class),
+                promotionService,
+                licenseRenderService,
+                notificationService,
+                mock(SseNotificationBroadcaster.class),
+                jobRunner,
+                mock(PlatformTransactionManager.class),
+                1,
+                10,
+                Duration.ofMinutes(2),
+                3);
+
+        User buyer = new User();
+        buyer.setId(5L);
+        when(orderRepository.findByOrderId(ORDER)).thenReturn(Optional.of(Order.builder().orderId(ORDER).user(buyer).build()));
+
+        Purchase purchase = new Purchase();
+        purchase.setId(11L);
+        purchase.setBuyer(buyer);
+        purchase.setLicenseStatus(LicenseStatus.PENDING);
+        purchases = List.of(purchase);
+        when(purchaseRepository.findForFulfillment(ORDER)).thenReturn(purchases);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fulfillment.shutdown();
+    }
+
+    @Test
+    void paidOrderIsFulfilledOnceEvenWhenRunAgain() {
+        when(orderRepository.transition(eq(ORDER), anyCollection(), eq(OrderStatus.FULFILLING), any()))
+                .thenReturn(1, 0); // the second run finds the order already FULFILLED
+        when(orderRepository.markNotified(ORDER)).thenReturn(1);
+
+        fulfillment.fulfil(ORDER);
+        fulfillment.fulfil(ORDER);
+
+        verify(licenseRenderService, times(1)).enqueue(11L);
+        verify(promotionService, times(1)).startedNotifications(5L, purchases);
+        verify(notificationService, times(1)).createBulk(anyList());
+        verify(orderRepository, times(1)).transition(eq(ORDER), eq(List.of(OrderStatus.FULFILLING)),
+                eq(OrderStatus.FULFILLED), any());
+    }
+
+    @Test
+    void rerunAfterAFailureDoesNotNotifyTwice() {
+        when(orderRepository.transition(eq(ORDER), anyCollection(), eq(OrderStatus.FULFILLING), any())).thenReturn(1);
+        when(orderRepository.markNotified(ORDER)).thenReturn(0); // an earlier attempt already notified
+
+        fulfillment.fulfil(ORDER);
+
+        verify(notificationService, never()).createBulk(anyList());
+        verify(orderRepository).transition(eq(ORDER), eq(List.of(OrderStatus.FULFILLING)), eq(OrderStatus.FULFILLED), any());
+    }
+
+    @Test
+    void failingStepMarksTheOrderFailedForTheSweep() {
+        when(orderRepository.transition(eq(ORDER), anyCollection(), eq(OrderStatus.FULFILLING), any())).thenReturn(1);
+        when(orderRepository.markNotified(ORDER)).thenReturn(1);
+        when(notificationService.createBulk(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        fulfillment.fulfil(ORDER);
+
+        verify(orderRepository).markFailed(eq(ORDER), eq(OrderStatus.FAILED), eq("db down"), any());
+        verify(orderRepository, never()).transition(eq(ORDER), anyCollection(), eq(OrderStatus.FULFILLED), any());
+    }
+
+    @Test
+    void sweepOnlyRetriesFailedOrdersBelowTheAttemptCap() {
+        doAnswer(inv -> {
+            inv.<JobRunner.Job>getArgument(2).run(null);
+            return true;
+        }).when(jobRunner).run(eq("order-fulfillment-sweep"), any(), any());
+        when(orderRepository.findRetryable(any(), anyCollection(), eq(OrderStatus.FAILED), anyInt(), any()))
+                .thenReturn(List.of(ORDER));
+
+        fulfillment.retryStalled();
+
+        verify(orderRepository).findRetryable(any(), eq(List.of(OrderStatus.PAID, OrderStatus.FULFILLING)),
+                eq(OrderStatus.FAILED), eq(3), any());
+        // the re-queued order is claimed on the fulfilment pool
+        verify(orderRepository, timeout(2000)).transition(eq(ORDER), anyCollection(), eq(OrderStatus.FULFILLING), any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.drilldex.drillbackend.checkout;
+
+import com.drilldex.drillbackend.beat.Beat;
+import com.drilldex.drillbackend.beat.BeatRepository;
+import com.drilldex.drillbackend.checkout.dto.ConfirmCheckoutRequest;
+import com.drilldex.drillbackend.kit.KitRepository;
+import com.drilldex.drillbackend.pack.PackRepository;
+import com.drilldex.drillbackend.promotions.PromotionService;
+import com.drilldex.drillbackend.purchase.Order;
+import com.drilldex.drillbackend.purchase.OrderRepository;
+import com.drilldex.drillbackend.purchase.PurchaseRepository;
+import com.drilldex.drillbackend.purchase.PurchaseService;
+import com.drilldex.drillbackend.subscription.SubscriptionService;
+import com.drilldex.drillbackend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OrderPlacementServiceTest {
+
+    private OrderRepository orderRepository;
+    private PurchaseRepository purchaseRepository;
+    private BeatRepository beatRepository;
+    private KitRepository kitRepository;
+    private PromotionService promotionService;
+    private OrderPlacementService placement;
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        purchaseRepository = mock(PurchaseRepository.class);
+        beatRepository = mock(BeatRepository.class);
+        kitRepository = mock(KitRepository.class);
+        promotionService = mock(PromotionService.class);
+        placement = new OrderPlacementService(
+                orderRepository,
+                purchaseRepository,
+                mock(PurchaseService.class),
+                beatRepository,
+                mock(PackRepository.class),
+                kitRepository,
+                promotionService,
+                mock(SubscriptionService.class),
+                mock(OrderFulfillmentService.class));
+
+        buyer = new User();
+        buyer.setId(5L);
+    }
+
+    @Test
+    void guestConfirmIsUnauthorized() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> placement.place(null, request("sess-1", beat(1L)), "order-1", "test"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        verifyNoInteractions(orderRepository, purchaseRepository);
+    }
+
+    @Test
+    void badItemRejectsTheWholeCartBeforeAnythingIsWritten() {
+        Beat beat = new Beat();
+        beat.setId(1L);
+        when(beatRepository.findAllWithLicensesByIdIn(Set.of(1L))).thenReturn(List.of(beat));
+        when(kitRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> placement.place(buyer, request("sess-1", beat(1L), kit(99L)), "order-1", "test"));
+
+        verify(orderRepository, never()).save(any());
+        verify(purchaseRepository, never()).saveAll(anyList());
+        verifyNoInteractions(promotionService);
+    }
+
+    @Test
+    void retriedConfirmReturnsTheBuyersExistingOrder() {
+        Order existing = Order.builder().orderId("order-1").user(buyer).checkoutSessionId("sess-1").build();
+        when(orderRepository.findByCheckoutSessionIdAndUser_Id("sess-1", 5L)).thenReturn(Optional.of(existing));
+
+        OrderPlacementService.PlacedOrder placed = placement.place(buyer, request("sess-1", beat(1L)), "order-2", "test");
+
+        assertSame(existing, placed.order());
+        verify(orderRepository, never()).save(any());
+        verify(purchaseRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void anotherBuyersSessionIsNotReturned() {
+        User other = new User();
+        other.setId(6L);
+
+        assertTrue(placement.placed(other, "sess-1").isEmpty());
+        verify(orderRepository).findByCheckoutSessionIdAndUser_Id("sess-1", 6L);
+    }
+
+    private static ConfirmCheckoutRequest request(String sessionId, ConfirmCheckoutRequest.CartItem... items) {
+        ConfirmCheckoutRequest request = new ConfirmCheckoutRequest();
+        request.setProvider("test");
+        request.setSessionId(sessionId);
+        request.setItems(List.of(items));
+        return request;
+    }
+
+    private static ConfirmCheckoutRequest.CartItem beat(Long id) {
+        ConfirmCheckoutRequest.CartItem item = new ConfirmCheckoutRequest.CartItem();
+        item.setType("beat");
+        item.setBeatId(id);
+        item.setLicenseType("MP3");
+        return item;
+    }
+
+    private static ConfirmCheckoutRequest.CartItem kit(Long id) {
+        ConfirmCheckoutRequest.CartItem item = new ConfirmCheckoutRequest.CartItem();
+        item.setType("kit");
+        item.setKitId(id);
+        return item;
+    }
+}
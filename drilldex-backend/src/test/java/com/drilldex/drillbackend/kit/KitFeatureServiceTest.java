@@ -0,0 +1,25 @@
+package com.drilldex.drillbackend.kit;
+
+import com.drilldex.drillbackend.promotions.ActivePromotionIndex;
+import com.drilldex.drillbackend.promotions.Promotion;
+import com.drilldex.drillbackend.promotions.PromotionService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KitFeatureServiceTest {
+
+    @Test
+    void featuredCheckIsAnsweredByThePromotionIndex() {
+        KitRepository repo = mock(KitRepository.class);
+        PromotionService promotionService = mock(PromotionService.class);
+        ActivePromotionIndex index = mock(ActivePromotionIndex.class);
+        when(index.isFeatured(Promotion.TargetType.KIT, 5L)).thenReturn(true);
+        KitFeatureService service = new KitFeatureService(repo, promotionService, index);
+
+        assertTrue(service.isKitCurrentlyFeatured(5L));
+        assertFalse(service.isKitCurrentlyFeatured(6L));
+        verifyNoInteractions(repo, promotionService);
+    }
+}
@@ -1,7 +1,10 @@
 package com.drilldex.drillbackend.kit;
 
+import com.drilldex.drillbackend.kit.dto.KitSummaryDto;
 import com.drilldex.drillbackend.kit.dto.KitUploadMeta;
 import com.drilldex.drillbackend.preview.PreviewGenerator;
+import com.drilldex.drillbackend.promotions.ActivePromotionIndex;
+import com.drilldex.drillbackend.promotions.Promotion;
 import com.drilldex.drillbackend.promotions.PromotionRepository;
 import com.drilldex.drillbackend.purchase.PurchaseRepository;
 import com.drilldex.drillbackend.storage.StorageService;
@@ -23,6 +26,8 @@ class KitServiceTest {
 
     private KitRepository kitRepository;
     private StorageService storageService;
+    private PromotionRepository promotionRepository;
+    private ActivePromotionIndex activePromotionIndex;
     private KitService kitService;
 
     @BeforeEach
@@ -30,7 +35,8 @@ class KitServiceTest {
         kitRepository = mock(KitRepository.class);
         StorageService storage = mock(StorageService.class);
         KitFileRepository kitFileRepository = mock(KitFileRepository.class);
-        PromotionRepository promotionRepository = mock(PromotionRepository.class);
+        promotionRepository = mock(PromotionRepository.class);
+        activePromotionIndex = mock(ActivePromotionIndex.class);
         CurrentUserService currentUserService = mock(CurrentUserService.class);
         PurchaseRepository purchaseRepository = mock(PurchaseRepository.class);
         PreviewGenerator previewGenerator = mock(PreviewGenerator.class);
@@ -40,6 +46,7 @@ class KitServiceTest {
                 storage,
                 kitFileRepository,
                 promotionRepository,
+                activePromotionIndex,
                 currentUserService,
                 purchaseRepository,
                 previewGenerator,
@@ -104,6 +111,33 @@ class KitServiceTest {
         });
     }
 
+    @Test
+    void featuredPageIsServedFromThePromotionIndex() {
+        when(activePromotionIndex.slice(Promotion.TargetType.KIT, 0, 2))
+                .thenReturn(List.of(promotion(2L), promotion(1L)));
+        when(kitRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(kit(1L), kit(2L)));
+
+        List<KitSummaryDto> page = kitService.getFeaturedKitsFromPromotions(0, 2);
+
+        assertEquals(List.of(2L, 1L), page.stream().map(KitSummaryDto::id).toList(), "promotion order is kept");
+        verifyNoInteractions(promotionRepository);
+    }
+
+    private static Promotion promotion(Long kitId) {
+        Promotion p = new Promotion();
+        p.setTargetType(Promotion.TargetType.KIT);
+        p.setTargetId(kitId);
+        return p;
+    }
+
+    private static Kit kit(Long id) {
+        Kit k = new Kit();
+        k.setId(id);
+        k.setTitle("Kit " + id);
+        k.setPrice(BigDecimal.TEN);
+        return k;
+    }
+
     // Additional tests could mock zip contents and assert Kit is saved
 
 }
@@ -0,0 +1,99 @@
+package com.drilldex.drillbackend.licensing;
+
+import com.drilldex.drillbackend.beat.Beat;
+import com.drilldex.drillbackend.beat.LicenseType;
+import com.drilldex.drillbackend.pack.Pack;
+import com.drilldex.drillbackend.user.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full layout (LicensePdfGenerator) vs template stamping (LicenseTemplateEngine) per license.
+ *
+ * Run from the IDE (main method) or after test-compile:
+ *   java -cp target/test-classes:target/classes:<test classpath> \
+ *        com.drilldex.drillbackend.licensing.LicenseRenderBenchmark
+ *
+ * Throughput is reported in ops/s; allocation per license is the gc.alloc.rate.norm column.
+ * Both paths write to ./licenses like production and delete the file again right away.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LicenseRenderBenchmark {
+
+    @Param({"MP3", "WAV", "PREMIUM", "EXCLUSIVE"})
+    public LicenseType licenseType;
+
+    private LicenseTemplateEngine engine;
+    private LicenseTerms terms;
+    private User buyer;
+    private Beat beat;
+    private Pack pack;
+
+    @Setup
+    public void setUp() {
+        engine = new LicenseTemplateEngine(true);
+        terms = LicenseTermsConfig.getTermsFor(licenseType);
+
+        buyer = new User();
+        buyer.setEmail("benchmark.buyer@example.com");
+
+        beat = new Beat();
+        beat.setId(1L);
+        beat.setTitle("Benchmark Beat");
+
+        pack = new Pack();
+        pack.setId(2L);
+        pack.setTitle("Benchmark Pack");
+        for (int i = 0; i < 12; i++) {
+            Beat b = new Beat();
+            b.setTitle("Pack Beat " + i);
+            pack.getBeats().add(b);
+        }
+    }
+
+    @Benchmark
+    public String beatFullRender() throws Exception {
+        return cleanup(LicensePdfGenerator.generateLicensePdf(buyer, beat, terms));
+    }
+
+    @Benchmark
+    public String beatTemplate() throws Exception {
+        return cleanup(engine.generateLicensePdf(buyer, beat, terms));
+    }
+
+    @Benchmark
+    public String packFullRender() throws Exception {
+        return cleanup(LicensePdfGenerator.generatePackLicensePdf(buyer, pack, terms, licenseType, BigDecimal.TEN));
+    }
+
+    @Benchmark
+    public String packTemplate() throws Exception {
+        return cleanup(engine.generatePackLicensePdf(buyer, pack, terms, licenseType, BigDecimal.TEN));
+    }
+
+    private static String cleanup(String path) throws Exception {
+        Files.deleteIfExists(Paths.get(path));
+        return path;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opts = new OptionsBuilder()
+                .include(LicenseRenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
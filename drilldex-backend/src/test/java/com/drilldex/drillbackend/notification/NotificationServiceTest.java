@@ -0,0 +1,113 @@
+package com.drilldex.drillbackend.notification;
+
+import com.drilldex.drillbackend.beat.BeatRepository;
+import com.drilldex.drillbackend.chat.ChatStorageService;
+import com.drilldex.drillbackend.kit.KitRepository;
+import com.drilldex.drillbackend.pack.PackRepository;
+import com.drilldex.drillbackend.user.User;
+import com.drilldex.drillbackend.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private NotificationRepository repository;
+    private UnreadCounterService unreadCounter;
+    private JdbcTemplate jdbc;
+    private NotificationService service;
+    private final User me = user(1L);
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        unreadCounter = mock(UnreadCounterService.class);
+        jdbc = mock(JdbcTemplate.class);
+        service = new NotificationService(
+                repository,
+                mock(BeatRepository.class),
+                mock(PackRepository.class),
+                mock(KitRepository.class),
+                mock(SseNotificationBroadcaster.class),
+                mock(ChatStorageService.class),
+                mock(NotificationBulkWriter.class),
+                mock(UserRepository.class),
+                unreadCounter,
+                jdbc);
+    }
+
+    @Test
+    void markAsReadDecrementsOnlyWhenItFlippedTheRow() {
+        when(repository.markRead(eq(10L), eq(1L), any())).thenReturn(1);
+
+        service.markAsRead(10L, me);
+
+        verify(unreadCounter).adjust(1L, -1);
+    }
+
+    @Test
+    void markAsReadThatLostTheRaceLeavesTheCounterAlone() {
+        when(repository.markRead(eq(10L), eq(1L), any())).thenReturn(0);
+        when(repository.findById(10L)).thenReturn(Optional.of(notification(me)));
+
+        service.markAsRead(10L, me);
+
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+    }
+
+    @Test
+    void markAsReadOfSomeoneElsesNotificationIsRejected() {
+        when(repository.markRead(eq(10L), eq(1L), any())).thenReturn(0);
+        when(repository.findById(10L)).thenReturn(Optional.of(notification(user(2L))));
+
+        assertThrows(SecurityException.class, () -> service.markAsRead(10L, me));
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+    }
+
+    @Test
+    void deletingAnUnreadNotificationDecrements() {
+        when(jdbc.queryForList(anyString(), eq(Boolean.class), eq(10L), eq(1L))).thenReturn(List.of(false));
+
+        service.delete(10L, me);
+
+        verify(unreadCounter).adjust(1L, -1);
+    }
+
+    @Test
+    void deletingAReadNotificationLeavesTheCounterAlone() {
+        when(jdbc.queryForList(anyString(), eq(Boolean.class), eq(10L), eq(1L))).thenReturn(List.of(true));
+
+        service.delete(10L, me);
+
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+    }
+
+    @Test
+    void secondDeleteOfTheSameNotificationDoesNotDecrementAgain() {
+        when(jdbc.queryForList(anyString(), eq(Boolean.class), eq(10L), eq(1L))).thenReturn(List.of());
+        when(repository.existsById(10L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.delete(10L, me));
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+    }
+
+    private static User user(Long id) {
+        User u = new User();
+        u.setId(id);
+        return u;
+    }
+
+    private static Notification notification(User recipient) {
+        Notification n = new Notification();
+        n.setRecipient(recipient);
+        n.setRead(true);
+        return n;
+    }
+}
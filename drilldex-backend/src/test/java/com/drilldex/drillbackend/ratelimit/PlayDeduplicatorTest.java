@@ -0,0 +1,44 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayDeduplicatorTest {
+
+    private PlayDeduplicator dedup;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(2);
+        dedup = new PlayDeduplicator(properties, new ClientKeyResolver(properties));
+    }
+
+    @Test
+    void repeatPlayWithinTheWindowIsNotCounted() {
+        assertTrue(dedup.shouldCount("beat", 1L, client("10.0.0.1")));
+        assertFalse(dedup.shouldCount("beat", 1L, client("10.0.0.1")));
+    }
+
+    @Test
+    void fullTableStopsRememberingNewPairs() {
+        assertTrue(dedup.shouldCount("beat", 1L, client("10.0.0.1")));
+        assertTrue(dedup.shouldCount("beat", 2L, client("10.0.0.1")));
+
+        for (long id = 3; id < 10_000; id++) {
+            assertFalse(dedup.shouldCount("beat", id, client("10.0.0.1")));
+        }
+
+        assertEquals(2, dedup.trackedKeys());
+        assertFalse(dedup.shouldCount("beat", 1L, client("10.0.0.1")), "known pairs stay deduplicated");
+    }
+
+    private static MockHttpServletRequest client(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        return request;
+    }
+}
@@ -0,0 +1,44 @@
+package com.drilldex.drillbackend.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private RateLimitProperties.Policy policy;
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(3);
+        policy = new RateLimitProperties.Policy();
+        policy.setCapacity(1);
+        policy.setPeriod(Duration.ofHours(1));
+        limiter = new RateLimiter(properties);
+    }
+
+    @Test
+    void newClientsShareAnOverflowBucketOnceTheTableIsFull() {
+        for (String key : new String[]{"ip:a", "ip:b", "ip:c"}) {
+            assertEquals(0, limiter.tryAcquire("search", key, policy));
+        }
+
+        assertEquals(0, limiter.tryAcquire("search", "ip:d", policy));
+        assertTrue(limiter.tryAcquire("search", "ip:e", policy) > 0, "overflow clients share one bucket");
+        assertTrue(limiter.tryAcquire("search", "ip:a", policy) > 0, "known clients keep their own bucket");
+    }
+
+    @Test
+    void keyFloodDoesNotGrowTheTable() {
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("search", "ip:" + i, policy);
+        }
+
+        assertEquals(4, limiter.trackedKeys()); // maxKeys plus the overflow bucket
+    }
+}
@@ -0,0 +1,188 @@
+package com.drilldex.drillbackend.sse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseHubTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+    private static final Pattern DATA = Pattern.compile("data:([^\\n]*)");
+
+    private SimpleMeterRegistry registry;
+    private SseHub hub;
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch sendGate; // when set, sends block until it opens
+
+    private SseHub hub(int queueCapacity, long heartbeatSeconds) {
+        registry = new SimpleMeterRegistry();
+        hub = new SseHub(registry, 30, queueCapacity, 100, 120, heartbeatSeconds, 2, false) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter e = new RecordingEmitter(timeoutMs);
+                emitters.add(e);
+                return e;
+            }
+        };
+        return hub;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sendGate != null) sendGate.countDown();
+        if (hub != null) hub.shutdown();
+    }
+
+    @Test
+    void reconnectReplaysOnlyEventsAfterLastEventId() throws Exception {
+        hub(16, 60);
+        hub.subscribe(SseChannel.CHAT, 1L, null);
+        RecordingEmitter first = emitters.get(0);
+        hub.publish(SseChannel.CHAT, 1L, "message", "m1");
+        hub.publish(SseChannel.CHAT, 1L, "message", "m2");
+        hub.publish(SseChannel.CHAT, 1L, "message", "m3");
+        await(() -> first.sent.size() == 4);
+
+        hub.subscribe(SseChannel.CHAT, 1L, first.idOf("m1"));
+        RecordingEmitter second = emitters.get(1);
+        await(() -> second.sent.size() == 3);
+
+        assertEquals(List.of("{\"ok\":true}", "m2", "m3"), second.data());
+    }
+
+    @Test
+    void connectionWithoutLastEventIdGetsNoReplay() throws Exception {
+        hub(16, 60);
+        hub.subscribe(SseChannel.CHAT, 1L, null);
+        hub.publish(SseChannel.CHAT, 1L, "message", "m1");
+
+        hub.subscribe(SseChannel.CHAT, 1L, null);
+        RecordingEmitter second = emitters.get(1);
+        await(() -> second.sent.size() == 1);
+        hub.publish(SseChannel.CHAT, 1L, "message", "m2");
+        await(() -> second.sent.size() == 2);
+
+        assertEquals(List.of("{\"ok\":true}", "m2"), second.data());
+    }
+
+    @Test
+    void overflowingConnectionIsClosed() throws Exception {
+        hub(2, 60);
+        CountDownLatch gate = new CountDownLatch(1);
+        sendGate = gate;
+        hub.subscribe(SseChannel.NOTIFICATION, 1L, null);
+        RecordingEmitter slow = emitters.get(0);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS), "writer is stuck on the init event");
+
+        hub.publish(SseChannel.NOTIFICATION, 1L, "notification", "n1");
+        hub.publish(SseChannel.NOTIFICATION, 1L, "notification", "n2");
+        assertFalse(slow.completed);
+
+        hub.publish(SseChannel.NOTIFICATION, 1L, "notification", "n3"); // queue of 2 is full
+
+        assertTrue(slow.completed);
+        assertEquals(1.0, registry.get("sse.queue.overflows").counter().count());
+        assertEquals(0, hub.connectionCount());
+        assertTrue(hub.connectedUserIds(SseChannel.NOTIFICATION).isEmpty());
+        gate.countDown();
+    }
+
+    @Test
+    void eventsStayWithinTheirChannelAndUser() throws Exception {
+        hub(16, 60);
+        hub.subscribe(SseChannel.CHAT, 1L, null);
+        hub.subscribe(SseChannel.CHAT, 2L, null);
+        hub.subscribe(SseChannel.NOTIFICATION, 1L, null);
+        RecordingEmitter chat1 = emitters.get(0), chat2 = emitters.get(1), notif1 = emitters.get(2);
+
+        hub.publish(SseChannel.CHAT, 1L, "message", "for-1");
+        await(() -> chat1.sent.size() == 2);
+        hub.publish(SseChannel.NOTIFICATION, 1L, "notification", "sentinel");
+        await(() -> notif1.sent.size() == 2);
+
+        assertEquals(List.of("{\"ok\":true}", "for-1"), chat1.data());
+        assertEquals(List.of("{\"ok\":true}"), chat2.data());
+        assertEquals(List.of("{\"ok\":true}", "sentinel"), notif1.data());
+        assertEquals(Set.of(1L, 2L), hub.connectedUserIds(SseChannel.CHAT));
+    }
+
+    @Test
+    void idleConnectionsGetHeartbeatComments() throws Exception {
+        hub(16, 1);
+        hub.subscribe(SseChannel.CHAT, 1L, null);
+        RecordingEmitter e = emitters.get(0);
+
+        await(() -> e.sent.stream().anyMatch(s -> s.startsWith(":hb")));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+
+    /** Captures the rendered text of every event instead of writing to a response. */
+    private class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        volatile boolean completed;
+
+        RecordingEmitter(long timeoutMs) {
+            super(timeoutMs);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            CountDownLatch gate = sendGate;
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(d -> text.append(d.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> data() {
+            return sent.stream()
+                    .map(DATA::matcher)
+                    .filter(Matcher::find)
+                    .map(m -> m.group(1))
+                    .toList();
+        }
+
+        String idOf(String data) {
+            return sent.stream()
+                    .filter(s -> s.contains("data:" + data + "\n"))
+                    .map(ID::matcher)
+                    .filter(Matcher::find)
+                    .map(m -> m.group(1))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+}
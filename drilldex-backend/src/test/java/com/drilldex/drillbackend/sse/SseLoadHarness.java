@@ -0,0 +1,198 @@
+package com.drilldex.drillbackend.sse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opens many concurrent notification streams against a running backend and reports server memory
+ * per connection and event delivery latency, for node sizing.
+ *
+ * Start the app with app.sse.probe.enabled=true (optionally --spring.profiles.active=vthreads), then:
+ *   java -cp target/test-classes com.drilldex.drillbackend.sse.SseLoadHarness \
+ *        [baseUrl=http://localhost:8080] [connections=10000] [firstUserId=1000000000000] [rounds=5]
+ *
+ * Raise the open-file limit on both sides first (ulimit -n 65536). Streams are opened on the probe
+ * endpoint with probe tokens, which only exist for ids from app.sse.probe.first-user-id up, so real
+ * users never receive the probe events. Memory is the heap + non-heap delta
+ * reported by the server; run it a few times, GC timing makes single runs noisy.
+ */
+public class SseLoadHarness {
+
+    private static final Pattern SENT_AT = Pattern.compile("\"sentAt\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+            .build();
+
+    private final String baseUrl;
+    private final int connections;
+    private final long firstUserId;
+    private final int rounds;
+
+    private final CountDownLatch connected;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final List<CompletableFuture<?>> streams = new ArrayList<>();
+    private volatile LatencyRound round;
+
+    SseLoadHarness(String baseUrl, int connections, long firstUserId, int rounds) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.connections = connections;
+        this.firstUserId = firstUserId;
+        this.rounds = rounds;
+        this.connected = new CountDownLatch(connections);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SseLoadHarness(
+                arg(args, 0, "http://localhost:8080"),
+                Integer.parseInt(arg(args, 1, "10000")),
+                Long.parseLong(arg(args, 2, "1000000000000")),
+                Integer.parseInt(arg(args, 3, "5"))
+        ).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        String before = get("/api/sse/probe/stats");
+        System.out.println("Server before: " + before);
+
+        long openStart = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            open(firstUserId + i);
+            if (i % 500 == 499) Thread.sleep(100); // ramp up instead of a SYN flood
+        }
+        if (!connected.await(2, TimeUnit.MINUTES)) {
+            System.out.printf("Only %d/%d streams connected%n", connections - connected.getCount(), connections);
+        }
+        long openMs = (System.nanoTime() - openStart) / 1_000_000;
+        Thread.sleep(2000);
+
+        String after = get("/api/sse/probe/stats");
+        System.out.println("Server after:  " + after);
+        long opened = connections - connected.getCount();
+        long delta = (number(after, "heapUsed") + number(after, "nonHeapUsed"))
+                - (number(before, "heapUsed") + number(before, "nonHeapUsed"));
+        System.out.printf("Opened %d streams in %d ms, %d failures%n", opened, openMs, failures.get());
+        System.out.printf("Memory per connection: ~%d bytes (heap + non-heap delta %d bytes)%n",
+                opened > 0 ? delta / opened : 0, delta);
+        System.out.printf("Platform threads: %d -> %d%n",
+                number(before, "platformThreads"), number(after, "platformThreads"));
+
+        for (int r = 1; r <= rounds; r++) {
+            LatencyRound lr = new LatencyRound((int) opened);
+            round = lr;
+            post("/api/sse/probe/publish?fromUserId=" + firstUserId + "&toUserId=" + (firstUserId + connections - 1));
+            boolean complete = lr.done.await(30, TimeUnit.SECONDS);
+            System.out.printf("Round %d: %s%s%n", r, lr.summary(), complete ? "" : " (timed out)");
+        }
+
+        streams.forEach(f -> f.cancel(true));
+    }
+
+    private void open(long userId) throws Exception {
+        Matcher m = TOKEN.matcher(get("/api/sse/probe/stream-token?userId=" + userId));
+        if (!m.find()) throw new IllegalStateException("No stream token for user " + userId);
+        HttpRequest req = HttpRequest.newBuilder(URI.create(baseUrl + "/api/sse/probe/stream?token=" + m.group(1)))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        streams.add(client.sendAsync(req, HttpResponse.BodyHandlers.fromLineSubscriber(new StreamReader()))
+                .exceptionally(e -> {
+                    failures.incrementAndGet();
+                    return null;
+                }));
+    }
+
+    /** Parses the SSE lines of one stream; only "init" and "probe" events matter here. */
+    private final class StreamReader implements Flow.Subscriber<String> {
+        private String event;
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith("event:")) {
+                event = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if ("init".equals(event)) {
+                    connected.countDown();
+                } else if ("probe".equals(event)) {
+                    Matcher m = SENT_AT.matcher(line);
+                    LatencyRound lr = round;
+                    if (m.find() && lr != null) lr.record(System.currentTimeMillis() - Long.parseLong(m.group(1)));
+                }
+            } else if (line.isEmpty()) {
+                event = null;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failures.incrementAndGet();
+        }
+
+        @Override
+        public void onComplete() {}
+    }
+
+    private static final class LatencyRound {
+        final long[] samples;
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch done;
+
+        LatencyRound(int expected) {
+            this.samples = new long[Math.max(1, expected)];
+            this.done = new CountDownLatch(expected);
+        }
+
+        void record(long ms) {
+            int i = count.getAndIncrement();
+            if (i < samples.length) samples[i] = ms;
+            done.countDown();
+        }
+
+        String summary() {
+            int n = Math.min(count.get(), samples.length);
+            if (n == 0) return "no events received";
+            long[] s = Arrays.copyOf(samples, n);
+            Arrays.sort(s);
+            return String.format("%d events, p50=%d ms p95=%d ms p99=%d ms max=%d ms",
+                    n, s[n / 2], s[(int) (n * 0.95)], s[(int) (n * 0.99)], s[n - 1]);
+        }
+    }
+
+    private String get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private void post(String path) throws Exception {
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static long number(String json, String field) {
+        Matcher m = Pattern.compile("\"" + field + "\"\\s*:\\s*(\\d+)").matcher(json);
+        return m.find() ? Long.parseLong(m.group(1)) : 0;
+    }
+
+    private static String arg(String[] args, int i, String def) {
+        return args.length > i ? args[i] : def;
+    }
+}
@@ -0,0 +1,76 @@
+package com.drilldex.drillbackend.sse;
+
+import com.drilldex.drillbackend.auth.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SseProbeControllerTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+    private static final long FIRST_SYNTHETIC = 1_000_000L;
+
+    private SseHub hub;
+    private JwtService jwtService;
+    private SseProbeController controller;
+
+    @BeforeEach
+    void setUp() {
+        hub = mock(SseHub.class);
+        jwtService = new JwtService(SECRET, 60_000, 60_000);
+        controller = new SseProbeController(hub, jwtService);
+        ReflectionTestUtils.setField(controller, "firstSyntheticUserId", FIRST_SYNTHETIC);
+    }
+
+    @Test
+    void noProbeTokenForARealUserId() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.streamToken(42L).getStatusCode());
+    }
+
+    @Test
+    void probeTokenOpensOnlyTheProbeStream() {
+        String token = token(controller.streamToken(FIRST_SYNTHETIC + 5).getBody());
+
+        assertNull(jwtService.parseStreamToken(token), "user streams reject probe tokens");
+        controller.stream(token, null);
+        verify(hub).subscribe(SseChannel.NOTIFICATION, FIRST_SYNTHETIC + 5, null);
+    }
+
+    @Test
+    void probeStreamRejectsUserStreamTokens() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.stream(jwtService.generateStreamToken(42L), null));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        verify(hub, never()).subscribe(any(), anyLong(), any());
+    }
+
+    @Test
+    void probeStreamRejectsProbeTokensBelowTheSyntheticRange() {
+        assertThrows(ResponseStatusException.class,
+                () -> controller.stream(jwtService.generateProbeToken(42L), null));
+        verify(hub, never()).subscribe(any(), anyLong(), any());
+    }
+
+    @Test
+    void publishCannotReachRealUsers() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.publish(1L, 10L).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.publish(FIRST_SYNTHETIC - 1, FIRST_SYNTHETIC).getStatusCode());
+        verifyNoInteractions(hub);
+
+        assertEquals(HttpStatus.OK, controller.publish(FIRST_SYNTHETIC, FIRST_SYNTHETIC + 1).getStatusCode());
+        verify(hub, times(2)).publish(eq(SseChannel.NOTIFICATION), anyLong(), eq("probe"), any());
+    }
+
+    private static String token(Object body) {
+        return (String) ((Map<?, ?>) body).get("token");
+    }
+}
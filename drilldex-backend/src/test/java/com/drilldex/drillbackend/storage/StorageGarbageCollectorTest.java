@@ -0,0 +1,150 @@
+package com.drilldex.drillbackend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StorageGarbageCollectorTest {
+
+    private static final String UUID_LEAF = "3f2504e0-4f89-11d3-9a0c-0305e82c3301.wav";
+
+    @TempDir
+    Path dir;
+
+    private final List<String> references = new ArrayList<>();
+
+    private StorageGarbageCollector collector() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.getDataSource()).thenReturn(mock(DataSource.class));
+        return new StorageGarbageCollector(
+                jdbc,
+                mock(PlatformTransactionManager.class),
+                dir.resolve("uploads").toString(),
+                dir.resolve("licenses").toString(),
+                List.of(dir.resolve("licenses").toString(), dir.resolve("packZips").toString()),
+                false,
+                true,
+                72,
+                1000,
+                2) {
+            @Override
+            Set<Path> loadReferences() {
+                Set<Path> refs = new HashSet<>();
+                references.forEach(raw -> addReference(refs, raw));
+                return refs;
+            }
+        };
+    }
+
+    @Test
+    void uploadUrlsAndStorageKeysProtectTheirFiles() throws Exception {
+        old("uploads/audio/a.wav");
+        old("uploads/covers/b.png");
+        old("uploads/previews/c.mp3");
+        old("uploads/audio/orphan.wav");
+        references.addAll(List.of(
+                "/uploads/audio/a.wav",
+                "https://cdn.example.com/uploads/covers/b.png",
+                "previews/c.mp3"));
+
+        StorageGarbageCollector.Report report = collector().run(true);
+
+        assertEquals(List.of("audio/orphan.wav"), report.sample());
+        assertEquals(1, report.candidates());
+        assertEquals(4, report.filesScanned());
+    }
+
+    @Test
+    void aFlatKeyProtectsItsShardedTwin() throws Exception {
+        old("uploads/" + StorageLayout.shardedKey("audio", UUID_LEAF));
+        references.add("audio/" + UUID_LEAF);
+
+        assertEquals(0, collector().run(true).candidates());
+    }
+
+    @Test
+    void licensesPrefixResolvesAgainstTheLicensesDir() throws Exception {
+        old("licenses/kept.pdf");
+        old("licenses/orphan.pdf");
+        references.add("licenses/kept.pdf");
+
+        StorageGarbageCollector.Report report = collector().run(true);
+
+        assertEquals(List.of("orphan.pdf"), report.sample());
+        assertEquals(Set.of("licenses"), report.candidateBytesByRoot().keySet());
+    }
+
+    @Test
+    void aDirectoryReferenceProtectsItsSubtree() throws Exception {
+        old("uploads/stems/beat-1/drums.wav");
+        old("uploads/stems/beat-1/bass/sub.wav");
+        old("uploads/stems/beat-2/drums.wav");
+        references.add("stems/beat-1");
+
+        StorageGarbageCollector.Report report = collector().run(true);
+
+        assertEquals(List.of("stems/beat-2/drums.wav"), report.sample());
+    }
+
+    @Test
+    void filesInsideTheGracePeriodAreNotCandidates() throws Exception {
+        Path fresh = dir.resolve("uploads/audio/fresh.wav");
+        Files.createDirectories(fresh.getParent());
+        Files.writeString(fresh, "new");
+        old("packZips/stale.zip");
+
+        StorageGarbageCollector.Report report = collector().run(true);
+
+        assertEquals(List.of("stale.zip"), report.sample());
+    }
+
+    @Test
+    void dryRunReportsWithoutDeleting() throws Exception {
+        Path orphan = old("uploads/audio/orphan.wav");
+
+        StorageGarbageCollector.Report report = collector().run(true);
+
+        assertTrue(report.dryRun());
+        assertEquals(1, report.candidates());
+        assertEquals(0, report.deleted());
+        assertTrue(Files.exists(orphan));
+    }
+
+    @Test
+    void liveRunDeletesOnlyUnreferencedFiles() throws Exception {
+        Path kept = old("uploads/audio/a.wav");
+        Path orphan = old("uploads/audio/orphan.wav");
+        long orphanSize = Files.size(orphan);
+        references.add("/uploads/audio/a.wav");
+
+        StorageGarbageCollector.Report report = collector().run(false);
+
+        assertEquals(1, report.deleted());
+        assertEquals(orphanSize, report.deletedBytes());
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(kept));
+    }
+
+    private Path old(String relative) throws Exception {
+        Path p = dir.resolve(relative);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, relative);
+        Files.setLastModifiedTime(p, FileTime.from(Instant.now().minus(Duration.ofHours(100))));
+        return p;
+    }
+}
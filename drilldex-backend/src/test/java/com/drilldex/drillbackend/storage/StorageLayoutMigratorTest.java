@@ -0,0 +1,79 @@
+package com.drilldex.drillbackend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageLayoutMigratorTest {
+
+    private static final String A = "3f2504e0-4f89-11d3-9a0c-0305e82c3301.wav";
+    private static final String B = "6ba7b810-9dad-11d1-80b4-00c04fd430c8.png";
+
+    @TempDir
+    Path root;
+
+    private StorageLayoutMigrator migrator() {
+        return new StorageLayoutMigrator(root.toString(), Set.of("audio", "covers"), 100_000);
+    }
+
+    @Test
+    void movesUuidFilesIntoTheShardAndKeepsThemResolvable() throws Exception {
+        write("audio/" + A, "a");
+        write("covers/" + B, "b");
+
+        migrator().migrateAll();
+
+        assertFalse(Files.exists(root.resolve("audio/" + A)));
+        assertEquals("a", Files.readString(root.resolve(StorageLayout.shardedKey("audio", A))));
+        assertEquals("b", Files.readString(root.resolve(StorageLayout.shardedKey("covers", B))));
+        assertEquals("a", Files.readString(StorageLayout.resolveExisting(root, "audio/" + A)));
+    }
+
+    @Test
+    void leavesNonUuidFilesAndUnlistedFoldersAlone() throws Exception {
+        write("audio/legacy-name.wav", "x");
+        write("licenses/" + A, "l");
+
+        migrator().migrateAll();
+
+        assertTrue(Files.exists(root.resolve("audio/legacy-name.wav")));
+        assertTrue(Files.exists(root.resolve("licenses/" + A)));
+    }
+
+    @Test
+    void aSecondPassResumesWithoutTouchingMovedFiles() throws Exception {
+        write("audio/" + A, "a");
+        migrator().migrateAll();
+
+        write("audio/" + B, "b"); // uploaded flat after the first pass
+        migrator().migrateAll();
+
+        assertEquals("a", Files.readString(root.resolve(StorageLayout.shardedKey("audio", A))));
+        assertEquals("b", Files.readString(root.resolve(StorageLayout.shardedKey("audio", B))));
+        try (var left = Files.list(root.resolve("audio"))) {
+            assertTrue(left.noneMatch(Files::isRegularFile), "no flat files remain");
+        }
+    }
+
+    @Test
+    void doesNotOverwriteAnExistingShardedFile() throws Exception {
+        write("audio/" + A, "flat");
+        write(StorageLayout.shardedKey("audio", A), "sharded");
+
+        migrator().migrateAll();
+
+        assertEquals("sharded", Files.readString(root.resolve(StorageLayout.shardedKey("audio", A))));
+        assertEquals("flat", Files.readString(root.resolve("audio/" + A)), "skipped, not lost");
+    }
+
+    private void write(String key, String content) throws Exception {
+        Path p = root.resolve(key);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, content);
+    }
+}
@@ -0,0 +1,78 @@
+package com.drilldex.drillbackend.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageLayoutTest {
+
+    private static final String LEAF = "3f2504e0-4f89-11d3-9a0c-0305e82c3301.wav";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void toShardedRoundTripsToTheSameLeaf() {
+        String sharded = StorageLayout.toSharded("packs/audio/" + LEAF);
+
+        assertEquals(StorageLayout.shardedKey("packs/audio", LEAF), sharded);
+        assertTrue(sharded.startsWith("packs/audio/" + StorageLayout.shardOf(LEAF) + "/"));
+        assertTrue(sharded.endsWith("/" + LEAF));
+        assertTrue(StorageLayout.isSharded(sharded));
+        assertNull(StorageLayout.toSharded(sharded), "already sharded");
+    }
+
+    @Test
+    void toShardedRejectsKeysWithoutAFolderOrLeaf() {
+        assertNull(StorageLayout.toSharded(null));
+        assertNull(StorageLayout.toSharded(LEAF));
+        assertNull(StorageLayout.toSharded("audio/"));
+    }
+
+    @Test
+    void isShardedRequiresTheShardOfTheLeaf() {
+        assertFalse(StorageLayout.isSharded("audio/" + LEAF));
+        assertFalse(StorageLayout.isSharded("audio/00/00/" + LEAF.replace('3', '4')), "wrong shard for the leaf");
+    }
+
+    @Test
+    void resolvesAFlatKeyThatStillHasItsFlatFile() throws Exception {
+        Path flat = write("audio/" + LEAF);
+
+        assertEquals(flat, StorageLayout.resolveExisting(root, "audio/" + LEAF));
+    }
+
+    @Test
+    void resolvesAFlatKeyWhoseFileWasMovedToTheShard() throws Exception {
+        Path sharded = write(StorageLayout.shardedKey("audio", LEAF));
+
+        assertEquals(sharded, StorageLayout.resolveExisting(root, "audio/" + LEAF));
+    }
+
+    @Test
+    void resolvesAShardedKeyDirectly() throws Exception {
+        String key = StorageLayout.shardedKey("audio", LEAF);
+        Path sharded = write(key);
+
+        assertEquals(sharded, StorageLayout.resolveExisting(root, key));
+    }
+
+    @Test
+    void returnsTheDirectPathWhenNothingExists() {
+        Path resolved = StorageLayout.resolveExisting(root, "audio/" + LEAF);
+
+        assertEquals(root.toAbsolutePath().normalize().resolve("audio/" + LEAF), resolved);
+        assertFalse(Files.exists(resolved));
+    }
+
+    private Path write(String key) throws Exception {
+        Path p = root.toAbsolutePath().normalize().resolve(key);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, key);
+        return p;
+    }
+}
@@ -0,0 +1,109 @@
+package com.drilldex.drillbackend.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredStorageServiceTest {
+
+    private static final int SIZE = 600 * 1024; // two of these overflow a 1 MB hot tier
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry registry;
+    private TieredStorageService storage;
+
+    private TieredStorageService create(long serveLeaseMs) throws IOException {
+        registry = new SimpleMeterRegistry();
+        storage = new TieredStorageService(
+                dir.resolve("hot").toString(),
+                "/uploads",
+                StorageLayout.V2,
+                Set.of("audio"),
+                dir.resolve("cold").toString(),
+                1,
+                List.of("audio"),
+                List.of("previews"),
+                1,
+                1000,
+                serveLeaseMs,
+                registry);
+        storage.init();
+        return storage;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (storage != null) storage.shutdown();
+    }
+
+    @Test
+    void evictsShardedFilesFromDiskOnceCopiedToCold() throws Exception {
+        create(0);
+        String first = save();
+        awaitClean();
+        assertTrue(StorageLayout.isSharded(first));
+
+        save(); // over capacity: the clean first entry goes
+
+        assertFalse(Files.exists(dir.resolve("hot").resolve(first)));
+        assertTrue(Files.exists(dir.resolve("cold").resolve(first)));
+        assertEquals(1.0, registry.get("storage.cache.evictions").counter().count());
+        assertEquals(SIZE, registry.get("storage.cache.bytes").gauge().value());
+
+        Path back = storage.resolveLocal(first);
+        assertNotNull(back);
+        assertEquals(SIZE, Files.size(back));
+    }
+
+    @Test
+    void doesNotEvictAnEntryThatWasJustServed() throws Exception {
+        create(60_000);
+        String first = save();
+        awaitClean();
+
+        Path served = storage.resolveLocal(first);
+        save();
+
+        assertTrue(Files.exists(served));
+        assertEquals(0.0, registry.get("storage.cache.evictions").counter().count());
+    }
+
+    @Test
+    void resolvesMigratedFlatKeysToTheirShardedFile() throws Exception {
+        create(0);
+        String flat = "audio/legacy.mp3";
+        Path sharded = dir.resolve("hot").resolve(StorageLayout.toSharded(flat));
+        Files.createDirectories(sharded.getParent());
+        Files.write(sharded, new byte[16]);
+        Path coldFlat = dir.resolve("cold").resolve(flat);
+        Files.createDirectories(coldFlat.getParent());
+        Files.write(coldFlat, new byte[16]);
+
+        assertEquals(sharded, storage.resolveLocal(flat));
+        assertFalse(Files.exists(dir.resolve("hot").resolve(flat)), "must not fetch a second, flat copy");
+    }
+
+    private String save() throws IOException {
+        return storage.save(new ByteArrayInputStream(new byte[SIZE]), SIZE, "beat.mp3", "audio", "audio/mpeg");
+    }
+
+    private void awaitClean() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("storage.cache.dirty").gauge().value() > 0) {
+            if (System.currentTimeMillis() > deadline) fail("write-behind did not finish");
+            Thread.sleep(10);
+        }
+    }
+}
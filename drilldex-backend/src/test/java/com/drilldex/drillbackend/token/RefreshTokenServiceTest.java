@@ -0,0 +1,101 @@
+package com.drilldex.drillbackend.token;
+
+import com.drilldex.drillbackend.user.User;
+import com.drilldex.drillbackend.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private static final String RAW = "raw-refresh-token";
+    private static final String FAMILY = "family-1";
+
+    private RefreshTokenRepository repository;
+    private RefreshTokenService service;
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenRepository.class);
+        service = new RefreshTokenService(repository, mock(UserRepository.class));
+        ReflectionTestUtils.setField(service, "refreshTokenExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(service, "reuseGraceSeconds", 10L);
+
+        User user = new User();
+        user.setId(7L);
+        stored = new RefreshToken();
+        stored.setUser(user);
+        stored.setFamilyId(FAMILY);
+        stored.setTokenHash(RefreshTokenService.hash(RAW));
+        stored.setExpiryDate(Instant.now().plus(1, ChronoUnit.HOURS));
+
+        when(repository.findByTokenHashForUpdate(RefreshTokenService.hash(RAW))).thenReturn(Optional.of(stored));
+        when(repository.findByTokenHash(RefreshTokenService.hash(RAW))).thenReturn(Optional.of(stored));
+        when(repository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void firstExchangeRotatesWithinTheFamily() {
+        RefreshTokenService.Refresh refresh = service.rotate(RAW);
+
+        assertEquals(RefreshTokenService.Outcome.ROTATED, refresh.outcome());
+        assertNotNull(refresh.refreshToken());
+        assertNotNull(stored.getRotatedAt());
+        verify(repository).save(argThat(t -> FAMILY.equals(t.getFamilyId())));
+    }
+
+    @Test
+    void replayInsideTheGracePeriodGetsOneReissueThenNothing() {
+        service.rotate(RAW);
+        Instant rotatedAt = stored.getRotatedAt();
+
+        RefreshTokenService.Refresh second = service.rotate(RAW);
+        RefreshTokenService.Refresh third = service.rotate(RAW);
+
+        assertEquals(RefreshTokenService.Outcome.ROTATED, second.outcome());
+        assertEquals(RefreshTokenService.Outcome.CONCURRENT, third.outcome());
+        assertNull(third.refreshToken());
+        assertEquals(rotatedAt, stored.getRotatedAt(), "the grace period must not restart");
+        verify(repository, times(2)).save(any(RefreshToken.class));
+        verify(repository, never()).deleteFamily(anyString());
+    }
+
+    @Test
+    void reuseAfterTheGracePeriodRevokesTheFamily() {
+        Instant rotatedAt = Instant.now().minusSeconds(60);
+        stored.setRotatedAt(rotatedAt);
+
+        RefreshTokenService.Refresh refresh = service.rotate(RAW);
+
+        assertEquals(RefreshTokenService.Outcome.REUSED, refresh.outcome());
+        assertNull(refresh.refreshToken());
+        assertEquals(rotatedAt, stored.getRotatedAt());
+        verify(repository).deleteFamily(FAMILY);
+        verify(repository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void logoutRevokesTheWholeFamily() {
+        service.revokeFamily(RAW);
+
+        verify(repository).deleteFamily(FAMILY);
+    }
+
+    @Test
+    void logoutWithAnUnknownTokenRevokesNothing() {
+        service.revokeFamily("not-a-token");
+        service.revokeFamily(null);
+
+        verify(repository, never()).deleteFamily(anyString());
+    }
+}
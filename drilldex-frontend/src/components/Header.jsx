@@ -4,6 +4,7 @@ import {useState} from "react";
 import {useCart} from "../state/cart";
 import {useAuth} from "../state/auth.jsx";
 import api from "../lib/api.js"
+import {openAuthedStream} from "../lib/sse.js";
 import ReferralModal from "../components/ReferralModal";
 
 
@@ -28,6 +29,31 @@ import {createContext, useContext} from "react";
 import {useNavigate} from "react-router-dom";
 import {IoNotificationsOutline} from "react-icons/io5";
 
+// Follower uploads come from /notifications/feed and "activity" events rather than the
+// notifications table; they are read/cleared locally, up to a per-user "seen" timestamp.
+const feedSeenKey = (userId) => `feedSeenAt:${userId}`;
+
+function toActivityNotification(a, seenAt) {
+    return {
+        id: `activity-${a.id}`,
+        activity: true,
+        title: a.title,
+        message: a.message,
+        relatedType: a.relatedType,
+        slug: a.slug,
+        createdAt: a.createdAt,
+        read: !!seenAt && new Date(a.createdAt) <= new Date(seenAt),
+    };
+}
+
+function markActivitySeen(userId, n) {
+    if (!userId || !n?.createdAt) return;
+    const prev = localStorage.getItem(feedSeenKey(userId));
+    if (!prev || new Date(n.createdAt) > new Date(prev)) {
+        localStorage.setItem(feedSeenKey(userId), n.createdAt);
+    }
+}
+
 function useNotifications(userId) {
     const [notifications, setNotifications] = useState([]);
     const seenIdsRef = useRef(new Set());
@@ -46,28 +72,29 @@ function useNotifications(userId) {
                 const list = res.data.content || [];
                 console.log("[Notifications] Parsed notifications list:", list);
 
+                let activities = [];
+                try {
+                    const feed = await api.get("/notifications/feed", { params: { size: 20 } });
+                    const seenAt = localStorage.getItem(feedSeenKey(userId));
+                    activities = (feed.data?.content || [])
+                        .map(a => toActivityNotification(a, seenAt))
+                        .filter(n => !n.read);
+                } catch (err) {
+                    console.error("[Notifications] Failed to fetch activity feed:", err);
+                }
+
                 if (!alive) return;
-                setNotifications(list);
-                seenIdsRef.current = new Set(list.map(n => n.id));
+                const merged = [...activities, ...list]
+                    .sort((a, b) => new Date(b.createdAt || 0) - new Date(a.createdAt || 0));
+                setNotifications(merged);
+                seenIdsRef.current = new Set(merged.map(n => n.id));
             } catch (err) {
                 console.error("[Notifications] Failed to fetch initial list:", err);
             }
         })();
 
-        // 2. SSE / live updates
-        const base = (api.defaults?.baseURL || "").replace(/\/+$/, "");
-        const url = `${base}/notifications/stream?userId=${encodeURIComponent(String(userId))}`;
-        console.log("[Notifications] Connecting SSE to:", url);
-
-        let es;
-
-        try {
-            es = new EventSource(url, { withCredentials: false });
-        } catch (err) {
-            console.warn("[Notifications] SSE initialization failed:", err);
-        }
-
-        if (es) {
+        // 2. SSE / live updates (authenticated with a stream token)
+        const closeStream = openAuthedStream("/notifications/stream", (es) => {
             es.addEventListener("open", () => {
                 console.log("[Notifications SSE] connection opened");
             });
@@ -86,14 +113,26 @@ function useNotifications(userId) {
                 }
             });
 
+            // Uploads from followed users
+            es.addEventListener("activity", (e) => {
+                try {
+                    const n = toActivityNotification(JSON.parse(e.data), null);
+                    if (seenIdsRef.current.has(n.id)) return;
+                    seenIdsRef.current.add(n.id);
+                    setNotifications(prev => [n, ...prev]);
+                } catch (err) {
+                    console.error("[Notifications SSE] Failed to parse activity:", err);
+                }
+            });
+
             es.addEventListener("error", (e) => {
                 console.warn("[Notifications SSE] error:", e);
             });
-        }
+        });
 
         return () => {
             alive = false;
-            try { es?.close(); } catch {}
+            closeStream();
         };
     }, [userId]);
 
@@ -135,7 +174,9 @@ export default function Header() {
 // Helper to mark a notification read
     const markAsRead = async (id) => {
         try {
-            await api.post(`/notifications/${id}/read`);
+            const activity = notifications.find(n => n.id === id && n.activity);
+            if (activity) markActivitySeen(userId, activity);
+            else await api.post(`/notifications/${id}/read`);
             setNotifications(prev => prev.map(n => n.id === id ? { ...n, read: true } : n));
         } catch (err) {
             console.error("Failed to mark notification as read", err);
@@ -144,7 +185,9 @@ export default function Header() {
 
     const deleteNotification = async (id) => {
         try {
-            await api.delete(`/notifications/${id}`);
+            const activity = notifications.find(n => n.id === id && n.activity);
+            if (activity) markActivitySeen(userId, activity);
+            else await api.delete(`/notifications/${id}`);
             setNotifications(prev => prev.filter(n => n.id !== id));
         } catch (err) {
             console.error("Failed to delete notification", err);
@@ -178,7 +221,8 @@ export default function Header() {
 
     const handleNotificationClick = async (n) => {
         try {
-            await api.post(`/notifications/${n.id}/read`);
+            if (n.activity) markActivitySeen(userId, n);
+            else await api.post(`/notifications/${n.id}/read`);
             setNotifications(prev => prev.map(notif => notif.id === n.id ? { ...notif, read: true } : notif));
 
             switch (n.relatedType) {
@@ -0,0 +1,50 @@
+// src/lib/sse.js
+import api from "./api.js";
+
+/**
+ * Opens an EventSource on an authenticated stream (e.g. "/notifications/stream").
+ *
+ * EventSource cannot send an Authorization header, so a short-lived stream token is fetched
+ * first and passed as ?token=. When the server closes the stream for good (e.g. the token
+ * expired), a fresh token is fetched and the stream reopened. `setup(es)` registers listeners
+ * on every new EventSource. Returns a function that closes the stream.
+ */
+export function openAuthedStream(path, setup, { retryMs = 5000 } = {}) {
+    let es = null;
+    let closed = false;
+    let timer = null;
+
+    const retry = () => {
+        if (!closed) timer = setTimeout(connect, retryMs);
+    };
+
+    async function connect() {
+        let token;
+        try {
+            const { data } = await api.post("/sse/token");
+            token = data?.token;
+        } catch (err) {
+            console.warn("[SSE] Could not get a stream token:", err);
+            const status = err?.response?.status;
+            if (status !== 401 && status !== 403) retry(); // logged out: stay closed
+            return;
+        }
+        if (closed || !token) return;
+
+        const base = (api.defaults?.baseURL || "").replace(/\/+$/, "");
+        es = new EventSource(`${base}${path}?token=${encodeURIComponent(token)}`, { withCredentials: false });
+        setup(es);
+        es.addEventListener("error", () => {
+            // CONNECTING means the browser is retrying by itself; CLOSED means it gave up
+            if (es.readyState === EventSource.CLOSED) retry();
+        });
+    }
+
+    connect();
+
+    return () => {
+        closed = true;
+        clearTimeout(timer);
+        try { es?.close(); } catch {}
+    };
+}
@@ -4,6 +4,7 @@ import {useParams, useNavigate, useLocation} from "react-router-dom";
 import "./chatpage.css";
 import {useAuth} from "../state/auth";
 import api from "../lib/api";
+import {openAuthedStream} from "../lib/sse";
 
 export default function ChatPage() {
     const {user, loading: authLoading} = useAuth() || {user: null, loading: false};
@@ -147,6 +148,12 @@ export default function ChatPage() {
         };
     }, [myId, toId, recipientName]);
 
+    // Clears the server-side unread counter for a conversation that is on screen
+    const markThreadRead = (partnerId) => {
+        setThreads(prev => prev.map(t => Number(t.partnerId) === partnerId ? {...t, unreadCount: 0} : t));
+        api.post(`/chat/threads/${partnerId}/read`).catch((e) => console.warn("[Chat] mark read failed:", e));
+    };
+
     // === Load chat history for current thread =================================
     useEffect(() => {
         let alive = true;
@@ -159,6 +166,7 @@ export default function ChatPage() {
                 // seed de-dupe set with history IDs
                 seenIdsRef.current = new Set(rows.filter(m => m?.id != null).map(m => m.id));
                 setMessages(rows);
+                markThreadRead(toId);
             } catch (e) {
                 console.error("[History] failed:", e);
             }
@@ -205,55 +213,53 @@ export default function ChatPage() {
     useEffect(() => {
         if (!Number.isFinite(myId)) return;
 
-        const base = (api.defaults?.baseURL || "").replace(/\/+$/, ""); // e.g. http://localhost:8080/api
-        const url = `${base}/chat/stream?userId=${encodeURIComponent(String(myId))}`;
-        const es = new EventSource(url, {withCredentials: false});
-        esRef.current = es;
-
-        es.addEventListener("message", (e) => {
-            try {
-                const payload = JSON.parse(e.data); // { id?, senderId, receiverId, content, timestamp }
-                const a = Number(payload.senderId);
-                const b = Number(payload.receiverId);
-
-                // Update/bump thread preview for whichever partner this is
-                const partnerId = a === myId ? b : a;
-                setThreads(prev => {
-                    const rest = prev.filter(t => Number(t.partnerId) !== partnerId);
-                    const existing = prev.find(t => Number(t.partnerId) === partnerId);
-                    const item = {
-                        // ...(existing || { partnerId, partnerName: existing?.partnerName || `User #${partnerId}` }),
-                        ...(existing || {partnerId}),
-                        lastContent: payload.content ?? existing?.lastContent ?? "",
-                        lastTimestamp: payload.timestamp ?? existing?.lastTimestamp ?? null,
-                    };
-                    return [item, ...rest];
-                });
-
-                // Only push into message list if it's for the active thread
-                const forActive = (a === myId && b === toId) || (a === toId && b === myId);
-                if (!forActive) return;
-
-                // Hard de-dupe by message id
-                if (payload.id != null) {
-                    if (seenIdsRef.current.has(payload.id)) return;
-                    seenIdsRef.current.add(payload.id);
+        const closeStream = openAuthedStream("/chat/stream", (es) => {
+            esRef.current = es;
+
+            es.addEventListener("message", (e) => {
+                try {
+                    const payload = JSON.parse(e.data); // { id?, senderId, receiverId, content, timestamp }
+                    const a = Number(payload.senderId);
+                    const b = Number(payload.receiverId);
+
+                    // Update/bump thread preview for whichever partner this is
+                    const partnerId = a === myId ? b : a;
+                    setThreads(prev => {
+                        const rest = prev.filter(t => Number(t.partnerId) !== partnerId);
+                        const existing = prev.find(t => Number(t.partnerId) === partnerId);
+                        const item = {
+                            // ...(existing || { partnerId, partnerName: existing?.partnerName || `User #${partnerId}` }),
+                            ...(existing || {partnerId}),
+                            lastContent: payload.content ?? existing?.lastContent ?? "",
+                            lastTimestamp: payload.timestamp ?? existing?.lastTimestamp ?? null,
+                        };
+                        return [item, ...rest];
+                    });
+
+                    // Only push into message list if it's for the active thread
+                    const forActive = (a === myId && b === toId) || (a === toId && b === myId);
+                    if (!forActive) return;
+
+                    // Hard de-dupe by message id
+                    if (payload.id != null) {
+                        if (seenIdsRef.current.has(payload.id)) return;
+                        seenIdsRef.current.add(payload.id);
+                    }
+                    setMessages(prev => [...prev, payload]);
+                    // Already read: the thread is open
+                    if (a === toId) markThreadRead(toId);
+                } catch (err) {
+                    console.warn("[SSE] bad JSON:", e.data, err);
                 }
-                setMessages(prev => [...prev, payload]);
-            } catch (err) {
-                console.warn("[SSE] bad JSON:", e.data, err);
-            }
-        });
+            });
 
-        es.addEventListener("error", (e) => {
-            console.warn("[SSE] error:", e);
+            es.addEventListener("error", (e) => {
+                console.warn("[SSE] error:", e);
+            });
         });
 
         return () => {
-            try {
-                es.close();
-            } catch {
-            }
+            closeStream();
             esRef.current = null;
         };
     }, [myId, toId]);
@@ -4,6 +4,7 @@ import { useNavigate } from "react-router-dom";
 import { toast } from "react-hot-toast";
 import { useAuth } from "../state/auth.jsx";
 import api from "../lib/api";
+import { openAuthedStream } from "../lib/sse";
 import "./notificationspage.css";
 
 export default function NotificationsPage() {
@@ -92,24 +93,24 @@ export default function NotificationsPage() {
         //
         // fetchNotifications();
 
-        const base = (api.defaults?.baseURL || "").replace(/\/+$/, "");
-        const url = `${base}/notifications/stream?userId=${encodeURIComponent(String(userId))}`;
-        esRef.current = new EventSource(url, { withCredentials: false });
-
-        esRef.current.addEventListener("notification", (e) => {
-            try {
-                const n = JSON.parse(e.data);
-                if (!n?.id || seenIdsRef.current.has(n.id)) return;
-                seenIdsRef.current.add(n.id);
-                setNotifications(prev => [n, ...prev]);
-            } catch (err) {
-                console.error("[Notifications SSE] Failed to parse:", err);
-            }
+        const closeStream = openAuthedStream("/notifications/stream", (es) => {
+            esRef.current = es;
+            es.addEventListener("notification", (e) => {
+                try {
+                    const n = JSON.parse(e.data);
+                    if (!n?.id || seenIdsRef.current.has(n.id)) return;
+                    seenIdsRef.current.add(n.id);
+                    setNotifications(prev => [n, ...prev]);
+                } catch (err) {
+                    console.error("[Notifications SSE] Failed to parse:", err);
+                }
+            });
         });
 
         return () => {
             alive = false;
-            try { esRef.current?.close(); } catch {}
+            closeStream();
+            esRef.current = null;
         };
     }, [userId]);
 
@@ -91,7 +91,11 @@ export function AuthProvider({ children }) {
         ...auth,
         isAuthenticated: !!auth.token, // handy, optional
         login: (payload) => setAuth((prev) => ({ ...prev, ...payload })),
-        logout: () => setAuth(DEFAULT_AUTH),
+        logout: () => {
+            // revoke the refresh token family server-side; the local sign-out doesn't wait for it
+            if (auth.refreshToken) api.post("/auth/logout", { refreshToken: auth.refreshToken }).catch(() => {});
+            setAuth(DEFAULT_AUTH);
+        },
            setAvatarUrl: (url) => setAuth((prev) => ({ ...prev, avatarUrl: url ? toFileUrl(url) : null })),
            refreshMe: async () => {
              const { data } = await api.get("/me");